@@ -0,0 +1,12 @@
+package simulation.crawler.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class BenchmarkApplication {
+	public static void main(String[] args) {
+		// The exit code reports regressions against bench.baseline, so a build can fail on them
+		System.exit(SpringApplication.exit(SpringApplication.run(BenchmarkApplication.class, args)));
+	}
+}
@@ -0,0 +1,188 @@
+package simulation.crawler.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+import simulation.crawler.benchmark.harness.PipelineHarness;
+import simulation.crawler.benchmark.load.JitterRange;
+import simulation.crawler.benchmark.load.LoadDriver;
+import simulation.crawler.benchmark.load.LoadDriver.Load;
+import simulation.crawler.benchmark.load.Scenario;
+import simulation.crawler.benchmark.report.BenchmarkReport;
+import simulation.crawler.benchmark.report.ScenarioResult;
+import simulation.crawler.benchmark.repository.PipelineStatsRepository;
+import simulation.crawler.benchmark.repository.PipelineStatsRepository.PipelineStats;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boots the pipeline once, runs a warm-up, then every combination of bench.rates and the parser/sensor
+// sweep for bench.duration each, waiting for each scenario to drain before the next. The report is
+// written to bench.report; with bench.baseline set, regressions against it make the exit code 1.
+@Component
+@Slf4j
+public class BenchmarkRunner implements CommandLineRunner, ExitCodeGenerator {
+    private final PipelineHarness harness;
+    private final LoadDriver driver;
+    private final PipelineStatsRepository statsRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${bench.rates:200,1000}")
+    private List<Integer> rates;
+
+    @Value("${bench.sweep.parser-jitter:100-1000}")
+    private List<String> parserJitter;
+
+    @Value("${bench.sweep.sensor-jitter:100-300}")
+    private List<String> sensorJitter;
+
+    @Value("${bench.sweep.fail-rate:0.25}")
+    private List<Double> failRates;
+
+    @Value("${bench.duration:30s}")
+    private Duration duration;
+
+    @Value("${bench.warmup:10s}")
+    private Duration warmup;
+
+    @Value("${bench.drain-timeout:5m}")
+    private Duration drainTimeout;
+
+    @Value("${bench.cleanup:true}")
+    private boolean cleanup;
+
+    @Value("${bench.report:target/pipeline-benchmark.json}")
+    private Path reportPath;
+
+    @Value("${bench.baseline:}")
+    private String baselinePath;
+
+    @Value("${bench.tolerance:0.15}")
+    private double tolerance;
+
+    @Value("${bench.label:}")
+    private String label;
+
+    private int exitCode;
+
+    public BenchmarkRunner(PipelineHarness harness, LoadDriver driver, PipelineStatsRepository statsRepository,
+                           ObjectMapper objectMapper) {
+        this.harness = harness;
+        this.driver = driver;
+        this.statsRepository = statsRepository;
+        this.objectMapper = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Instant startedAt = Instant.now();
+        List<Scenario> scenarios = sweep();
+        log.info("Running {} scenarios of {} each", scenarios.size(), duration);
+
+        List<ScenarioResult> results = new ArrayList<>();
+        harness.start();
+        try {
+            // JIT, connection pools and consumer assignment settle here, outside any measured scenario
+            driver.applyProfile(scenarios.get(0));
+            Load warmupLoad = driver.drive(scenarios.get(0).rate(), warmup);
+            driver.awaitDrained(warmupLoad, drainTimeout);
+            statsRepository.delete(warmupLoad.processIds());
+
+            for (Scenario scenario : scenarios) {
+                results.add(measure(scenario));
+            }
+        } finally {
+            harness.stop();
+        }
+
+        BenchmarkReport report = new BenchmarkReport(startedAt, settings(), results);
+        if (reportPath.getParent() != null) {
+            Files.createDirectories(reportPath.getParent());
+        }
+        objectMapper.writeValue(reportPath.toFile(), report);
+        results.forEach(result -> log.info("{}: {} URLs/s, p50 {} ms, p95 {} ms, p99 {} ms, {} failed{}",
+                result.getName(), Math.round(result.getThroughput()), round(result.getP50Ms()),
+                round(result.getP95Ms()), round(result.getP99Ms()), result.getFailed(),
+                result.isDrained() ? "" : " (not drained)"));
+        log.info("Report written to {}", reportPath.toAbsolutePath());
+
+        if (!baselinePath.isBlank()) {
+            BenchmarkReport baseline = objectMapper.readValue(Path.of(baselinePath).toFile(), BenchmarkReport.class);
+            List<String> regressions = report.regressionsAgainst(baseline, tolerance);
+            regressions.forEach(regression -> log.error("Regression: {}", regression));
+            log.info("{} regressions against {}", regressions.size(), baselinePath);
+            exitCode = regressions.isEmpty() ? 0 : 1;
+        }
+    }
+
+    private ScenarioResult measure(Scenario scenario) throws InterruptedException {
+        log.info("Scenario {}", scenario.name());
+        driver.applyProfile(scenario);
+        Load load = driver.drive(scenario.rate(), duration);
+        boolean drained = driver.awaitDrained(load, drainTimeout);
+        PipelineStats stats = statsRepository.stats(load.processIds());
+        if (cleanup) {
+            statsRepository.delete(load.processIds());
+        }
+
+        long finished = stats.completed() + stats.failed();
+        return ScenarioResult.builder()
+                .name(scenario.name())
+                .offeredRate(scenario.rate())
+                .parserJitter(scenario.parserJitter().toString())
+                .sensorJitter(scenario.sensorJitter().toString())
+                .failRate(scenario.failRate())
+                .sent(load.sent())
+                .completed(stats.completed())
+                .failed(stats.failed())
+                .drained(drained)
+                .throughput(stats.windowSeconds() > 0 ? finished / stats.windowSeconds() : 0)
+                .p50Ms(stats.p50Ms())
+                .p95Ms(stats.p95Ms())
+                .p99Ms(stats.p99Ms())
+                .maxMs(stats.maxMs())
+                .build();
+    }
+
+    private List<Scenario> sweep() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String parser : parserJitter) {
+            for (String sensor : sensorJitter) {
+                for (double failRate : failRates) {
+                    for (int rate : rates) {
+                        scenarios.add(new Scenario(rate, JitterRange.parse(parser), JitterRange.parse(sensor), failRate));
+                    }
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("label", label);
+        settings.put("duration", duration.toString());
+        settings.put("warmup", warmup.toString());
+        settings.put("processors", Runtime.getRuntime().availableProcessors());
+        return settings;
+    }
+
+    private static Long round(Double value) {
+        return value == null ? null : Math.round(value);
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
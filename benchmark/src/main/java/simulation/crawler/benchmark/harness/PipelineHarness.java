@@ -0,0 +1,169 @@
+package simulation.crawler.benchmark.harness;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Runs the five services from their packaged jars as local processes, wired to an in-process KRaft
+// broker and the benchmark database. Each service keeps its dev profile; everything the harness needs
+// to differ (ports, broker, datasource, peer URLs) is passed as command-line properties, which win
+// over the profile.
+@Component
+@Slf4j
+public class PipelineHarness {
+    // Consumed by a different service than the one declaring them; see start()
+    private static final List<String> SHARED_TOPICS = List.of("discovery.urls", "processor.outbox.urls", "fetcher.results");
+
+    private final Path servicesDir;
+    private final Path logDir;
+    private final List<String> jvmArgs;
+    private final List<String> serviceArgs;
+    private final String serviceLogLevel;
+    private final Duration startupTimeout;
+    private final String dbUrl;
+    private final String dbUser;
+    private final String dbPassword;
+    private final String retryDelays;
+    private final int partitions;
+
+    private EmbeddedKafkaBroker broker;
+    private final List<ServiceProcess> processes = new ArrayList<>();
+
+    @Getter
+    private URI discoveryUrl;
+    @Getter
+    private URI parserUrl;
+    @Getter
+    private URI sensorUrl;
+    @Getter
+    private URI processorUrl;
+
+    public PipelineHarness(@Value("${bench.services-dir:..}") Path servicesDir,
+                           @Value("${bench.log-dir:target/bench-logs}") Path logDir,
+                           @Value("${bench.service-jvm-args:-Xmx1g}") List<String> jvmArgs,
+                           @Value("${bench.service-args:}") List<String> serviceArgs,
+                           @Value("${bench.service-log-level:WARN}") String serviceLogLevel,
+                           @Value("${bench.startup-timeout:3m}") Duration startupTimeout,
+                           @Value("${spring.datasource.url}") String dbUrl,
+                           @Value("${spring.datasource.username}") String dbUser,
+                           @Value("${spring.datasource.password}") String dbPassword,
+                           @Value("${bench.fetcher-retry-delays:1s,5s}") List<String> retryDelays,
+                           @Value("${bench.topic-partitions:12}") int partitions) {
+        this.servicesDir = servicesDir;
+        this.logDir = logDir;
+        this.jvmArgs = jvmArgs;
+        this.serviceArgs = serviceArgs;
+        this.serviceLogLevel = serviceLogLevel;
+        this.startupTimeout = startupTimeout;
+        this.dbUrl = dbUrl;
+        this.dbUser = dbUser;
+        this.dbPassword = dbPassword;
+        this.retryDelays = String.join(",", retryDelays);
+        this.partitions = partitions;
+    }
+
+    public synchronized void start() throws Exception {
+        broker = new EmbeddedKafkaKraftBroker(1, 1);
+        broker.afterPropertiesSet();
+        // A consumer that subscribes before another service has created its topic only sees the topic on its
+        // next metadata refresh, up to five minutes later, so the shared topics exist before anything starts
+        broker.addTopics(SHARED_TOPICS.stream().map(topic -> new NewTopic(topic, partitions, (short) 1))
+                .toArray(NewTopic[]::new));
+        String brokers = broker.getBrokersAsString();
+        log.info("Embedded Kafka broker at {}", brokers);
+
+        int parserPort = freePort();
+        int sensorPort = freePort();
+        parserUrl = URI.create("http://localhost:" + parserPort);
+        sensorUrl = URI.create("http://localhost:" + sensorPort);
+
+        List<String> common = new ArrayList<>(List.of(
+                "--spring.profiles.active=dev",
+                "--spring.kafka.bootstrap-servers=" + brokers,
+                "--logging.level.simulation.crawler=" + serviceLogLevel));
+        common.addAll(serviceArgs);
+
+        launch("parser", parserPort, common);
+        launch("sensor", sensorPort, common);
+        processorUrl = launch("processor", freePort(), concat(common,
+                "--spring.datasource.url=" + dbUrl,
+                "--spring.datasource.username=" + dbUser,
+                "--spring.datasource.password=" + dbPassword)).getBaseUrl();
+        launch("fetcher", freePort(), concat(common,
+                "--parser.url=" + parserUrl + "/api/v1/parser/process",
+                "--parser.batch-url=" + parserUrl + "/api/v1/parser/process-batch",
+                "--sensor.url=" + sensorUrl + "/api/v1/sensor/inspect",
+                "--sensor.batch-url=" + sensorUrl + "/api/v1/sensor/inspect-batch",
+                "--fetcher.retry.delays=" + retryDelays));
+        discoveryUrl = launch("url.discovery", freePort(), common).getBaseUrl();
+
+        for (ServiceProcess process : processes) {
+            process.awaitReady(startupTimeout);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        // Reverse start order: producers stop before the consumers that drain them
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            processes.get(i).stop();
+        }
+        processes.clear();
+        if (broker != null) {
+            broker.destroy();
+            broker = null;
+        }
+    }
+
+    private ServiceProcess launch(String service, int port, List<String> args) throws IOException {
+        ServiceProcess process = ServiceProcess.start(service, jarOf(service), port, logDir, jvmArgs, args);
+        processes.add(process);
+        return process;
+    }
+
+    private Path jarOf(String service) throws IOException {
+        Path target = servicesDir.resolve(service).resolve("target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> files = Files.list(target)) {
+                // The repackaged jar; Boot keeps the plain one as *.jar.original
+                return files.filter(file -> file.getFileName().toString().startsWith(service + "-")
+                                && file.getFileName().toString().endsWith(".jar"))
+                        .findFirst()
+                        .orElseThrow(() -> missingJar(service));
+            }
+        }
+        throw missingJar(service);
+    }
+
+    private IllegalStateException missingJar(String service) {
+        return new IllegalStateException("No packaged jar for " + service + " under " + servicesDir.toAbsolutePath()
+                + "; run ./mvnw package -DskipTests in " + service + " first");
+    }
+
+    private static List<String> concat(List<String> common, String... args) {
+        List<String> all = new ArrayList<>(common);
+        all.addAll(List.of(args));
+        return all;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
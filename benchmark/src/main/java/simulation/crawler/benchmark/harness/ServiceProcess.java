@@ -0,0 +1,91 @@
+package simulation.crawler.benchmark.harness;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One service started from its packaged jar as a child JVM. Its working directory is its own folder under
+// the harness's log directory, so the service's logs/ land there next to the captured console output.
+@Slf4j
+public class ServiceProcess {
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Getter
+    private final String name;
+    @Getter
+    private final URI baseUrl;
+    private final Process process;
+
+    private ServiceProcess(String name, URI baseUrl, Process process) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.process = process;
+    }
+
+    public static ServiceProcess start(String name, Path jar, int port, Path logDir, List<String> jvmArgs,
+                                       List<String> args) throws IOException {
+        Path workDir = Files.createDirectories(logDir.resolve(name));
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        // Readiness leaves out the Redis check, which is optional for the processor
+        command.add("--management.endpoint.health.probes.enabled=true");
+        command.addAll(args);
+
+        Process process = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("console.log").toFile())
+                .start();
+        log.info("Started {} on port {} (pid {})", name, port, process.pid());
+        return new ServiceProcess(name, URI.create("http://localhost:" + port), process);
+    }
+
+    public void awaitReady(Duration timeout) throws InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(baseUrl.resolve("/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with code " + process.exitValue()
+                        + " during startup, see its console.log");
+            }
+            try {
+                if (HTTP.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    log.info("{} is ready at {}", name, baseUrl);
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(name + " was not ready after " + timeout);
+    }
+
+    public void stop() {
+        process.destroy();
+        try {
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package simulation.crawler.benchmark.load;
+
+// Uniform simulated latency of parser or sensor, written min-max in milliseconds (e.g. 100-1000)
+public record JitterRange(int minMs, int maxMs) {
+    public static JitterRange parse(String value) {
+        String[] bounds = value.trim().split("-");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Jitter range must be min-max in ms, got " + value);
+        }
+        return new JitterRange(Integer.parseInt(bounds[0].trim()), Integer.parseInt(bounds[1].trim()));
+    }
+
+    @Override
+    public String toString() {
+        return minMs + "-" + maxMs;
+    }
+}
@@ -0,0 +1,102 @@
+package simulation.crawler.benchmark.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import simulation.crawler.benchmark.harness.PipelineHarness;
+import simulation.crawler.benchmark.repository.PipelineStatsRepository;
+import simulation.crawler.benchmark.repository.PipelineStatsRepository.Backlog;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Offers discovery load at a fixed rate by calling the generate endpoint bench.requests-per-second times a
+// second, each call sized so the running total tracks rate * elapsed time. Every call is its own process,
+// which is how the scenario's records are found again afterwards.
+@Component
+@Slf4j
+public class LoadDriver {
+    private final PipelineHarness harness;
+    private final PipelineStatsRepository statsRepository;
+    private final RestClient restClient;
+    private final int requestsPerSecond;
+    private final Long seed;
+
+    public record Load(List<Long> processIds, long sent) {
+    }
+
+    public LoadDriver(PipelineHarness harness, PipelineStatsRepository statsRepository, RestClient.Builder builder,
+                      @Value("${bench.requests-per-second:10}") int requestsPerSecond,
+                      @Value("${bench.seed:#{null}}") Long seed) {
+        this.harness = harness;
+        this.statsRepository = statsRepository;
+        this.restClient = builder.build();
+        this.requestsPerSecond = requestsPerSecond;
+        this.seed = seed;
+    }
+
+    // Both mock services take the profile at runtime, so the sweep runs without restarting anything
+    public void applyProfile(Scenario scenario) {
+        putProfile(harness.getParserUrl().resolve("/api/v1/parser/admin/profile"), scenario.parserJitter(),
+                scenario.failRate());
+        putProfile(harness.getSensorUrl().resolve("/api/v1/sensor/admin/profile"), scenario.sensorJitter(),
+                scenario.failRate());
+    }
+
+    private void putProfile(URI uri, JitterRange jitter, double failRate) {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("distribution", "UNIFORM");
+        profile.put("minMs", jitter.minMs());
+        profile.put("maxMs", jitter.maxMs());
+        profile.put("failRate", failRate);
+        profile.put("seed", seed);
+        restClient.put().uri(uri).contentType(MediaType.APPLICATION_JSON).body(profile).retrieve().toBodilessEntity();
+    }
+
+    public Load drive(int rate, Duration duration) throws InterruptedException {
+        URI generate = harness.getDiscoveryUrl().resolve("/api/v1/discovery/generate");
+        long ticks = Math.max(1, duration.toMillis() * requestsPerSecond / 1000);
+        long intervalNanos = 1_000_000_000L / requestsPerSecond;
+        List<Long> processIds = new ArrayList<>();
+        long sent = 0;
+        long start = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            long wait = start + tick * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+            long count = Math.round((double) rate * (tick + 1) / requestsPerSecond) - sent;
+            if (count <= 0) {
+                continue;
+            }
+            processIds.add(restClient.post().uri(generate).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("count", count)).retrieve().body(Long.class));
+            sent += count;
+        }
+        double offeredFor = (System.nanoTime() - start) / 1e9;
+        log.info("Offered {} URLs in {} processes over {}s ({} URLs/s)", sent, processIds.size(),
+                String.format("%.1f", offeredFor), Math.round(sent / offeredFor));
+        return new Load(processIds, sent);
+    }
+
+    // Drained once the processor has consumed every offered URL and none of the resulting records is pending
+    public boolean awaitDrained(Load load, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Backlog backlog = null;
+        while (System.nanoTime() < deadline) {
+            backlog = statsRepository.backlog(load.processIds());
+            if (backlog.discovered() >= load.sent() && backlog.pending() == 0) {
+                return true;
+            }
+            Thread.sleep(500);
+        }
+        log.warn("Not drained after {}: {}", timeout, backlog);
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package simulation.crawler.benchmark.load;
+
+// One point of the sweep: offered discovery rate and the profile applied to both mock services
+public record Scenario(int rate, JitterRange parserJitter, JitterRange sensorJitter, double failRate) {
+    // Stable across runs, so a report can be matched against its baseline scenario by scenario
+    public String name() {
+        return "rate=" + rate + " parser=" + parserJitter + " sensor=" + sensorJitter + " fail=" + failRate;
+    }
+}
@@ -0,0 +1,46 @@
+package simulation.crawler.benchmark.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchmarkReport {
+    private Instant startedAt;
+    private Map<String, Object> settings;
+    private List<ScenarioResult> scenarios;
+
+    // Scenarios are matched by name; those missing from either report are not compared. Throughput may
+    // drop and p95 latency may grow by the tolerance (a fraction) before it counts as a regression.
+    public List<String> regressionsAgainst(BenchmarkReport baseline, double tolerance) {
+        Map<String, ScenarioResult> before = baseline.getScenarios().stream()
+                .collect(Collectors.toMap(ScenarioResult::getName, Function.identity(), (a, b) -> b));
+        List<String> regressions = new ArrayList<>();
+        for (ScenarioResult now : scenarios) {
+            ScenarioResult then = before.get(now.getName());
+            if (then == null) {
+                continue;
+            }
+            if (then.isDrained() && !now.isDrained()) {
+                regressions.add(now.getName() + ": no longer drained");
+            }
+            if (now.getThroughput() < then.getThroughput() * (1 - tolerance)) {
+                regressions.add(String.format("%s: throughput %.1f -> %.1f URLs/s", now.getName(),
+                        then.getThroughput(), now.getThroughput()));
+            }
+            if (then.getP95Ms() != null && now.getP95Ms() != null && now.getP95Ms() > then.getP95Ms() * (1 + tolerance)) {
+                regressions.add(String.format("%s: p95 %.0f -> %.0f ms", now.getName(), then.getP95Ms(), now.getP95Ms()));
+            }
+        }
+        return regressions;
+    }
+}
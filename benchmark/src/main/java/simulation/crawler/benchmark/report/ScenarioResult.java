@@ -0,0 +1,30 @@
+package simulation.crawler.benchmark.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one scenario. Throughput is finished URLs over the span from the first discovery to the last
+// result, so it falls below the offered rate once the pipeline cannot keep up. Latencies are in ms.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioResult {
+    private String name;
+    private int offeredRate;
+    private String parserJitter;
+    private String sensorJitter;
+    private double failRate;
+    private long sent;
+    private long completed;
+    private long failed;
+    // False when the drain timeout ran out; the numbers then only cover what had finished
+    private boolean drained;
+    private double throughput;
+    private Double p50Ms;
+    private Double p95Ms;
+    private Double p99Ms;
+    private Double maxMs;
+}
@@ -0,0 +1,82 @@
+package simulation.crawler.benchmark.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Reads a scenario's outcome straight from the processor's tables. Latency is finished_at - discovered_at
+// of each record, so percentiles are exact over every URL of the scenario rather than merged from
+// per-process summaries.
+@Repository
+@RequiredArgsConstructor
+public class PipelineStatsRepository {
+    private static final String BACKLOG = """
+            SELECT COALESCE(sum(discovered), 0), COALESCE(sum(total - completed - failed), 0)
+            FROM crawl_progress WHERE process_id = ANY(?)
+            """;
+
+    private static final String STATS = """
+            SELECT count(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+                   count(*) FILTER (WHERE status = 'FAILED') AS failed,
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY ms) FILTER (WHERE status = 'COMPLETED') AS p50,
+                   percentile_cont(0.95) WITHIN GROUP (ORDER BY ms) FILTER (WHERE status = 'COMPLETED') AS p95,
+                   percentile_cont(0.99) WITHIN GROUP (ORDER BY ms) FILTER (WHERE status = 'COMPLETED') AS p99,
+                   max(ms) FILTER (WHERE status = 'COMPLETED') AS max,
+                   extract(epoch FROM max(finished_at) - min(discovered_at)) AS window_seconds
+            FROM (
+                SELECT status, discovered_at, finished_at,
+                       extract(epoch FROM finished_at - discovered_at) * 1000 AS ms
+                FROM crawl_records
+                WHERE process_id = ANY(?) AND status <> 'PENDING'
+            ) r
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Backlog(long discovered, long pending) {
+    }
+
+    public record PipelineStats(long completed, long failed, Double p50Ms, Double p95Ms, Double p99Ms, Double maxMs,
+                                double windowSeconds) {
+    }
+
+    public Backlog backlog(List<Long> processIds) {
+        return jdbcTemplate.query(byProcesses(BACKLOG, processIds),
+                (rs, rowNum) -> new Backlog(rs.getLong(1), rs.getLong(2))).get(0);
+    }
+
+    public PipelineStats stats(List<Long> processIds) {
+        return jdbcTemplate.query(byProcesses(STATS, processIds), (rs, rowNum) -> new PipelineStats(
+                rs.getLong("completed"), rs.getLong("failed"), nullableDouble(rs, "p50"), nullableDouble(rs, "p95"),
+                nullableDouble(rs, "p99"), nullableDouble(rs, "max"), rs.getDouble("window_seconds"))).get(0);
+    }
+
+    // crawl_urls first, while the records still say which URLs belong to the scenario
+    public void delete(List<Long> processIds) {
+        jdbcTemplate.update(byProcesses("""
+                DELETE FROM crawl_urls r USING crawl_records c
+                WHERE c.process_id = ANY(?) AND r.url_hash = c.url_hash AND r.discovered_at = c.discovered_at
+                """, processIds));
+        jdbcTemplate.update(byProcesses("DELETE FROM crawl_records WHERE process_id = ANY(?)", processIds));
+        jdbcTemplate.update(byProcesses("DELETE FROM crawl_progress WHERE process_id = ANY(?)", processIds));
+    }
+
+    private static PreparedStatementCreator byProcesses(String sql, List<Long> processIds) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", processIds.toArray(Long[]::new)));
+            return ps;
+        };
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,49 @@
+package simulation.crawler.benchmark.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BenchmarkReportTests {
+
+	@Test
+	void flagsThroughputAndLatencyBeyondTheTolerance() {
+		BenchmarkReport baseline = report(
+				result("rate=200", 200, 800.0, true),
+				result("rate=1000", 900, 2000.0, true),
+				result("rate=5000", 1000, 9000.0, true));
+		BenchmarkReport current = report(
+				result("rate=200", 190, 900.0, true),
+				result("rate=1000", 700, 2600.0, true),
+				result("rate=5000", 1000, 9000.0, false),
+				result("rate=9000", 1, 99999.0, false));
+
+		List<String> regressions = current.regressionsAgainst(baseline, 0.15);
+
+		assertEquals(3, regressions.size(), regressions.toString());
+		assertTrue(regressions.get(0).startsWith("rate=1000: throughput"));
+		assertTrue(regressions.get(1).startsWith("rate=1000: p95"));
+		assertEquals("rate=5000: no longer drained", regressions.get(2));
+	}
+
+	@Test
+	void scenariosWithoutCompletionsAreComparedOnThroughputOnly() {
+		BenchmarkReport baseline = report(result("rate=200", 0, null, true));
+		BenchmarkReport current = report(result("rate=200", 0, null, true));
+
+		assertTrue(current.regressionsAgainst(baseline, 0.15).isEmpty());
+	}
+
+	private static BenchmarkReport report(ScenarioResult... results) {
+		return new BenchmarkReport(Instant.now(), Map.of(), List.of(results));
+	}
+
+	private static ScenarioResult result(String name, double throughput, Double p95Ms, boolean drained) {
+		return ScenarioResult.builder().name(name).throughput(throughput).p95Ms(p95Ms).drained(drained).build();
+	}
+}
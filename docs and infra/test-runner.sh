@@ -3,6 +3,7 @@
 # Define endpoints
 DISCOVERY_URL="http://localhost:8081/api/v1/discovery/generate"
 PROCESSOR_URL="http://localhost:8083/api/v1/processor/records"
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
 
 echo "🎯 Starting Test Runner..."
 
@@ -17,15 +18,33 @@ fi
 
 echo "🆔 Process ID received: $PROCESS_ID"
 
-# 2. Wait for processing (Jitter wait)
-echo "⏳ Waiting 10 seconds for completion..."
-sleep 10
+# 2. Wait for processing by polling the progress counters
+echo "⏳ Waiting up to $TIMEOUT_SECONDS seconds for completion..."
+DONE=false
+for ((i = 0; i < TIMEOUT_SECONDS; i++)); do
+    PROGRESS=$(curl -s "$PROCESSOR_URL/$PROCESS_ID/progress")
+    SUMMARY=$(echo "$PROGRESS" | python3 -c 'import json, sys
+p = json.load(sys.stdin)
+print(p["done"], "discovered=%s/%s completed=%s failed=%s pending=%s" % (p["discovered"], p["expected"], p["completed"], p["failed"], p["pending"]))' 2>/dev/null)
+    if [ -n "$SUMMARY" ]; then
+        echo "   ${SUMMARY#* }"
+        if [ "${SUMMARY%% *}" == "True" ]; then
+            DONE=true
+            break
+        fi
+    fi
+    sleep 1
+done
+
+if [ "$DONE" != true ]; then
+    echo "⚠️  Process $PROCESS_ID did not finish within $TIMEOUT_SECONDS seconds."
+fi
 
 # 3. Retrieve Results
 echo "🔍 Querying Processor for results..."
-RESULTS=$(curl -s -X GET "$PROCESSOR_URL/$PROCESS_ID")
+RESULTS=$(curl -s -X GET "$PROCESSOR_URL/$PROCESS_ID?includeData=true")
 
-if [ "$RESULTS" == "[]" ] || [ -z "$RESULTS" ]; then
+if [ -z "$RESULTS" ] || echo "$RESULTS" | grep -q '"records":\[\]'; then
     echo "⚠️  No records found yet for ID $PROCESS_ID. System might still be processing."
 else
     echo "🏆 Results received:"
@@ -0,0 +1,10 @@
+package simulation.crawler.fetcher.batch;
+
+import java.util.List;
+import java.util.Optional;
+
+// One downstream call for a whole batch; returns one entry per URL, in request order, empty for items that failed
+@FunctionalInterface
+public interface BatchCall<T> {
+    List<Optional<T>> call(List<String> urls) throws Exception;
+}
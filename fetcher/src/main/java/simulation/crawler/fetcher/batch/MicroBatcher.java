@@ -0,0 +1,109 @@
+package simulation.crawler.fetcher.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Collects single-URL requests and sends them as one batch call once max-items URLs are waiting or
+// the oldest has waited max-wait-ms. Each caller gets its own future, completed from its position
+// in the batch response; a failed batch call fails every future in it.
+public class MicroBatcher<T> {
+    private final int maxItems;
+    private final long maxWaitMs;
+    private final BatchCall<T> call;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final DistributionSummary batchSizes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending<T>> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+
+    public MicroBatcher(String name, int maxItems, long maxWaitMs, BatchCall<T> call, ExecutorService executor,
+                        ScheduledExecutorService timer, MeterRegistry registry) {
+        this.maxItems = Math.max(1, maxItems);
+        this.maxWaitMs = maxWaitMs;
+        this.call = call;
+        this.executor = executor;
+        this.timer = timer;
+        this.batchSizes = DistributionSummary.builder("fetcher.client.batch.size")
+                .description("URLs per batch call")
+                .tag("endpoint", name)
+                .register(registry);
+    }
+
+    public CompletableFuture<Optional<T>> submit(String url) {
+        CompletableFuture<Optional<T>> future = new CompletableFuture<>();
+        List<Pending<T>> full = null;
+        lock.lock();
+        try {
+            pending.add(new Pending<>(url, future));
+            if (pending.size() >= maxItems) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                flushTask = timer.schedule(this::flushDue, maxWaitMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void flushDue() {
+        List<Pending<T>> batch = null;
+        lock.lock();
+        try {
+            if (!pending.isEmpty()) {
+                batch = drain();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    private List<Pending<T>> drain() {
+        List<Pending<T>> batch = pending;
+        pending = new ArrayList<>(maxItems);
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending<T>> batch) {
+        batchSizes.record(batch.size());
+        executor.execute(() -> {
+            try {
+                List<Optional<T>> results = call.call(batch.stream().map(Pending::url).toList());
+                if (results.size() != batch.size()) {
+                    throw new IllegalStateException("Batch response has " + results.size() + " results for "
+                            + batch.size() + " URLs");
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future().complete(results.get(i));
+                }
+            } catch (Exception e) {
+                batch.forEach(item -> item.future().completeExceptionally(e));
+            }
+        });
+    }
+
+    private record Pending<T>(String url, CompletableFuture<Optional<T>> future) {
+    }
+}
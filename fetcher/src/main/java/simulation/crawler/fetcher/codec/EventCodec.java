@@ -0,0 +1,69 @@
+package simulation.crawler.fetcher.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import simulation.crawler.events.FetchResultMessage;
+import simulation.crawler.events.ParsedPage;
+import simulation.crawler.events.SensorReport;
+import simulation.crawler.events.UrlCreatedMessage;
+import simulation.crawler.fetcher.dto.FetcherResultEvent;
+import simulation.crawler.fetcher.dto.ParserResponse;
+import simulation.crawler.fetcher.dto.SensorResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+// Wire format of the fetcher's topics. Results are written in crawler.wire-format; outbox events are
+// detected per message (Avro single-object header vs JSON), so the processor can be switched independently.
+@Component
+@Slf4j
+public class EventCodec {
+    private final ObjectMapper objectMapper;
+    private final boolean avro;
+    private final SingleObjectReader<UrlCreatedMessage> urlReader;
+    private final BinaryMessageEncoder<FetchResultMessage> resultEncoder = FetchResultMessage.getEncoder();
+
+    public EventCodec(ObjectMapper objectMapper, FileSchemaStore schemaStore,
+                      @Value("${crawler.wire-format:avro}") String wireFormat) {
+        this.objectMapper = objectMapper;
+        this.avro = "avro".equalsIgnoreCase(wireFormat);
+        this.urlReader = new SingleObjectReader<>(UrlCreatedMessage.getClassSchema(), schemaStore);
+        log.info("Outgoing wire format: {}", avro ? "avro" : "json");
+    }
+
+    // Avro single-object encoding starts with the marker bytes C3 01; JSON values start with '{'
+    public static boolean isAvro(byte[] value) {
+        return value.length > 1 && value[0] == (byte) 0xC3 && value[1] == 0x01;
+    }
+
+    public String decodeUrl(byte[] value) throws IOException {
+        if (isAvro(value)) {
+            return urlReader.read(value).getUrl();
+        }
+        return objectMapper.readTree(value).path("url").asText(null);
+    }
+
+    // error is set when the flow stopped early ("Parser failed", "Sensor failed after retry")
+    public byte[] encodeResult(String url, boolean success, ParserResponse parser, SensorResponse sensor,
+                               String error, int attempts) throws IOException {
+        Boolean censored = sensor != null ? sensor.getCensored() : null;
+        if (!avro) {
+            // Legacy layout: both payloads embedded as JSON strings, the failure reason in place of sensorData
+            return objectMapper.writeValueAsBytes(new FetcherResultEvent(url, success,
+                    parser != null ? objectMapper.writeValueAsString(parser) : null, censored,
+                    sensor != null ? objectMapper.writeValueAsString(sensor) : error, attempts));
+        }
+
+        ParsedPage page = parser == null ? null : new ParsedPage(parser.getPageTitle(), parser.getPageMetaTags(),
+                parser.getPageMetaDescription(), parser.getContentSize(), parser.getNormalizedContents(),
+                parser.getPopularity());
+        SensorReport report = sensor == null ? null : new SensorReport(sensor.getSslStatus(), sensor.getLatencyMs(),
+                sensor.getSiteAvailable(), sensor.getCensored());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        resultEncoder.encode(new FetchResultMessage(url, success, censored, page, report, error, attempts), out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,119 @@
+package simulation.crawler.fetcher.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Connection layer shared by the parser and sensor RestTemplates. One pooled client is kept per
+// process and each endpoint only gets its own request factory, so both share keep-alive connections:
+// - apache: HttpClient 5 pool with total and per-route limits, exported as httpcomponents.httpclient.pool.*
+// - jdk: java.net.http.HttpClient negotiating HTTP/2 (h2c upgrade) with the JDK's own connection pool
+// - simple: HttpURLConnection, the previous behaviour
+@Component
+@Slf4j
+public class HttpTransport {
+    private final String type;
+    private final Duration connectTimeout;
+    private CloseableHttpClient apacheClient;
+    private HttpClient jdkClient;
+    private ExecutorService jdkExecutor;
+
+    public HttpTransport(MeterRegistry registry,
+                         @Value("${fetcher.client.transport:apache}") String type,
+                         @Value("${fetcher.client.connect-timeout-ms:500}") long connectTimeoutMs,
+                         @Value("${fetcher.client.pool.max-total:512}") int maxTotal,
+                         @Value("${fetcher.client.pool.max-per-route:256}") int maxPerRoute,
+                         @Value("${fetcher.client.pool.idle-evict-ms:30000}") long idleEvictMs) {
+        this.type = type.toLowerCase();
+        this.connectTimeout = Duration.ofMillis(connectTimeoutMs);
+
+        switch (this.type) {
+            case "apache" -> {
+                PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxTotal)
+                        .setMaxConnPerRoute(maxPerRoute)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                                .build())
+                        .build();
+                // Retries are owned by ResilientEndpoint, so the client's own retry handler is switched off
+                apacheClient = HttpClients.custom()
+                        .setConnectionManager(pool)
+                        .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                        .disableAutomaticRetries()
+                        .build();
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "external-services").bindTo(registry);
+            }
+            case "jdk" -> {
+                jdkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                jdkClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(connectTimeout)
+                        .executor(jdkExecutor)
+                        .build();
+            }
+            case "simple" -> {
+            }
+            default -> throw new IllegalArgumentException("Unknown fetcher.client.transport: " + type);
+        }
+        log.info("HTTP transport for external services: {} (pool max {} total, {} per route)", this.type, maxTotal,
+                maxPerRoute);
+    }
+
+    public ClientHttpRequestFactory requestFactory(Duration readTimeout) {
+        switch (type) {
+            case "apache" -> {
+                HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(apacheClient);
+                factory.setConnectionRequestTimeout(connectTimeout);
+                factory.setReadTimeout(readTimeout);
+                return factory;
+            }
+            case "jdk" -> {
+                JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(jdkClient);
+                factory.setReadTimeout(readTimeout);
+                return factory;
+            }
+            default -> {
+                SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+                factory.setConnectTimeout(connectTimeout);
+                factory.setReadTimeout(readTimeout);
+                return factory;
+            }
+        }
+    }
+
+    public String type() {
+        return type;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (apacheClient != null) {
+            apacheClient.close();
+        }
+        if (jdkClient != null) {
+            jdkClient.close();
+            jdkExecutor.close();
+        }
+    }
+}
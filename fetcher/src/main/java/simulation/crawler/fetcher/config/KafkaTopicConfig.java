@@ -0,0 +1,41 @@
+package simulation.crawler.fetcher.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+import simulation.crawler.fetcher.retry.RetryTopics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// fetcher.results is keyed by URL fingerprint, so all results for a URL stay in order on one partition.
+// The partition count caps the processor's result consumers across all replicas.
+@Configuration
+public class KafkaTopicConfig {
+
+    @Bean
+    public NewTopic resultsTopic(@Value("${crawler.topics.results.partitions:12}") int partitions,
+                                @Value("${crawler.topics.replication-factor:-1}") short replicationFactor) {
+        // A replication factor of -1 leaves it to the broker's default.replication.factor
+        return new NewTopic("fetcher.results", Optional.of(partitions),
+                replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty());
+    }
+
+    // Retry tiers and the DLT only carry failed URLs, so they get fewer partitions than the main topics
+    @Bean
+    public KafkaAdmin.NewTopics retryTierTopics(RetryTopics retryTopics,
+                                                @Value("${crawler.topics.retry.partitions:3}") int partitions,
+                                                @Value("${crawler.topics.replication-factor:-1}") short replicationFactor) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (RetryTopics.Tier tier : retryTopics.tiers()) {
+            topics.add(new NewTopic(tier.topic(), Optional.of(partitions),
+                    replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty()));
+        }
+        topics.add(new NewTopic(RetryTopics.DLT, Optional.of(partitions),
+                replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty()));
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+}
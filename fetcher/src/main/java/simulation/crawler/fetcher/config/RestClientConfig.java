@@ -0,0 +1,42 @@
+package simulation.crawler.fetcher.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@Configuration
+public class RestClientConfig {
+
+    @Bean
+    public RestTemplate parserRestTemplate(RestTemplateBuilder builder, HttpTransport transport,
+                                           ObjectMapper objectMapper,
+                                           @Value("${fetcher.client.parser.read-timeout-ms:1500}") long readTimeoutMs) {
+        return restTemplate(builder, transport, objectMapper, Duration.ofMillis(readTimeoutMs));
+    }
+
+    @Bean
+    public RestTemplate sensorRestTemplate(RestTemplateBuilder builder, HttpTransport transport,
+                                           ObjectMapper objectMapper,
+                                           @Value("${fetcher.client.sensor.read-timeout-ms:1000}") long readTimeoutMs) {
+        return restTemplate(builder, transport, objectMapper, Duration.ofMillis(readTimeoutMs));
+    }
+
+    // Only the two converters the calls need: the URL goes out as text, responses come back as JSON
+    // decoded with the application's ObjectMapper. This also keeps the Accept header short.
+    private RestTemplate restTemplate(RestTemplateBuilder builder, HttpTransport transport, ObjectMapper objectMapper,
+                                      Duration readTimeout) {
+        StringHttpMessageConverter text = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+        text.setWriteAcceptCharset(false);
+        return builder.requestFactory(() -> transport.requestFactory(readTimeout))
+                .messageConverters(text, new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+}
@@ -12,4 +12,5 @@ public class FetcherResultEvent {
     private String parsingData;
     private Boolean censored;
     private String sensorData;
+    private Integer attempts;
 }
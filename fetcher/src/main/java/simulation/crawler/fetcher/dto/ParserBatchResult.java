@@ -0,0 +1,11 @@
+package simulation.crawler.fetcher.dto;
+
+import lombok.Data;
+
+@Data
+public class ParserBatchResult {
+    private String url;
+    private Boolean success;
+    private ParserResponse result;
+    private String error;
+}
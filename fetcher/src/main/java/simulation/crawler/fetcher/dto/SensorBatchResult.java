@@ -0,0 +1,11 @@
+package simulation.crawler.fetcher.dto;
+
+import lombok.Data;
+
+@Data
+public class SensorBatchResult {
+    private String url;
+    private Boolean success;
+    private SensorResponse result;
+    private String error;
+}
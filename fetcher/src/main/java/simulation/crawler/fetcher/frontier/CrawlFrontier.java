@@ -0,0 +1,272 @@
+package simulation.crawler.fetcher.frontier;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Per-host politeness scheduler. Each host gets its own queue and is served round-robin, one URL
+// per pass, as long as it is below max-concurrency-per-host and its min-delay since the previous
+// request has elapsed. A host whose in-memory queue reaches spill-threshold overflows to a file in
+// spill-dir, which frees in-flight permits for other hosts; a URL takes a permit again when it is
+// read back. Spilled records stay unacknowledged, so Kafka still holds them if the fetcher goes away,
+// and the container stops polling until they are done (async acks pause it on out-of-order gaps).
+@Component
+@Slf4j
+public class CrawlFrontier {
+    private final boolean enabled;
+    private final int maxConcurrencyPerHost;
+    private final long minDelayNanos;
+    private final int spillThreshold;
+    private final Path spillDir;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private final ArrayDeque<HostQueue> rotation = new ArrayDeque<>();
+    private FrontierSink sink;
+    private Thread scheduler;
+    private volatile boolean running;
+    private volatile boolean awaitingPermit;
+    private long lastSweep;
+
+    public CrawlFrontier(@Value("${fetcher.frontier.enabled:true}") boolean enabled,
+                         @Value("${fetcher.frontier.max-concurrency-per-host:64}") int maxConcurrencyPerHost,
+                         @Value("${fetcher.frontier.min-delay-ms:0}") long minDelayMs,
+                         @Value("${fetcher.frontier.spill-threshold:64}") int spillThreshold,
+                         @Value("${fetcher.frontier.spill-dir:${java.io.tmpdir}/crawler-frontier}") String spillDir) {
+        this.enabled = enabled;
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.spillThreshold = spillThreshold;
+        this.spillDir = Path.of(spillDir);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void start(FrontierSink sink) throws IOException {
+        this.sink = sink;
+        Files.createDirectories(spillDir);
+        deleteSpillFiles();
+        running = true;
+        scheduler = Thread.ofPlatform().daemon().name("crawl-frontier").start(this::schedule);
+        log.info("Crawl frontier started (max {} per host, {}ms min delay, spill after {} queued, dir {})",
+                maxConcurrencyPerHost, TimeUnit.NANOSECONDS.toMillis(minDelayNanos), spillThreshold, spillDir);
+    }
+
+    public void offer(String url, int attempt, Acknowledgment ack) {
+        FrontierEntry entry = new FrontierEntry(url, hostOf(url), attempt, ack);
+        boolean spilled = false;
+        lock.lock();
+        try {
+            HostQueue queue = hosts.computeIfAbsent(entry.getHost(), host -> new HostQueue(host, spillDir));
+            // Behind a spilled backlog a URL goes to disk too, so a host's URLs still run in the order offered
+            if (queue.hasSpilled() || queue.queued.size() >= spillThreshold) {
+                try {
+                    queue.spill(entry);
+                    spilled = true;
+                } catch (IOException e) {
+                    log.error("Could not spill {} to disk, keeping it in memory: {}", url, e.getMessage());
+                }
+            }
+            if (!spilled) {
+                queue.queued.add(entry);
+            }
+            activate(queue);
+        } finally {
+            lock.unlock();
+        }
+        if (spilled) {
+            sink.releasePermit();
+        }
+    }
+
+    public int queuedInMemory() {
+        lock.lock();
+        try {
+            return hosts.values().stream().mapToInt(queue -> queue.queued.size()).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long spilledBacklog() {
+        lock.lock();
+        try {
+            return hosts.values().stream().mapToLong(HostQueue::spilledBacklog).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule() {
+        List<FrontierEntry> ready = new ArrayList<>();
+        while (running) {
+            lock.lock();
+            try {
+                long waitNanos = collectReady(ready);
+                if (ready.isEmpty()) {
+                    changed.awaitNanos(waitNanos);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            for (FrontierEntry entry : ready) {
+                sink.dispatch(entry).whenComplete((result, ex) -> complete(entry));
+            }
+            ready.clear();
+        }
+    }
+
+    // One pass over the rotation: release at most one entry per eligible host, in round-robin order
+    private long collectReady(List<FrontierEntry> ready) {
+        long now = System.nanoTime();
+        long waitNanos = TimeUnit.SECONDS.toNanos(1);
+        if (now - lastSweep >= waitNanos) {
+            // Forget idle hosts once their delay has passed so the host map stays bounded
+            hosts.values().removeIf(queue -> queue.idle() && now - queue.nextAllowedAt >= 0);
+            lastSweep = now;
+        }
+        for (int i = rotation.size(); i > 0; i--) {
+            HostQueue queue = rotation.poll();
+            if (queue.active < maxConcurrencyPerHost) {
+                long delay = queue.nextAllowedAt - now;
+                if (delay <= 0) {
+                    FrontierEntry entry = next(queue);
+                    if (entry != null) {
+                        queue.active++;
+                        queue.nextAllowedAt = now + minDelayNanos;
+                        ready.add(entry);
+                    }
+                } else {
+                    waitNanos = Math.min(waitNanos, delay);
+                }
+            }
+            if (queue.hasPending()) {
+                rotation.add(queue);
+            } else {
+                queue.inRotation = false;
+            }
+        }
+        return waitNanos;
+    }
+
+    // Reloaded URLs need an in-flight permit each; without one they stay on disk until a permit is released
+    private FrontierEntry next(HostQueue queue) {
+        if (queue.queued.isEmpty() && queue.hasSpilled()) {
+            // Set first so a permit released while we look is not missed
+            awaitingPermit = true;
+            int permits = 0;
+            while (permits < Math.max(1, spillThreshold / 2) && sink.tryAcquirePermit()) {
+                permits++;
+            }
+            awaitingPermit = permits == 0;
+            int reloaded = 0;
+            try {
+                reloaded = queue.reload(permits);
+            } catch (IOException e) {
+                log.error("Could not reload spilled URLs for {}: {}", queue.host, e.getMessage());
+            }
+            for (int i = reloaded; i < permits; i++) {
+                sink.releasePermit();
+            }
+        }
+        return queue.queued.poll();
+    }
+
+    // Called when an in-flight permit is returned, so hosts waiting to reload get another pass
+    public void permitReleased() {
+        if (awaitingPermit) {
+            lock.lock();
+            try {
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void complete(FrontierEntry entry) {
+        lock.lock();
+        try {
+            HostQueue queue = hosts.get(entry.getHost());
+            queue.active--;
+            activate(queue);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void activate(HostQueue queue) {
+        if (!queue.inRotation && queue.hasPending()) {
+            queue.inRotation = true;
+            rotation.add(queue);
+        }
+        changed.signal();
+    }
+
+    // Files left by a previous run: their records were never acknowledged, so Kafka redelivers them
+    private void deleteSpillFiles() throws IOException {
+        List<Path> leftover;
+        try (var files = Files.list(spillDir)) {
+            leftover = files.filter(path -> path.getFileName().toString().endsWith(HostQueue.SPILL_SUFFIX)).toList();
+        }
+        for (Path file : leftover) {
+            Files.delete(file);
+        }
+        if (!leftover.isEmpty()) {
+            log.info("Deleted {} spill files from a previous run; their URLs are redelivered by Kafka", leftover.size());
+        }
+    }
+
+    // Host part of a canonical URL, restricted to characters that are safe in a file name
+    static String hostOf(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        String authority = url.substring(start, end);
+        String host = authority.substring(authority.lastIndexOf('@') + 1).toLowerCase();
+        return host.isEmpty() ? "_" : host.replaceAll("[^a-z0-9.-]", "_");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.interrupt();
+        }
+        lock.lock();
+        try {
+            for (HostQueue queue : hosts.values()) {
+                queue.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close frontier spill files: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
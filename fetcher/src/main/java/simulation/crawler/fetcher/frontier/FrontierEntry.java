@@ -0,0 +1,17 @@
+package simulation.crawler.fetcher.frontier;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.kafka.support.Acknowledgment;
+
+// A URL waiting in the frontier, with the acknowledgment of the record it came from. An entry queued in
+// memory holds an in-flight permit; it gives it back when it spills and takes a new one when read back.
+// attempt is 1 for URLs from the outbox and counts up for URLs redelivered from a retry topic.
+@Getter
+@AllArgsConstructor
+public class FrontierEntry {
+    private final String url;
+    private final String host;
+    private final int attempt;
+    private final Acknowledgment ack;
+}
@@ -0,0 +1,15 @@
+package simulation.crawler.fetcher.frontier;
+
+import java.util.concurrent.CompletableFuture;
+
+// Callbacks from the frontier into whoever runs the enrichment
+public interface FrontierSink {
+    // Starts enrichment for an entry the scheduler released, which holds an in-flight permit; the future
+    // completes when the URL's outcome is stored, and fails when it could not be
+    CompletableFuture<?> dispatch(FrontierEntry entry);
+
+    // In-flight permits: a spilled entry gives its permit back, a reloaded one takes a new one
+    boolean tryAcquirePermit();
+
+    void releasePermit();
+}
@@ -0,0 +1,135 @@
+package simulation.crawler.fetcher.frontier;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+// Per-host state: queued entries, politeness bookkeeping and append-only overflow files.
+// Not thread-safe; CrawlFrontier guards every instance with its lock.
+class HostQueue {
+    static final String SPILL_SUFFIX = ".queue";
+    // Separates host and segment number in a spill file name; never part of a host (see CrawlFrontier.hostOf)
+    static final char SEGMENT_SEPARATOR = '~';
+
+    final String host;
+    final ArrayDeque<FrontierEntry> queued = new ArrayDeque<>();
+    int active;
+    long nextAllowedAt;
+    boolean inRotation;
+
+    private final Path spillDir;
+    // Segments with lines still to be read, oldest first. New spills go to 'writing', which is the last one.
+    private final ArrayDeque<SpillSegment> segments = new ArrayDeque<>();
+    private SpillSegment writing;
+    private BufferedWriter spillWriter;
+    private BufferedReader spillReader;
+    private long nextSegment;
+
+    HostQueue(String host, Path spillDir) {
+        this.host = host;
+        this.spillDir = spillDir;
+    }
+
+    boolean hasPending() {
+        return !queued.isEmpty() || hasSpilled();
+    }
+
+    // Segments are dropped as soon as they are read to the end, so any left hold URLs still on disk
+    boolean hasSpilled() {
+        return !segments.isEmpty();
+    }
+
+    boolean idle() {
+        return active == 0 && !hasPending();
+    }
+
+    long spilledBacklog() {
+        return segments.stream().mapToLong(segment -> segment.acks.size()).sum();
+    }
+
+    // One URL per line; retried URLs are prefixed with their attempt ("3 https://..."). The acknowledgment
+    // stays in memory, in line order, so the record is only committed once the reloaded URL has finished.
+    void spill(FrontierEntry entry) throws IOException {
+        if (writing == null) {
+            writing = new SpillSegment(spillDir.resolve(host + SEGMENT_SEPARATOR + nextSegment++ + SPILL_SUFFIX));
+            spillWriter = Files.newBufferedWriter(writing.file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            segments.add(writing);
+        }
+        if (entry.getAttempt() > 1) {
+            spillWriter.write(Integer.toString(entry.getAttempt()));
+            spillWriter.write(' ');
+        }
+        spillWriter.write(entry.getUrl());
+        spillWriter.newLine();
+        writing.acks.add(entry.getAck());
+    }
+
+    // Moves up to max spilled URLs back into memory. A segment that has been read to the end takes no
+    // more spills and is deleted.
+    int reload(int max) throws IOException {
+        int count = 0;
+        while (count < max && !segments.isEmpty()) {
+            SpillSegment segment = segments.peek();
+            if (segment == writing) {
+                spillWriter.flush();
+            }
+            if (spillReader == null) {
+                spillReader = Files.newBufferedReader(segment.file, StandardCharsets.UTF_8);
+            }
+            String line = spillReader.readLine();
+            if (line == null) {
+                throw new IOException("Spill file " + segment.file + " is shorter than the URLs written to it");
+            }
+            int space = line.indexOf(' ');
+            int attempt = space < 0 ? 1 : Integer.parseInt(line.substring(0, space));
+            queued.add(new FrontierEntry(line.substring(space + 1), host, attempt, segment.acks.poll()));
+            count++;
+            if (segment.acks.isEmpty()) {
+                drained(segment);
+            }
+        }
+        return count;
+    }
+
+    private void drained(SpillSegment segment) throws IOException {
+        segments.poll();
+        spillReader.close();
+        spillReader = null;
+        if (segment == writing) {
+            spillWriter.close();
+            spillWriter = null;
+            writing = null;
+        }
+        Files.deleteIfExists(segment.file);
+    }
+
+    void close() throws IOException {
+        if (spillWriter != null) {
+            spillWriter.close();
+            spillWriter = null;
+            writing = null;
+        }
+        if (spillReader != null) {
+            spillReader.close();
+            spillReader = null;
+        }
+    }
+
+    // One spill file and the acknowledgments of the URLs in it that have not been read back yet
+    private static final class SpillSegment {
+        final Path file;
+        final ArrayDeque<Acknowledgment> acks = new ArrayDeque<>();
+
+        SpillSegment(Path file) {
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package simulation.crawler.fetcher.resilience;
+
+// Raised without touching the network when an endpoint's circuit breaker is open
+public class CallNotPermittedException extends RuntimeException {
+    public CallNotPermittedException(String endpoint) {
+        super("Circuit breaker for " + endpoint + " is open");
+    }
+}
@@ -0,0 +1,112 @@
+package simulation.crawler.fetcher.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+// Count-based breaker: opens when the failure rate over the last window-size calls reaches the
+// threshold, fails fast for open-duration, then lets half-open-calls probes through. All probes
+// succeeding closes it again; any probe failing re-opens it.
+public class CircuitBreaker {
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int index;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMs,
+                          int halfOpenCalls) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenCalls) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    // A permitted call that was abandoned (e.g. the losing side of a hedge) frees its probe slot
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[index] = failed;
+        if (failed) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        index = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
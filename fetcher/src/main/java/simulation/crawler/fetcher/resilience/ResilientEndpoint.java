@@ -0,0 +1,228 @@
+package simulation.crawler.fetcher.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Wraps calls to one downstream endpoint with a circuit breaker, budgeted retries using
+// full-jitter exponential backoff, and a hedged second request once an attempt runs past the
+// endpoint's recent p95 latency. Every attempt is timed per endpoint and outcome.
+@Slf4j
+public class ResilientEndpoint {
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    private static final long HEDGE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final boolean hedgeEnabled;
+    private final long minHedgeDelayNanos;
+    private final RetryBudget budget;
+    private final CircuitBreaker breaker;
+    private final ExecutorService executor;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+    private final Counter rejected;
+
+    private volatile long hedgeDelayNanos = -1;
+    private volatile long hedgeRefreshedAt;
+
+    ResilientEndpoint(String name, int maxAttempts, long initialBackoffMs, long maxBackoffMs, boolean hedgeEnabled,
+                      long minHedgeDelayMs, RetryBudget budget, CircuitBreaker breaker, ExecutorService executor,
+                      MeterRegistry registry) {
+        this.name = name;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.hedgeEnabled = hedgeEnabled;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMs);
+        this.budget = budget;
+        this.breaker = breaker;
+        this.executor = executor;
+
+        this.successTimer = requestTimer(registry, "success");
+        this.failureTimer = requestTimer(registry, "failure");
+        this.retries = Counter.builder("fetcher.client.retries")
+                .description("Retry attempts after a failed call")
+                .tag("endpoint", name)
+                .register(registry);
+        this.hedges = Counter.builder("fetcher.client.hedges")
+                .description("Hedged requests fired after the p95 latency was exceeded")
+                .tag("endpoint", name)
+                .register(registry);
+        this.hedgeWins = Counter.builder("fetcher.client.hedges.won")
+                .description("Hedged requests that answered before the original attempt")
+                .tag("endpoint", name)
+                .register(registry);
+        this.budgetExhausted = Counter.builder("fetcher.client.retry.budget.exhausted")
+                .description("Retries or hedges skipped because the retry budget was spent")
+                .tag("endpoint", name)
+                .register(registry);
+        this.rejected = Counter.builder("fetcher.client.circuit.rejected")
+                .description("Calls failed fast by an open circuit breaker")
+                .tag("endpoint", name)
+                .register(registry);
+        Gauge.builder("fetcher.client.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Circuit breaker state (0 closed, 1 half-open, 2 open)")
+                .tag("endpoint", name)
+                .register(registry);
+    }
+
+    public <T> T execute(Callable<T> request) throws Exception {
+        budget.deposit();
+        Exception last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                if (!budget.tryWithdraw()) {
+                    budgetExhausted.increment();
+                    break;
+                }
+                retries.increment();
+                long backoff = backoffMs(attempt - 1);
+                log.debug("Retrying {} call (attempt {}/{}) in {}ms", name, attempt, maxAttempts, backoff);
+                Thread.sleep(backoff);
+            }
+            try {
+                return hedgeEnabled ? hedged(request) : attempt(request, null);
+            } catch (CallNotPermittedException e) {
+                rejected.increment();
+                throw e;
+            } catch (Exception e) {
+                last = e;
+                if (!isRetryable(e)) {
+                    break;
+                }
+            }
+        }
+        throw last;
+    }
+
+    private <T> T hedged(Callable<T> request) throws Exception {
+        long delay = hedgeDelayNanos();
+        if (delay < 0) {
+            return attempt(request, null);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        Future<?> primary = executor.submit(() -> race(request, result, pending, false));
+        Future<?> hedge = null;
+        try {
+            try {
+                return result.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!result.isDone() && budget.tryWithdraw()) {
+                    hedges.increment();
+                    pending.incrementAndGet();
+                    hedge = executor.submit(() -> race(request, result, pending, true));
+                } else if (!result.isDone()) {
+                    budgetExhausted.increment();
+                }
+                return result.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            // Whichever request lost is interrupted; its socket read is abandoned
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private <T> void race(Callable<T> request, CompletableFuture<T> result, AtomicInteger pending, boolean isHedge) {
+        try {
+            T value = attempt(request, result);
+            if (result.complete(value) && isHedge) {
+                hedgeWins.increment();
+            }
+        } catch (Exception e) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private <T> T attempt(Callable<T> request, CompletableFuture<?> race) throws Exception {
+        if (!breaker.tryAcquire()) {
+            throw new CallNotPermittedException(name);
+        }
+        long start = System.nanoTime();
+        try {
+            T value = request.call();
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            breaker.onSuccess();
+            return value;
+        } catch (Exception e) {
+            if (race != null && race.isDone()) {
+                // Lost a hedge race and was cancelled; not a signal about the endpoint's health
+                breaker.onIgnored();
+            } else {
+                failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                breaker.onFailure();
+            }
+            throw e;
+        }
+    }
+
+    // Recent p95 of successful attempts, refreshed at most once a second; -1 until enough samples exist
+    private long hedgeDelayNanos() {
+        long now = System.nanoTime();
+        if (now - hedgeRefreshedAt >= HEDGE_REFRESH_NANOS) {
+            hedgeRefreshedAt = now;
+            long delay = -1;
+            var snapshot = successTimer.takeSnapshot();
+            if (snapshot.count() >= HEDGE_MIN_SAMPLES) {
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    if (percentile.percentile() == 0.95) {
+                        delay = Math.max(minHedgeDelayNanos, (long) percentile.value(TimeUnit.NANOSECONDS));
+                    }
+                }
+            }
+            hedgeDelayNanos = delay;
+        }
+        return hedgeDelayNanos;
+    }
+
+    private long backoffMs(int retry) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(retry - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    // Server errors and I/O failures (including timeouts) are worth another attempt; 4xx answers are not
+    private static boolean isRetryable(Exception e) {
+        return e instanceof HttpServerErrorException || e instanceof ResourceAccessException;
+    }
+
+    private Timer requestTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("fetcher.client.requests")
+                .description("Latency of individual calls to parser and sensor")
+                .tag("endpoint", name)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
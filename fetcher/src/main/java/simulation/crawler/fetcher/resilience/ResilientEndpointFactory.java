@@ -0,0 +1,66 @@
+package simulation.crawler.fetcher.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Shared retry, hedging and circuit-breaker settings; each endpoint gets its own budget and breaker
+@Component
+public class ResilientEndpointFactory {
+    private final MeterRegistry registry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${fetcher.client.retry.initial-backoff-ms:50}")
+    private long initialBackoffMs;
+
+    @Value("${fetcher.client.retry.max-backoff-ms:1000}")
+    private long maxBackoffMs;
+
+    @Value("${fetcher.client.retry.budget-ratio:0.5}")
+    private double budgetRatio;
+
+    @Value("${fetcher.client.retry.budget-min-per-second:10}")
+    private int budgetMinPerSecond;
+
+    @Value("${fetcher.client.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${fetcher.client.hedge.min-delay-ms:20}")
+    private long minHedgeDelayMs;
+
+    @Value("${fetcher.client.circuit-breaker.window-size:100}")
+    private int breakerWindowSize;
+
+    @Value("${fetcher.client.circuit-breaker.minimum-calls:20}")
+    private int breakerMinimumCalls;
+
+    @Value("${fetcher.client.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRateThreshold;
+
+    @Value("${fetcher.client.circuit-breaker.open-ms:5000}")
+    private long breakerOpenMs;
+
+    @Value("${fetcher.client.circuit-breaker.half-open-calls:5}")
+    private int breakerHalfOpenCalls;
+
+    public ResilientEndpointFactory(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public ResilientEndpoint create(String name, int maxAttempts) {
+        return new ResilientEndpoint(name, maxAttempts, initialBackoffMs, maxBackoffMs, hedgeEnabled, minHedgeDelayMs,
+                new RetryBudget(budgetRatio, budgetMinPerSecond),
+                new CircuitBreaker(breakerWindowSize, breakerMinimumCalls, breakerFailureRateThreshold, breakerOpenMs,
+                        breakerHalfOpenCalls),
+                executor, registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+}
@@ -0,0 +1,45 @@
+package simulation.crawler.fetcher.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+// Caps retries and hedges at a fraction of first attempts, plus a small per-second reserve so a
+// quiet endpoint can still retry. When the endpoint degrades the budget runs dry instead of
+// multiplying the load on it.
+public class RetryBudget {
+    private final double ratio;
+    private final double capacity;
+    private final int minPerSecond;
+    private double balance;
+    private int reserve;
+    private long reserveWindowStart;
+
+    public RetryBudget(double ratio, int minPerSecond) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        // Let bursts of failures spend what roughly 100 calls earned, but no more
+        this.capacity = Math.max(1, ratio * 100);
+        this.reserveWindowStart = System.nanoTime();
+        this.reserve = minPerSecond;
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(capacity, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance >= 1) {
+            balance -= 1;
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - reserveWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            reserveWindowStart = now;
+            reserve = minPerSecond;
+        }
+        if (reserve > 0) {
+            reserve--;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+package simulation.crawler.fetcher.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import simulation.crawler.fetcher.service.EnrichmentDispatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// One listener container per retry tier, separate from the outbox listener, so waiting for a retry to
+// come due never holds up the main partitions, and a 10m tier never delays a 5s one. Records of a tier
+// partition are in due order: a poll runs every due record through the dispatcher (same in-flight limit
+// and per-host politeness as first attempts), then nack() commits those and parks the consumer until the
+// first record that is not due yet.
+@Component
+@Slf4j
+public class RetryListeners implements SmartLifecycle {
+    private final EnrichmentDispatcher dispatcher;
+    private final List<ConcurrentMessageListenerContainer<Object, Object>> containers = new ArrayList<>();
+    private final long batchTimeoutMs;
+    private volatile boolean running;
+
+    public RetryListeners(RetryTopics retryTopics, EnrichmentDispatcher dispatcher,
+                          ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory,
+                          @Value("${fetcher.retry.concurrency:1}") int concurrency,
+                          @Value("${fetcher.retry.batch-timeout-ms:120000}") long batchTimeoutMs) {
+        this.dispatcher = dispatcher;
+        this.batchTimeoutMs = batchTimeoutMs;
+
+        for (RetryTopics.Tier tier : retryTopics.tiers()) {
+            ConcurrentMessageListenerContainer<Object, Object> container =
+                    kafkaListenerContainerFactory.createContainer(tier.topic());
+            ContainerProperties properties = container.getContainerProperties();
+            properties.setGroupId("fetcher-group");
+            properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            // Overrides the shared factory settings for these containers only: nack() needs in-order commits
+            properties.setAsyncAcks(false);
+            properties.setMessageListener((BatchAcknowledgingMessageListener<String, byte[]>) this::consume);
+            container.setBeanName("fetcher-retry-listener-" + tier.topic().substring(tier.topic().lastIndexOf('-') + 1));
+            container.setConcurrency(concurrency);
+            containers.add(container);
+        }
+    }
+
+    void consume(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            long wait = RetryTopics.notBeforeOf(record) - now;
+            if (wait > 0) {
+                await(outcomes);
+                log.debug("Retry of {} not due for {}ms, pausing {}", record.key(), wait, record.topic());
+                ack.nack(i, Duration.ofMillis(wait));
+                return;
+            }
+            CompletableFuture<Void> outcome = new CompletableFuture<>();
+            submit(new String(record.value(), StandardCharsets.UTF_8), RetryTopics.attemptOf(record),
+                    () -> outcome.complete(null));
+            outcomes.add(outcome);
+        }
+        await(outcomes);
+        ack.acknowledge();
+    }
+
+    private void submit(String url, int attempt, Acknowledgment done) {
+        try {
+            dispatcher.submit(url, attempt, done);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an enrichment slot", e);
+        }
+    }
+
+    // A URL whose outcome cannot even be handed to a retry topic is not acknowledged while the dispatcher
+    // keeps trying; the timeout turns that into a failed poll, which the container's error handler redelivers
+    private void await(List<CompletableFuture<Void>> outcomes) {
+        try {
+            CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).get(batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for retried URLs", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Retried URLs were not all published within " + batchTimeoutMs + "ms", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(ConcurrentMessageListenerContainer::start);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
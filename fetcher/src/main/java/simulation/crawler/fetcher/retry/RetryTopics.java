@@ -0,0 +1,145 @@
+package simulation.crawler.fetcher.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import simulation.crawler.fetcher.util.UrlFingerprint;
+import simulation.crawler.fetcher.util.UrlLogSampler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Tiered, delayed redelivery of URLs whose enrichment failed. After failed attempt n the URL goes to
+// tier n (processor.outbox.urls.retry-5s, -1m, -10m by default) stamped with the next attempt number and
+// the time it becomes due; once every tier has been used it goes to processor.outbox.urls.dlt. The topics
+// are fetcher-internal, so the value is just the canonical URL and everything else travels in headers.
+@Component
+@Slf4j
+public class RetryTopics {
+    public static final String SOURCE_TOPIC = "processor.outbox.urls";
+    public static final String DLT = SOURCE_TOPIC + ".dlt";
+    public static final String ATTEMPT_HEADER = "crawler-attempt";
+    public static final String NOT_BEFORE_HEADER = "crawler-not-before";
+    public static final String ERROR_HEADER = "crawler-error";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final UrlLogSampler logSampler;
+    private final List<Tier> tiers = new ArrayList<>();
+    private final Counter deadLettered;
+
+    public RetryTopics(KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry, UrlLogSampler logSampler,
+                       @Value("${fetcher.retry.delays:5s,1m,10m}") List<Duration> delays) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.logSampler = logSampler;
+        for (Duration delay : delays) {
+            String topic = SOURCE_TOPIC + ".retry-" + label(delay);
+            tiers.add(new Tier(topic, delay, Counter.builder("fetcher.retry.routed")
+                    .description("URLs handed to a retry topic after a failed attempt")
+                    .tag("topic", topic)
+                    .register(meterRegistry)));
+        }
+        this.deadLettered = Counter.builder("fetcher.retry.routed")
+                .description("URLs handed to a retry topic after a failed attempt")
+                .tag("topic", DLT)
+                .register(meterRegistry);
+        log.info("Retry tiers: {} then {}", tiers.stream().map(Tier::topic).toList(), DLT);
+    }
+
+    public List<Tier> tiers() {
+        return tiers;
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt <= tiers.size();
+    }
+
+    // Schedules the next attempt after failed attempt n on tier n
+    public CompletableFuture<SendResult<String, byte[]>> retry(String url, int attempt, String error) {
+        Tier tier = tiers.get(attempt - 1);
+        tier.routed().increment();
+        if (logSampler.sampled(log, url)) {
+            log.debug("Attempt {} for {} failed ({}), retrying via {}", attempt, url, error, tier.topic());
+        }
+        return send(tier.topic(), url, attempt + 1, System.currentTimeMillis() + tier.delay().toMillis(), error);
+    }
+
+    // Another go at the same attempt, for a URL whose outcome could not be published: nothing about the URL
+    // failed, so it waits out the first tier's delay and keeps its attempt number. Without tiers it goes back
+    // on the outbox topic, where it starts over as a first attempt.
+    public CompletableFuture<SendResult<String, byte[]>> redeliver(String url, int attempt, String error) {
+        if (tiers.isEmpty()) {
+            return send(SOURCE_TOPIC, url, attempt, System.currentTimeMillis(), error);
+        }
+        Tier tier = tiers.get(0);
+        tier.routed().increment();
+        return send(tier.topic(), url, attempt, System.currentTimeMillis() + tier.delay().toMillis(), error);
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> deadLetter(String url, int attempt, String error) {
+        deadLettered.increment();
+        if (logSampler.sampled(log, url)) {
+            log.debug("Giving up on {} after {} attempts ({}), sending it to {}", url, attempt, error, DLT);
+        }
+        return send(DLT, url, attempt, System.currentTimeMillis(), error);
+    }
+
+    // For outbox records that could not even be decoded: parked unchanged, there is nothing to retry
+    public CompletableFuture<SendResult<String, byte[]>> deadLetter(ConsumerRecord<String, byte[]> record, String error) {
+        deadLettered.increment();
+        ProducerRecord<String, byte[]> dead = new ProducerRecord<>(DLT, record.key(), record.value());
+        dead.headers().add(ERROR_HEADER, error.getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(dead);
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(String topic, String url, int attempt, long notBefore,
+                                                               String error) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, UrlFingerprint.key(UrlFingerprint.of(url)),
+                url.getBytes(StandardCharsets.UTF_8));
+        record.headers()
+                .add(ATTEMPT_HEADER, Integer.toString(attempt).getBytes(StandardCharsets.UTF_8))
+                .add(NOT_BEFORE_HEADER, Long.toString(notBefore).getBytes(StandardCharsets.UTF_8))
+                .add(ERROR_HEADER, error.getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+
+    public static int attemptOf(ConsumerRecord<?, ?> record) {
+        String attempt = header(record.headers(), ATTEMPT_HEADER);
+        return attempt == null ? 1 : Integer.parseInt(attempt);
+    }
+
+    public static long notBeforeOf(ConsumerRecord<?, ?> record) {
+        String notBefore = header(record.headers(), NOT_BEFORE_HEADER);
+        return notBefore == null ? 0 : Long.parseLong(notBefore);
+    }
+
+    private static String header(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    // 5s, 1m, 10m, 1h: the largest whole unit, which keeps topic names readable
+    static String label(Duration delay) {
+        long seconds = delay.toSeconds();
+        if (seconds > 0 && seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds > 0 && seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds > 0 && delay.toMillis() % 1000 == 0 ? seconds + "s" : delay.toMillis() + "ms";
+    }
+
+    public record Tier(String topic, Duration delay, Counter routed) {
+    }
+}
@@ -0,0 +1,194 @@
+package simulation.crawler.fetcher.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import simulation.crawler.fetcher.frontier.CrawlFrontier;
+import simulation.crawler.fetcher.frontier.FrontierEntry;
+import simulation.crawler.fetcher.frontier.FrontierSink;
+import simulation.crawler.fetcher.retry.RetryTopics;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Runs enrichment off the listener thread with a bounded number of in-flight URLs. The outbox
+// listener is paused while the pool is full and a record is only acknowledged after its outcome
+// is stored in Kafka (async acks let the container commit out-of-order completions).
+// With the frontier enabled, URLs pass through per-host politeness scheduling before they run.
+@Service
+@Slf4j
+public class EnrichmentDispatcher implements FrontierSink {
+    public static final String LISTENER_ID = "fetcher-outbox-listener";
+    private static final long HAND_OFF_INITIAL_BACKOFF_MS = 1000;
+    private static final long HAND_OFF_MAX_BACKOFF_MS = 30_000;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final CrawlFrontier frontier;
+    private final RetryTopics retryTopics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final int resumeThreshold;
+    private final boolean concurrent;
+    private UrlEnricher enricher;
+    private volatile boolean shuttingDown;
+
+    public EnrichmentDispatcher(KafkaListenerEndpointRegistry registry, CrawlFrontier frontier,
+                                RetryTopics retryTopics, MeterRegistry meterRegistry,
+                                @Value("${fetcher.enrichment.mode:concurrent}") String mode,
+                                @Value("${fetcher.enrichment.max-in-flight:256}") int maxInFlight) {
+        this.registry = registry;
+        this.frontier = frontier;
+        this.retryTopics = retryTopics;
+        this.concurrent = "concurrent".equalsIgnoreCase(mode);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        // Resume once a quarter of the pool is free so the container does not flap on every completion
+        this.resumeThreshold = Math.max(1, maxInFlight / 4);
+        // Includes URLs queued in the frontier's memory: they took their permit before being queued per host
+        Gauge.builder("fetcher.enrichment.in.flight", this, EnrichmentDispatcher::inFlightCount)
+                .description("URLs being enriched, across all consumer threads and retry tiers")
+                .register(meterRegistry);
+        log.info("Enrichment mode: {} (max in-flight: {})", concurrent ? "concurrent" : "sequential", maxInFlight);
+    }
+
+    public void register(UrlEnricher enricher) throws IOException {
+        this.enricher = enricher;
+        if (concurrent && frontier.isEnabled()) {
+            frontier.start(this);
+        }
+    }
+
+    public void submit(String url, int attempt, Acknowledgment ack) throws InterruptedException {
+        if (!concurrent) {
+            run(url, attempt, ack, false);
+            return;
+        }
+
+        if (!inFlight.tryAcquire()) {
+            log.debug("In-flight limit reached, pausing outbox listener");
+            pauseListener();
+            inFlight.acquire();
+        }
+        if (frontier.isEnabled()) {
+            frontier.offer(url, attempt, ack);
+        } else {
+            executor.execute(() -> run(url, attempt, ack, true));
+        }
+    }
+
+    public int inFlightCount() {
+        return concurrent ? maxInFlight - inFlight.availablePermits() : 0;
+    }
+
+    @Override
+    public CompletableFuture<?> dispatch(FrontierEntry entry) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        executor.execute(() -> run(entry.getUrl(), entry.getAttempt(), entry.getAck(), true)
+                .whenComplete((result, ex) -> {
+                    if (ex == null) {
+                        done.complete(null);
+                    } else {
+                        done.completeExceptionally(ex);
+                    }
+                }));
+        return done;
+    }
+
+    @Override
+    public boolean tryAcquirePermit() {
+        return inFlight.tryAcquire();
+    }
+
+    @Override
+    public void releasePermit() {
+        release();
+    }
+
+    // The record is acknowledged once its outcome is stored: published, or handed to a retry topic when that
+    // failed. Leaving it unacknowledged is not an option: with out-of-order commits the container stops
+    // committing the partition behind it and nack() is not supported, so it would stall until a rebalance.
+    private CompletableFuture<?> run(String url, int attempt, Acknowledgment ack, boolean holdsPermit) {
+        CompletableFuture<?> publish;
+        try {
+            publish = enricher.enrich(url, attempt);
+        } catch (Exception e) {
+            publish = CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> stored = publish.handle((result, ex) -> ex).thenCompose(ex -> {
+            if (ex == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            log.error("Enrichment did not publish for {}, handing it to a retry topic: {}", url, ex.getMessage(), ex);
+            return handOff(url, attempt, String.valueOf(ex.getMessage()), HAND_OFF_INITIAL_BACKOFF_MS);
+        });
+        return stored.whenComplete((result, ex) -> {
+            if (ex == null && ack != null) {
+                ack.acknowledge();
+            }
+            if (holdsPermit) {
+                release();
+            }
+        });
+    }
+
+    // Retried with backoff for as long as Kafka rejects the send, holding the URL's permit meanwhile; only a
+    // shutdown gives up, which leaves the record unacknowledged for the next consumer of the partition
+    private CompletableFuture<Void> handOff(String url, int attempt, String error, long backoffMs) {
+        CompletableFuture<?> sent;
+        try {
+            sent = retryTopics.redeliver(url, attempt, error);
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((result, ex) -> ex).thenCompose(ex -> {
+            if (ex == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (shuttingDown) {
+                return CompletableFuture.failedFuture(ex);
+            }
+            log.warn("Could not hand {} to a retry topic, trying again in {}ms: {}", url, backoffMs, ex.getMessage());
+            return CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS, executor))
+                    .thenCompose(next -> handOff(url, attempt, error,
+                            Math.min(backoffMs * 2, HAND_OFF_MAX_BACKOFF_MS)));
+        });
+    }
+
+    private void release() {
+        inFlight.release();
+        if (frontier.isEnabled()) {
+            frontier.permitReleased();
+        }
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isPauseRequested() && inFlight.availablePermits() >= resumeThreshold) {
+            log.debug("In-flight pool drained below limit, resuming outbox listener");
+            container.resume();
+        }
+    }
+
+    private void pauseListener() {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container != null && !container.isPauseRequested()) {
+            container.pause();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        executor.close();
+    }
+}
@@ -1,21 +1,43 @@
 package simulation.crawler.fetcher.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import simulation.crawler.fetcher.batch.MicroBatcher;
+import simulation.crawler.fetcher.dto.ParserBatchResult;
 import simulation.crawler.fetcher.dto.ParserResponse;
+import simulation.crawler.fetcher.dto.SensorBatchResult;
 import simulation.crawler.fetcher.dto.SensorResponse;
+import simulation.crawler.fetcher.resilience.ResilientEndpoint;
+import simulation.crawler.fetcher.resilience.ResilientEndpointFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ExternalServiceClient {
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate parserTemplate;
+    private final RestTemplate sensorTemplate;
+    private final ResilientEndpoint parser;
+    private final ResilientEndpoint sensor;
+    private final int sensorMaxAttempts;
+
+    // Only set in batch mode (fetcher.client.batch.enabled)
+    private MicroBatcher<ParserResponse> parserBatcher;
+    private MicroBatcher<SensorResponse> sensorBatcher;
+    private ExecutorService batchExecutor;
+    private ScheduledExecutorService batchTimer;
 
     @Value("${parser.url}")
     private String parserUrl;
@@ -23,10 +45,46 @@ public class ExternalServiceClient {
     @Value("${sensor.url}")
     private String sensorUrl;
 
+    @Value("${parser.batch-url:${parser.url}-batch}")
+    private String parserBatchUrl;
+
+    @Value("${sensor.batch-url:${sensor.url}-batch}")
+    private String sensorBatchUrl;
+
+    public ExternalServiceClient(@Qualifier("parserRestTemplate") RestTemplate parserTemplate,
+                                 @Qualifier("sensorRestTemplate") RestTemplate sensorTemplate,
+                                 ResilientEndpointFactory endpoints, MeterRegistry registry,
+                                 @Value("${fetcher.client.parser.max-attempts:1}") int parserMaxAttempts,
+                                 @Value("${fetcher.client.sensor.max-attempts:2}") int sensorMaxAttempts,
+                                 @Value("${fetcher.client.batch.enabled:false}") boolean batchEnabled,
+                                 @Value("${fetcher.client.batch.max-items:32}") int batchMaxItems,
+                                 @Value("${fetcher.client.batch.max-wait-ms:10}") long batchMaxWaitMs) {
+        this.parserTemplate = parserTemplate;
+        this.sensorTemplate = sensorTemplate;
+        this.parser = endpoints.create("parser", parserMaxAttempts);
+        this.sensor = endpoints.create("sensor", sensorMaxAttempts);
+        this.sensorMaxAttempts = Math.max(1, sensorMaxAttempts);
+
+        if (batchEnabled) {
+            batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            batchTimer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("client-batch-timer").factory());
+            parserBatcher = new MicroBatcher<>("parser", batchMaxItems, batchMaxWaitMs, this::parseBatch,
+                    batchExecutor, batchTimer, registry);
+            sensorBatcher = new MicroBatcher<>("sensor", batchMaxItems, batchMaxWaitMs, this::inspectBatch,
+                    batchExecutor, batchTimer, registry);
+            log.info("Batching parser/sensor calls: up to {} URLs or {}ms per batch", batchMaxItems, batchMaxWaitMs);
+        }
+    }
+
     public Optional<ParserResponse> callParser(String url) {
+        if (parserBatcher != null) {
+            return awaitBatched(parserBatcher, "Parser", url);
+        }
         try {
             log.debug("Calling parser for url: {}", url);
-            ResponseEntity<ParserResponse> response = restTemplate.postForEntity(parserUrl, url, ParserResponse.class);
+            ResponseEntity<ParserResponse> response = parser.execute(
+                    () -> parserTemplate.postForEntity(parserUrl, url, ParserResponse.class));
             return Optional.ofNullable(response.getBody());
         } catch (Exception e) {
             log.warn("Parser call failed for {}: {}", url, e.getMessage());
@@ -34,14 +92,73 @@ public class ExternalServiceClient {
         }
     }
 
-    public Optional<SensorResponse> callSensor(String url, boolean isRetry) {
+    // Retries (up to fetcher.client.sensor.max-attempts) happen inside the resilient endpoint
+    public Optional<SensorResponse> callSensor(String url) {
+        if (sensorBatcher != null) {
+            // Per-item failures come back inside a successful batch, so the item is re-queued into a later batch
+            Optional<SensorResponse> response = Optional.empty();
+            for (int attempt = 1; attempt <= sensorMaxAttempts && response.isEmpty(); attempt++) {
+                response = awaitBatched(sensorBatcher, "Sensor", url);
+            }
+            return response;
+        }
         try {
-            log.debug("Calling sensor for url: {}", url + (isRetry ? " (RETRY)" : ""));
-            ResponseEntity<SensorResponse> response = restTemplate.postForEntity(sensorUrl, url, SensorResponse.class);
+            log.debug("Calling sensor for url: {}", url);
+            ResponseEntity<SensorResponse> response = sensor.execute(
+                    () -> sensorTemplate.postForEntity(sensorUrl, url, SensorResponse.class));
             return Optional.ofNullable(response.getBody());
         } catch (Exception e) {
             log.warn("Sensor call failed for {}: {}", url, e.getMessage());
             return Optional.empty();
         }
     }
+
+    private <T> Optional<T> awaitBatched(MicroBatcher<T> batcher, String service, String url) {
+        try {
+            return batcher.submit(url).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            log.warn("{} batch call failed for {}: {}", service, url, e.getCause().getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // The whole batch is one call for timeouts, retries, hedging and the circuit breaker
+    private List<Optional<ParserResponse>> parseBatch(List<String> urls) throws Exception {
+        log.debug("Calling parser for batch of {} URLs", urls.size());
+        ParserBatchResult[] results = parser.execute(
+                () -> parserTemplate.postForObject(parserBatchUrl, urls, ParserBatchResult[].class));
+        List<Optional<ParserResponse>> responses = new ArrayList<>(results.length);
+        for (ParserBatchResult result : results) {
+            if (!Boolean.TRUE.equals(result.getSuccess())) {
+                log.warn("Parser call failed for {}: {}", result.getUrl(), result.getError());
+            }
+            responses.add(Optional.ofNullable(Boolean.TRUE.equals(result.getSuccess()) ? result.getResult() : null));
+        }
+        return responses;
+    }
+
+    private List<Optional<SensorResponse>> inspectBatch(List<String> urls) throws Exception {
+        log.debug("Calling sensor for batch of {} URLs", urls.size());
+        SensorBatchResult[] results = sensor.execute(
+                () -> sensorTemplate.postForObject(sensorBatchUrl, urls, SensorBatchResult[].class));
+        List<Optional<SensorResponse>> responses = new ArrayList<>(results.length);
+        for (SensorBatchResult result : results) {
+            if (!Boolean.TRUE.equals(result.getSuccess())) {
+                log.warn("Sensor call failed for {}: {}", result.getUrl(), result.getError());
+            }
+            responses.add(Optional.ofNullable(Boolean.TRUE.equals(result.getSuccess()) ? result.getResult() : null));
+        }
+        return responses;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchTimer != null) {
+            batchTimer.shutdownNow();
+            batchExecutor.close();
+        }
+    }
 }
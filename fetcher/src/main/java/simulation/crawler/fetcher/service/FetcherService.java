@@ -1,89 +1,215 @@
 package simulation.crawler.fetcher.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import simulation.crawler.fetcher.codec.EventCodec;
 import simulation.crawler.fetcher.dto.*;
+import simulation.crawler.fetcher.retry.RetryTopics;
+import simulation.crawler.fetcher.util.UrlCanonicalizer;
+import simulation.crawler.fetcher.util.UrlFingerprint;
+import simulation.crawler.fetcher.util.UrlLogSampler;
 
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FetcherService {
     private final ExternalServiceClient client;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EnrichmentDispatcher dispatcher;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final EventCodec codec;
+    private final RetryTopics retryTopics;
+    private final UrlLogSampler logSampler;
+    private final ExecutorService sensorExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Starts the sensor together with the parser; its result is thrown away when the parser fails
+    @Value("${fetcher.enrichment.speculative-sensor:false}")
+    private boolean speculativeSensor;
+
+    private Counter speculativeUsed;
+    private Counter speculativeDiscarded;
+    private Timer speculativeWasted;
+    private Timer outboxLatency;
+    private Timer enrichedCompleted;
+    private Timer enrichedRetried;
+    private Timer enrichedFailed;
+
+    @PostConstruct
+    public void registerEnricher() throws Exception {
+        speculativeUsed = Counter.builder("fetcher.sensor.speculative")
+                .description("Speculative sensor calls by whether their result was used")
+                .tag("result", "used")
+                .register(meterRegistry);
+        speculativeDiscarded = Counter.builder("fetcher.sensor.speculative")
+                .description("Speculative sensor calls by whether their result was used")
+                .tag("result", "discarded")
+                .register(meterRegistry);
+        speculativeWasted = Timer.builder("fetcher.sensor.speculative.wasted")
+                .description("Sensor time spent on speculative calls whose result was discarded")
+                .register(meterRegistry);
+        outboxLatency = Timer.builder("crawler.hop.latency")
+                .description("Time from a record being produced to its consumer picking it up")
+                .tag("topic", "processor.outbox.urls")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        enrichedCompleted = enrichmentTimer("completed");
+        enrichedRetried = enrichmentTimer("retried");
+        enrichedFailed = enrichmentTimer("failed");
+        log.info("Sensor mode: {}", speculativeSensor ? "speculative (parallel with parser)" : "after parser");
+        dispatcher.register(this::processUrl);
+    }
+
+    // One attempt at one URL, from its first call until the outcome (result, retry or dead letter) is stored
+    private Timer enrichmentTimer(String outcome) {
+        return Timer.builder("fetcher.enrichment.duration")
+                .description("Parser and sensor calls plus publishing the outcome, per URL attempt")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sensorExecutor.close();
+    }
 
     // Now correctly strictly consumes from the Outbox topic as per architectural
-    // detail
-    @KafkaListener(topics = "processor.outbox.urls", groupId = "fetcher-group")
-    public void consumeNewUrls(String message) {
+    // detail. All consumer threads share the dispatcher's in-flight limit.
+    @KafkaListener(id = EnrichmentDispatcher.LISTENER_ID, topics = "processor.outbox.urls", groupId = "fetcher-group",
+            concurrency = "${fetcher.enrichment.concurrency:3}")
+    public void consumeNewUrls(ConsumerRecord<String, byte[]> record, Acknowledgment ack) {
+        String url;
         try {
-            Map<String, Object> event = objectMapper.readValue(message, Map.class);
-            String url = (String) event.get("url");
+            url = UrlCanonicalizer.canonicalize(codec.decodeUrl(record.value()));
+        } catch (Exception e) {
+            // Retrying cannot fix an undecodable event; park it on the DLT and move on once that is durable
+            log.error("Failed to decode URL event at {}-{}@{}, sending it to {}: {}", record.topic(), record.partition(),
+                    record.offset(), RetryTopics.DLT, e.getMessage(), e);
+            deadLetterUndecodable(record, "Undecodable: " + e.getMessage(), ack);
+            return;
+        }
 
-            log.info("Received URL from outbox: {}", url);
-            processUrl(url);
+        // Producer-side timestamp of the outbox record: relay publish time
+        outboxLatency.record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+        try {
+            if (logSampler.sampled(log, url)) {
+                log.debug("Received URL from outbox: {}", url);
+            }
+            dispatcher.submit(url, 1, ack);
+        } catch (InterruptedException e) {
+            // The record was neither queued nor acknowledged. Failing the delivery lets the container's error
+            // handler seek back to it, so it is polled again instead of holding up the partition.
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an enrichment slot", e);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to process URL event: {}", e.getMessage(), e);
+    // Waits on the listener thread: if the DLT send fails the record must not stay unacknowledged, so the
+    // exception fails the delivery and the container's error handler seeks back to it for another try
+    private void deadLetterUndecodable(ConsumerRecord<String, byte[]> record, String error, Acknowledgment ack) {
+        try {
+            retryTopics.deadLetter(record, error).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending an undecodable event to " + RetryTopics.DLT, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not send an undecodable event to " + RetryTopics.DLT, e.getCause());
         }
+        ack.acknowledge();
     }
 
-    private void processUrl(String url) throws Exception {
-        log.info("Starting enrichment flow for URL: {}", url);
+    // Per-URL lines are debug and sampled; outcomes and latencies are in fetcher.enrichment.duration and
+    // fetcher.client.requests
+    private CompletableFuture<?> processUrl(String url, int attempt) throws Exception {
+        boolean sampled = logSampler.sampled(log, url);
+        if (sampled) {
+            log.debug("Starting enrichment flow for URL: {} (attempt {}, speculative sensor: {})", url, attempt,
+                    speculativeSensor);
+        }
+
+        CompletableFuture<Optional<SensorResponse>> speculative = null;
+        long start = System.nanoTime();
+        if (speculativeSensor) {
+            speculative = CompletableFuture.supplyAsync(() -> client.callSensor(url), sensorExecutor);
+        }
 
         // 1. Call Parser (No retry)
-        log.info("Calling Parser Service for URL: {}", url);
         Optional<ParserResponse> parserOpt = client.callParser(url);
 
         if (parserOpt.isEmpty()) {
-            log.error("Parser failed for URL: {}", url);
-            publishResult(url, false, null, null, "Parser failed");
-            return;
+            if (sampled) {
+                log.debug("Parser failed for URL: {}", url);
+            }
+            if (speculative != null) {
+                // Not cancelled: the sensor is already doing the work, so the full call is what was wasted
+                speculativeDiscarded.increment();
+                speculative.whenComplete((sensor, ex) ->
+                        speculativeWasted.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            }
+            return failed(url, attempt, null, "Parser failed", start);
         }
-        log.info("Parser succeeded for URL: {}", url);
 
-        // 2. Call Sensor (1 retry allowed)
-        log.info("Calling Sensor Service for URL: {}", url);
-        Optional<SensorResponse> sensorOpt = client.callSensor(url, false);
-        if (sensorOpt.isEmpty()) {
-            log.warn("Sensor failed for {}, initiating retry...", url);
-            sensorOpt = client.callSensor(url, true);
+        // 2. Call Sensor (retried by the client with backoff, see fetcher.client.sensor.max-attempts)
+        Optional<SensorResponse> sensorOpt;
+        if (speculative != null) {
+            speculativeUsed.increment();
+            sensorOpt = speculative.join();
+        } else {
+            sensorOpt = client.callSensor(url);
         }
 
         if (sensorOpt.isEmpty()) {
-            log.error("Sensor failed after retry for URL: {}", url);
-            publishResult(url, false, objectMapper.writeValueAsString(parserOpt.get()), null,
-                    "Sensor failed after retry");
-            return;
+            if (sampled) {
+                log.debug("Sensor failed after retry for URL: {}", url);
+            }
+            return failed(url, attempt, parserOpt.get(), "Sensor failed after retry", start);
         }
-        log.info("Sensor succeeded for URL: {}", url);
 
         // 3. Complete Success
-        log.info("Successfully enriched URL: {}", url);
-        publishResult(url, true,
-                objectMapper.writeValueAsString(parserOpt.get()),
-                sensorOpt.get().getCensored(),
-                objectMapper.writeValueAsString(sensorOpt.get()));
+        if (sampled) {
+            log.debug("Successfully enriched URL: {}", url);
+        }
+        return timed(enrichedCompleted, start, publishResult(url, true, parserOpt.get(), sensorOpt.get(), null, attempt));
     }
 
-    private void publishResult(String url, boolean success, String parsingData, Boolean censored, String sensorData)
+    // The record stays PENDING while retry tiers are left; only the last failure is published as FAILED
+    private CompletableFuture<?> failed(String url, int attempt, ParserResponse parser, String error, long start)
             throws Exception {
-        FetcherResultEvent result = FetcherResultEvent.builder()
-                .url(url)
-                .success(success)
-                .parsingData(parsingData)
-                .censored(censored)
-                .sensorData(sensorData)
-                .build();
-
-        kafkaTemplate.send("fetcher.results", objectMapper.writeValueAsString(result));
-        log.info("Published final results to fetcher.results for URL: {} (Success: {})", url, success);
+        if (retryTopics.canRetry(attempt)) {
+            return timed(enrichedRetried, start, retryTopics.retry(url, attempt, error));
+        }
+        return timed(enrichedFailed, start, CompletableFuture.allOf(retryTopics.deadLetter(url, attempt, error),
+                publishResult(url, false, parser, null, error, attempt)));
+    }
+
+    private static <T> CompletableFuture<T> timed(Timer timer, long start, CompletableFuture<T> outcome) {
+        return outcome.whenComplete((result, ex) -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> publishResult(String url, boolean success,
+                                                                        ParserResponse parser, SensorResponse sensor,
+                                                                        String error, int attempts) throws Exception {
+        // Keyed by fingerprint so every result for a URL lands on the same partition
+        return kafkaTemplate.send("fetcher.results", UrlFingerprint.key(UrlFingerprint.of(url)),
+                codec.encodeResult(url, success, parser, sensor, error, attempts));
     }
 }
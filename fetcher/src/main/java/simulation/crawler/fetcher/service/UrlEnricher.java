@@ -0,0 +1,10 @@
+package simulation.crawler.fetcher.service;
+
+import java.util.concurrent.CompletableFuture;
+
+// Runs the full parser/sensor flow for one URL; the future completes once its outcome is published
+// (a result, or the hand-off to a retry topic). attempt starts at 1 for URLs from the outbox.
+@FunctionalInterface
+public interface UrlEnricher {
+    CompletableFuture<?> enrich(String url, int attempt) throws Exception;
+}
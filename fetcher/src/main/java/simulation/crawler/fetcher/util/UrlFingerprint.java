@@ -0,0 +1,25 @@
+package simulation.crawler.fetcher.util;
+
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.nio.charset.StandardCharsets;
+
+// 64-bit xxHash of the canonical URL. It is the crawl_records lookup key and the Kafka message key,
+// so every service must hash the same canonical string with the same seed.
+public final class UrlFingerprint {
+    private static final XXHash64 XX_HASH_64 = XXHashFactory.fastestInstance().hash64();
+    private static final long SEED = 0L;
+
+    private UrlFingerprint() {
+    }
+
+    public static long of(String canonicalUrl) {
+        byte[] bytes = canonicalUrl.getBytes(StandardCharsets.UTF_8);
+        return XX_HASH_64.hash(bytes, 0, bytes.length, SEED);
+    }
+
+    public static String key(long fingerprint) {
+        return Long.toHexString(fingerprint);
+    }
+}
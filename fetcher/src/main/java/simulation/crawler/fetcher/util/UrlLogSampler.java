@@ -0,0 +1,23 @@
+package simulation.crawler.fetcher.util;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Decides which URLs get per-URL debug lines. The choice depends only on the URL's hash, so the parser,
+// sensor, fetcher and processor all pick the same URLs and a sampled URL can be followed end to end.
+// Everything else about a URL is in the metrics; the lines stay off the hot path for the other 99%.
+@Component
+public class UrlLogSampler {
+    private static final int BUCKETS = 10_000;
+
+    private final int threshold;
+
+    public UrlLogSampler(@Value("${crawler.logging.sample-rate:0.01}") double sampleRate) {
+        this.threshold = (int) Math.round(Math.max(0, Math.min(1, sampleRate)) * BUCKETS);
+    }
+
+    public boolean sampled(Logger log, String url) {
+        return log.isDebugEnabled() && url != null && Math.floorMod(url.hashCode(), BUCKETS) < threshold;
+    }
+}
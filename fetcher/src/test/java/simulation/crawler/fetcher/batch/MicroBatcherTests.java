@@ -0,0 +1,85 @@
+package simulation.crawler.fetcher.batch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTests {
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+	private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+
+	@AfterEach
+	void shutdown() {
+		timer.shutdownNow();
+		executor.close();
+	}
+
+	@Test
+	void flushesAsSoonAsTheBatchIsFull() throws Exception {
+		MicroBatcher<String> batcher = batcher(3, 60_000, this::echoOddFailing);
+
+		List<CompletableFuture<Optional<String>>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(batcher.submit("u" + i));
+		}
+
+		assertEquals(Optional.of("ok:u0"), futures.get(0).get(1, TimeUnit.SECONDS));
+		assertEquals(Optional.empty(), futures.get(1).get(1, TimeUnit.SECONDS));
+		assertEquals(Optional.of("ok:u2"), futures.get(2).get(1, TimeUnit.SECONDS));
+		assertEquals(List.of(List.of("u0", "u1", "u2")), calls);
+	}
+
+	@Test
+	void flushesPartialBatchesAfterMaxWait() throws Exception {
+		MicroBatcher<String> batcher = batcher(100, 20, this::echoOddFailing);
+
+		CompletableFuture<Optional<String>> first = batcher.submit("a");
+		CompletableFuture<Optional<String>> second = batcher.submit("b");
+
+		assertEquals(Optional.of("ok:a"), first.get(1, TimeUnit.SECONDS));
+		assertTrue(second.get(1, TimeUnit.SECONDS).isEmpty());
+		assertEquals(1, calls.size());
+	}
+
+	@Test
+	void failsEveryItemWhenTheBatchCallFails() {
+		MicroBatcher<String> batcher = batcher(2, 60_000, urls -> {
+			throw new IllegalStateException("parser down");
+		});
+
+		CompletableFuture<Optional<String>> first = batcher.submit("a");
+		CompletableFuture<Optional<String>> second = batcher.submit("b");
+
+		assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+		assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+	}
+
+	private List<Optional<String>> echoOddFailing(List<String> urls) {
+		calls.add(urls);
+		List<Optional<String>> results = new ArrayList<>();
+		for (int i = 0; i < urls.size(); i++) {
+			results.add(i % 2 == 0 ? Optional.of("ok:" + urls.get(i)) : Optional.empty());
+		}
+		return results;
+	}
+
+	private MicroBatcher<String> batcher(int maxItems, long maxWaitMs, BatchCall<String> call) {
+		return new MicroBatcher<>("test", maxItems, maxWaitMs, call, executor, timer, new SimpleMeterRegistry());
+	}
+}
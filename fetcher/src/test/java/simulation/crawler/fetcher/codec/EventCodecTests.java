@@ -0,0 +1,75 @@
+package simulation.crawler.fetcher.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import simulation.crawler.events.FetchResultMessage;
+import simulation.crawler.events.UrlCreatedMessage;
+import simulation.crawler.fetcher.dto.ParserResponse;
+import simulation.crawler.fetcher.dto.SensorResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventCodecTests {
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private EventCodec codec(String wireFormat) throws IOException {
+		return new EventCodec(objectMapper, new FileSchemaStore(""), wireFormat);
+	}
+
+	@Test
+	void decodesAvroAndJsonOutboxEvents() throws Exception {
+		EventCodec codec = codec("avro");
+		byte[] avro = UrlCreatedMessage.getEncoder()
+				.encode(new UrlCreatedMessage("https://eco-store.org/products/home/item-000001", 11L, 3L, null)).array();
+		byte[] json = "{\"url\":\"https://eco-store.org/products/home/item-000001\",\"urlHash\":11,\"processId\":3}"
+				.getBytes(StandardCharsets.UTF_8);
+
+		assertEquals("https://eco-store.org/products/home/item-000001", codec.decodeUrl(avro));
+		assertEquals("https://eco-store.org/products/home/item-000001", codec.decodeUrl(json));
+	}
+
+	@Test
+	void encodesTypedAvroResultsAndLegacyJsonResults() throws Exception {
+		ParserResponse parser = new ParserResponse();
+		parser.setPageTitle("Title");
+		parser.setPopularity(42);
+		SensorResponse sensor = new SensorResponse();
+		sensor.setSslStatus("VALID");
+		sensor.setLatencyMs(120L);
+		sensor.setCensored(true);
+
+		byte[] avro = codec("avro").encodeResult("https://a.io/x", true, parser, sensor, null, 1);
+		assertTrue(EventCodec.isAvro(avro));
+		FetchResultMessage message = FetchResultMessage.getDecoder().decode(ByteBuffer.wrap(avro));
+		assertEquals("Title", message.getParsingData().getPageTitle());
+		assertEquals(120L, message.getSensorData().getLatencyMs());
+		assertTrue(message.getCensored());
+		assertNull(message.getError());
+
+		byte[] failed = codec("avro").encodeResult("https://a.io/x", false, parser, null, "Sensor failed after retry", 4);
+		message = FetchResultMessage.getDecoder().decode(ByteBuffer.wrap(failed));
+		assertNull(message.getSensorData());
+		assertNull(message.getCensored());
+		assertEquals("Sensor failed after retry", message.getError());
+		assertEquals(4, message.getAttempts());
+
+		// JSON keeps the pre-Avro layout: payloads embedded as strings, the failure reason in sensorData
+		byte[] json = codec("json").encodeResult("https://a.io/x", false, null, null, "Parser failed", 2);
+		assertFalse(EventCodec.isAvro(json));
+		JsonNode root = objectMapper.readTree(json);
+		assertTrue(root.get("parsingData").isNull());
+		assertEquals("Parser failed", root.get("sensorData").asText());
+		assertEquals(2, root.get("attempts").asInt());
+		json = codec("json").encodeResult("https://a.io/x", true, parser, sensor, null, 1);
+		assertEquals("VALID", objectMapper.readTree(objectMapper.readTree(json).get("sensorData").asText())
+				.get("sslStatus").asText());
+	}
+}
@@ -0,0 +1,99 @@
+package simulation.crawler.fetcher.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import simulation.crawler.events.UrlCreatedMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The fetcher only needs the url of each processor.outbox.urls event. jsonMap is the original generic
+// Map decode, jsonTree is EventCodec's JSON path today, jsonStreaming is a candidate that reads tokens up
+// to the url field and binds nothing else.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OutboxDecodeBenchmark {
+    private static final String URL = "https://retail-giant.com/products/electronics/item-004217";
+
+    private ObjectMapper objectMapper;
+    private JsonFactory jsonFactory;
+    private EventCodec codec;
+    private byte[] json;
+    private byte[] avro;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jsonFactory = objectMapper.getFactory();
+        codec = new EventCodec(objectMapper, new FileSchemaStore(""), "avro");
+        // As the processor writes it in JSON mode: the DiscoveryEvent fields in declaration order
+        json = ("{\"url\":\"" + URL + "\",\"processId\":8305417736625561090,\"processSize\":100000,"
+                + "\"urlHash\":-3936412790457011350}").getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        UrlCreatedMessage.getEncoder().encode(new UrlCreatedMessage(URL, -3936412790457011350L,
+                8305417736625561090L, 100_000), out);
+        avro = out.toByteArray();
+        if (!URL.equals(jsonStreaming()) || !URL.equals(jsonTree()) || !URL.equals(avro())) {
+            throw new IllegalStateException("Decoders disagree on the url");
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String jsonMap() throws Exception {
+        Map<String, Object> event = objectMapper.readValue(json, Map.class);
+        return (String) event.get("url");
+    }
+
+    @Benchmark
+    public String jsonTree() throws Exception {
+        return codec.decodeUrl(json);
+    }
+
+    @Benchmark
+    public String jsonStreaming() throws Exception {
+        return streamUrl(json);
+    }
+
+    @Benchmark
+    public String avro() throws Exception {
+        return codec.decodeUrl(avro);
+    }
+
+    private String streamUrl(byte[] value) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(value)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean url = "url".equals(parser.currentName());
+                JsonToken token = parser.nextToken();
+                if (url) {
+                    return token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package simulation.crawler.fetcher.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import simulation.crawler.fetcher.dto.FetcherResultEvent;
+import simulation.crawler.fetcher.dto.ParserResponse;
+import simulation.crawler.fetcher.dto.SensorResponse;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// fetcher.results encoding, once per enriched URL. json is EventCodec's legacy layout today: both payloads
+// serialized to strings, then the envelope. The candidates produce the same bytes through an ObjectWriter
+// per type, plain and with Blackbird; avro is the default wire format, for comparison.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultEncodeBenchmark {
+    private static final String URL = "https://retail-giant.com/products/electronics/item-004217";
+
+    // normalizedContents length: the mock parser's 27 characters, or a real page's text
+    @Param({ "27", "4096" })
+    private int contentChars;
+
+    private EventCodec jsonCodec;
+    private EventCodec avroCodec;
+    private LegacyResultWriter writers;
+    private LegacyResultWriter blackbirdWriters;
+    private ParserResponse parser;
+    private SensorResponse sensor;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        FileSchemaStore schemaStore = new FileSchemaStore("");
+        jsonCodec = new EventCodec(objectMapper, schemaStore, "json");
+        avroCodec = new EventCodec(objectMapper, schemaStore, "avro");
+        writers = new LegacyResultWriter(objectMapper);
+        blackbirdWriters = new LegacyResultWriter(Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new BlackbirdModule()).build());
+
+        parser = new ParserResponse();
+        parser.setPageTitle("Simulated Title for " + URL);
+        parser.setPageMetaTags("crawler, simulation, mock");
+        parser.setPageMetaDescription("This is a simulated description for the crawled site.");
+        parser.setContentSize(contentChars);
+        parser.setNormalizedContents("Extracted text from site... ".repeat(contentChars / 28 + 1)
+                .substring(0, contentChars));
+        parser.setPopularity(42);
+        sensor = new SensorResponse();
+        sensor.setSslStatus("VALID");
+        sensor.setLatencyMs(187L);
+        sensor.setSiteAvailable(true);
+        sensor.setCensored(false);
+
+        byte[] expected = json();
+        if (!Arrays.equals(expected, jsonWriters()) || !Arrays.equals(expected, jsonWritersBlackbird())) {
+            throw new IllegalStateException("Writers disagree with EventCodec");
+        }
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return jsonCodec.encodeResult(URL, true, parser, sensor, null, 1);
+    }
+
+    @Benchmark
+    public byte[] jsonWriters() throws Exception {
+        return writers.write(URL, true, parser, sensor, null, 1);
+    }
+
+    @Benchmark
+    public byte[] jsonWritersBlackbird() throws Exception {
+        return blackbirdWriters.write(URL, true, parser, sensor, null, 1);
+    }
+
+    @Benchmark
+    public byte[] avro() throws Exception {
+        return avroCodec.encodeResult(URL, true, parser, sensor, null, 1);
+    }
+
+    static class LegacyResultWriter {
+        private final ObjectWriter envelopeWriter;
+        private final ObjectWriter parserWriter;
+        private final ObjectWriter sensorWriter;
+
+        LegacyResultWriter(ObjectMapper objectMapper) {
+            this.envelopeWriter = objectMapper.writerFor(FetcherResultEvent.class);
+            this.parserWriter = objectMapper.writerFor(ParserResponse.class);
+            this.sensorWriter = objectMapper.writerFor(SensorResponse.class);
+        }
+
+        byte[] write(String url, boolean success, ParserResponse parser, SensorResponse sensor, String error,
+                     int attempts) throws IOException {
+            return envelopeWriter.writeValueAsBytes(new FetcherResultEvent(url, success,
+                    parser != null ? parserWriter.writeValueAsString(parser) : null,
+                    sensor != null ? sensor.getCensored() : null,
+                    sensor != null ? sensorWriter.writeValueAsString(sensor) : error, attempts));
+        }
+    }
+}
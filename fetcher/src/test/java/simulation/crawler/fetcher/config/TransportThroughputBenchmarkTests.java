@@ -0,0 +1,76 @@
+package simulation.crawler.fetcher.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+import simulation.crawler.fetcher.dto.ParserResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Compares requests/second of the simple, apache and jdk transports against a running parser.
+// Start the parser without jitter or failures first, e.g.
+//   ./mvnw spring-boot:run -Dspring-boot.run.arguments="--parser.jitter.min=0 --parser.jitter.max=1 --parser.fail-rate=0 --logging.level.root=WARN"
+// then run: BENCH_PARSER_URL=http://localhost:8084/api/v1/parser/process ./mvnw test -Dtest=TransportThroughputBenchmarkTests
+// Optional: -Dbench.concurrency=64 -Dbench.seconds=10
+@EnabledIfEnvironmentVariable(named = "BENCH_PARSER_URL", matches = ".+")
+@Slf4j
+class TransportThroughputBenchmarkTests {
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 64);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+
+    @Test
+    void compareTransports() throws Exception {
+        String parserUrl = System.getenv("BENCH_PARSER_URL");
+        for (String type : List.of("simple", "apache", "jdk")) {
+            HttpTransport transport = new HttpTransport(new SimpleMeterRegistry(), type, 500, 512, 256, 30_000);
+            try {
+                RestTemplate restTemplate = new RestClientConfig().parserRestTemplate(new RestTemplateBuilder(),
+                        transport, new ObjectMapper(), 2_000);
+                // Warm up connections and JIT before measuring
+                run(restTemplate, parserUrl, 2);
+                long[] result = run(restTemplate, parserUrl, SECONDS);
+                log.info("transport {}: {} req/s over {}s at concurrency {} ({} errors)", type,
+                        Math.round(result[0] / (double) SECONDS), SECONDS, CONCURRENCY, result[1]);
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    private long[] run(RestTemplate restTemplate, String parserUrl, int seconds) throws Exception {
+        AtomicLong ok = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                int worker = i;
+                workers.add(executor.submit(() -> {
+                    long n = 0;
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            restTemplate.postForEntity(parserUrl, "https://bench.example/" + worker + "/" + n++,
+                                    ParserResponse.class);
+                            ok.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return new long[]{ok.get(), errors.get()};
+    }
+}
@@ -0,0 +1,169 @@
+package simulation.crawler.fetcher.frontier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class CrawlFrontierTests {
+	private static final List<String> URLS = List.of("https://a.io/1", "https://a.io/2", "https://a.io/3",
+			"https://a.io/4", "https://a.io/5", "https://a.io/6");
+
+	@TempDir
+	Path spillDir;
+
+	private CrawlFrontier frontier;
+
+	@AfterEach
+	void stop() {
+		if (frontier != null) {
+			frontier.stop();
+		}
+	}
+
+	@Test
+	void spilledUrlsKeepTheirRecordUnacknowledgedUntilTheyRun() throws Exception {
+		// The min delay holds the host back while all URLs are offered, so the queue overflows
+		Sink sink = new Sink(URLS.size());
+		frontier = start(sink, 100);
+		Map<String, Acknowledgment> acks = new HashMap<>();
+		for (String url : URLS) {
+			acks.put(url, mock(Acknowledgment.class));
+			sink.offer(frontier, url, acks.get(url));
+		}
+		assertTrue(frontier.spilledBacklog() > 0);
+		assertFalse(spillFiles().isEmpty());
+
+		await(() -> sink.dispatched.size() == URLS.size());
+		// Acknowledging is left to whoever stores the outcome; each URL still carries its own record's ack
+		sink.dispatched.forEach((url, entry) -> assertSame(acks.get(url), entry.getAck()));
+		verifyNoInteractions(acks.values().toArray());
+		await(() -> spillFiles().isEmpty());
+	}
+
+	@Test
+	void reloadedUrlsWaitForAnInFlightPermit() throws Exception {
+		Sink sink = new Sink(URLS.size());
+		frontier = start(sink, 500);
+		for (String url : URLS) {
+			sink.offer(frontier, url, mock(Acknowledgment.class));
+		}
+		// Spilled URLs gave their permits back; take them all, as URLs of other hosts would
+		int taken = sink.permits.drainPermits();
+		assertTrue(taken > 0);
+		Thread.sleep(1_500);
+		assertEquals(taken, frontier.spilledBacklog(), "nothing is reloaded without a permit");
+		assertEquals(URLS.size() - taken, sink.dispatched.size());
+
+		for (int i = 0; i < taken; i++) {
+			sink.releasePermit();
+		}
+		await(() -> sink.dispatched.size() == URLS.size());
+		assertEquals(0, sink.permits.availablePermits(), "every dispatched URL holds a permit");
+	}
+
+	@Test
+	void urlsOfferedBehindASpilledBacklogRunAfterIt() throws Exception {
+		Sink sink = new Sink(URLS.size());
+		frontier = start(sink, 300);
+		for (String url : URLS.subList(0, 4)) {
+			sink.offer(frontier, url, mock(Acknowledgment.class));
+		}
+		// Room in memory again, but /4 is still on disk
+		await(() -> sink.order.size() == 2);
+		assertTrue(frontier.spilledBacklog() > 0);
+		for (String url : URLS.subList(4, URLS.size())) {
+			sink.offer(frontier, url, mock(Acknowledgment.class));
+		}
+
+		await(() -> sink.order.size() == URLS.size());
+		assertEquals(URLS, sink.order);
+	}
+
+	@Test
+	void spillFilesOfAPreviousRunAreDeletedOnStart() throws Exception {
+		Files.writeString(spillDir.resolve("a.io~0.queue"), "https://a.io/1\n");
+		Sink sink = new Sink(0);
+		frontier = start(sink, 0);
+
+		assertTrue(spillFiles().isEmpty());
+		assertEquals(0, frontier.spilledBacklog());
+		assertTrue(sink.dispatched.isEmpty());
+	}
+
+	private CrawlFrontier start(Sink sink, long minDelayMs) throws Exception {
+		CrawlFrontier started = new CrawlFrontier(true, 64, minDelayMs, 2, spillDir.toString());
+		sink.frontier = started;
+		started.start(sink);
+		return started;
+	}
+
+	private List<Path> spillFiles() {
+		try (var files = Files.list(spillDir)) {
+			return files.toList();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10s");
+			Thread.sleep(10);
+		}
+	}
+
+	// Plays the dispatcher: a permit per offered URL, and dispatched URLs stay in flight for good
+	private static class Sink implements FrontierSink {
+		final Map<String, FrontierEntry> dispatched = new ConcurrentHashMap<>();
+		final List<String> order = new CopyOnWriteArrayList<>();
+		final Semaphore permits;
+		CrawlFrontier frontier;
+
+		Sink(int permits) {
+			this.permits = new Semaphore(permits);
+		}
+
+		void offer(CrawlFrontier frontier, String url, Acknowledgment ack) throws InterruptedException {
+			permits.acquire();
+			frontier.offer(url, 1, ack);
+		}
+
+		@Override
+		public CompletableFuture<?> dispatch(FrontierEntry entry) {
+			dispatched.put(entry.getUrl(), entry);
+			order.add(entry.getUrl());
+			return new CompletableFuture<>();
+		}
+
+		@Override
+		public boolean tryAcquirePermit() {
+			return permits.tryAcquire();
+		}
+
+		@Override
+		public void releasePermit() {
+			permits.release();
+			frontier.permitReleased();
+		}
+	}
+}
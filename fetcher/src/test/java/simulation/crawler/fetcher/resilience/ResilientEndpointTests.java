@@ -0,0 +1,99 @@
+package simulation.crawler.fetcher.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilientEndpointTests {
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	@AfterEach
+	void shutdown() {
+		executor.close();
+	}
+
+	@Test
+	void retriesServerErrorsUpToMaxAttempts() throws Exception {
+		ResilientEndpoint endpoint = endpoint(3, false, new CircuitBreaker(100, 100, 0.5, 5_000, 1));
+		AtomicInteger calls = new AtomicInteger();
+
+		String result = endpoint.execute(() -> {
+			if (calls.incrementAndGet() < 3) {
+				throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+			}
+			return "ok";
+		});
+
+		assertEquals("ok", result);
+		assertEquals(3, calls.get());
+		assertEquals(2, registry.counter("fetcher.client.retries", "endpoint", "test").count());
+	}
+
+	@Test
+	void doesNotRetryClientErrors() {
+		ResilientEndpoint endpoint = endpoint(3, false, new CircuitBreaker(100, 100, 0.5, 5_000, 1));
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(HttpClientErrorException.class, () -> endpoint.execute(() -> {
+			calls.incrementAndGet();
+			throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+		}));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void failsFastOnceTheBreakerOpens() {
+		ResilientEndpoint endpoint = endpoint(1, false, new CircuitBreaker(10, 4, 0.5, 60_000, 1));
+		AtomicInteger calls = new AtomicInteger();
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(HttpServerErrorException.class, () -> endpoint.execute(() -> {
+				calls.incrementAndGet();
+				throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+			}));
+		}
+		assertThrows(CallNotPermittedException.class, () -> endpoint.execute(() -> {
+			calls.incrementAndGet();
+			return "ok";
+		}));
+		assertEquals(4, calls.get());
+	}
+
+	@Test
+	void hedgesSlowCallsOncePercentilesAreKnown() throws Exception {
+		ResilientEndpoint endpoint = endpoint(1, true, new CircuitBreaker(100, 100, 0.5, 5_000, 1));
+		for (int i = 0; i < 50; i++) {
+			endpoint.execute(() -> "warm-up");
+		}
+		// The latency snapshot is refreshed at most once a second
+		Thread.sleep(1_100);
+
+		AtomicInteger calls = new AtomicInteger();
+		String result = endpoint.execute(() -> {
+			if (calls.incrementAndGet() == 1) {
+				Thread.sleep(5_000);
+				return "slow";
+			}
+			return "hedged";
+		});
+
+		assertEquals("hedged", result);
+		assertEquals(1, registry.counter("fetcher.client.hedges", "endpoint", "test").count());
+	}
+
+	private ResilientEndpoint endpoint(int maxAttempts, boolean hedge, CircuitBreaker breaker) {
+		return new ResilientEndpoint("test", maxAttempts, 1, 5, hedge, 20, new RetryBudget(0.5, 10), breaker,
+				executor, registry);
+	}
+}
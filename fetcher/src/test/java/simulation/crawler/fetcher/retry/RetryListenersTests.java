@@ -0,0 +1,103 @@
+package simulation.crawler.fetcher.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import simulation.crawler.fetcher.service.EnrichmentDispatcher;
+import simulation.crawler.fetcher.util.UrlLogSampler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class RetryListenersTests {
+	private static EmbeddedKafkaBroker broker;
+
+	@BeforeAll
+	static void startBroker() {
+		broker = new EmbeddedKafkaKraftBroker(1, 1);
+		broker.afterPropertiesSet();
+		broker.addTopics(new NewTopic("processor.outbox.urls.retry-1s", 1, (short) 1),
+				new NewTopic("processor.outbox.urls.retry-1m", 1, (short) 1));
+	}
+
+	@AfterAll
+	static void stopBroker() {
+		broker.destroy();
+	}
+
+	@Test
+	void retriesRunOnceWhenDueWithoutWaitingForSlowerTiers() throws Exception {
+		Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+		KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(
+				new DefaultKafkaProducerFactory<>(producerProps, new StringSerializer(), new ByteArraySerializer()));
+		RetryTopics retryTopics = new RetryTopics(template, new SimpleMeterRegistry(), new UrlLogSampler(0),
+				List.of(Duration.ofSeconds(1), Duration.ofMinutes(1)));
+
+		Map<String, Long> deliveredAt = new ConcurrentHashMap<>();
+		List<String> deliveries = new CopyOnWriteArrayList<>();
+		CountDownLatch due = new CountDownLatch(2);
+		EnrichmentDispatcher dispatcher = mock(EnrichmentDispatcher.class);
+		doAnswer(invocation -> {
+			String url = invocation.getArgument(0);
+			deliveredAt.putIfAbsent(url, System.currentTimeMillis());
+			deliveries.add(url + "#" + invocation.getArgument(1));
+			invocation.<Acknowledgment>getArgument(2).acknowledge();
+			due.countDown();
+			return null;
+		}).when(dispatcher).submit(anyString(), anyInt(), any());
+
+		// Queued behind the one-minute tier: must not hold up the one-second tier
+		retryTopics.retry("https://a.io/slow", 2, "Parser failed").get(10, TimeUnit.SECONDS);
+		long scheduled = System.currentTimeMillis();
+		retryTopics.retry("https://a.io/x", 1, "Parser failed").get(10, TimeUnit.SECONDS);
+		retryTopics.retry("https://a.io/y", 1, "Sensor failed after retry").get(10, TimeUnit.SECONDS);
+
+		Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("fetcher-group", "false", broker);
+		consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+		ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerProps));
+		RetryListeners listeners = new RetryListeners(retryTopics, dispatcher, factory, 1, 10_000);
+		listeners.start();
+		try {
+			assertTrue(due.await(15, TimeUnit.SECONDS), "due retries were not delivered: " + deliveries);
+			// Let a redelivery of the nacked batch show up if there were one
+			Thread.sleep(2000);
+		} finally {
+			listeners.stop();
+		}
+
+		assertEquals(List.of("https://a.io/x#2", "https://a.io/y#2"), deliveries);
+		assertTrue(deliveredAt.get("https://a.io/x") >= scheduled + 1000,
+				"delivered " + (deliveredAt.get("https://a.io/x") - scheduled) + "ms after scheduling");
+	}
+}
@@ -0,0 +1,99 @@
+package simulation.crawler.fetcher.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import simulation.crawler.fetcher.util.UrlLogSampler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryTopicsTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failedAttemptsWalkTheTiersAndEndOnTheDlt() {
+		KafkaTemplate<String, byte[]> template = mock(KafkaTemplate.class);
+		when(template.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+		RetryTopics retryTopics = new RetryTopics(template, new SimpleMeterRegistry(), new UrlLogSampler(0),
+				List.of(Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofMinutes(10)));
+
+		long before = System.currentTimeMillis();
+		for (int attempt = 1; retryTopics.canRetry(attempt); attempt++) {
+			retryTopics.retry("https://a.io/x", attempt, "Parser failed");
+		}
+		assertFalse(retryTopics.canRetry(4));
+		retryTopics.deadLetter("https://a.io/x", 4, "Parser failed");
+
+		ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+		verify(template, times(4)).send(sent.capture());
+		List<ProducerRecord<String, byte[]>> records = sent.getAllValues();
+		assertEquals(List.of("processor.outbox.urls.retry-5s", "processor.outbox.urls.retry-1m",
+				"processor.outbox.urls.retry-10m", "processor.outbox.urls.dlt"),
+				records.stream().map(ProducerRecord::topic).toList());
+
+		ConsumerRecord<String, byte[]> lastRetry = consumed(records.get(2));
+		assertEquals(4, RetryTopics.attemptOf(lastRetry));
+		assertTrue(RetryTopics.notBeforeOf(lastRetry) >= before + Duration.ofMinutes(10).toMillis());
+		assertEquals("https://a.io/x", new String(lastRetry.value(), StandardCharsets.UTF_8));
+		assertEquals(4, RetryTopics.attemptOf(consumed(records.get(3))));
+		// Same key as the outbox record, so a URL's retries stay on one partition of each tier
+		assertEquals(records.get(0).key(), records.get(3).key());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void unpublishedOutcomesAreRedeliveredOnTheFirstTierWithTheSameAttempt() {
+		KafkaTemplate<String, byte[]> template = mock(KafkaTemplate.class);
+		when(template.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+		RetryTopics retryTopics = new RetryTopics(template, new SimpleMeterRegistry(), new UrlLogSampler(0),
+				List.of(Duration.ofSeconds(5), Duration.ofMinutes(1)));
+		RetryTopics withoutTiers = new RetryTopics(template, new SimpleMeterRegistry(), new UrlLogSampler(0), List.of());
+
+		retryTopics.redeliver("https://a.io/x", 2, "Send timed out");
+		withoutTiers.redeliver("https://a.io/y", 1, "Send timed out");
+
+		ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+		verify(template, times(2)).send(sent.capture());
+		assertEquals(List.of("processor.outbox.urls.retry-5s", "processor.outbox.urls"),
+				sent.getAllValues().stream().map(ProducerRecord::topic).toList());
+		assertEquals(2, RetryTopics.attemptOf(consumed(sent.getAllValues().get(0))));
+	}
+
+	@Test
+	void outboxRecordsWithoutHeadersAreFirstAttempts() {
+		ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("processor.outbox.urls", 0, 0L, "k", new byte[0]);
+
+		assertEquals(1, RetryTopics.attemptOf(record));
+		assertEquals(0, RetryTopics.notBeforeOf(record));
+	}
+
+	@Test
+	void tierLabelsUseTheLargestWholeUnit() {
+		assertEquals("5s", RetryTopics.label(Duration.ofSeconds(5)));
+		assertEquals("1m", RetryTopics.label(Duration.ofSeconds(60)));
+		assertEquals("90s", RetryTopics.label(Duration.ofSeconds(90)));
+		assertEquals("2h", RetryTopics.label(Duration.ofHours(2)));
+		assertEquals("250ms", RetryTopics.label(Duration.ofMillis(250)));
+	}
+
+	private static ConsumerRecord<String, byte[]> consumed(ProducerRecord<String, byte[]> sent) {
+		ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(sent.topic(), 0, 0L, sent.key(), sent.value());
+		sent.headers().forEach(header -> record.headers().add(header));
+		return record;
+	}
+}
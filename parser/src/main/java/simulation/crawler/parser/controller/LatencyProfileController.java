@@ -0,0 +1,29 @@
+package simulation.crawler.parser.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import simulation.crawler.parser.dto.LatencyProfile;
+import simulation.crawler.parser.simulation.LatencySimulator;
+
+@RestController
+@RequestMapping("/api/v1/parser/admin/profile")
+@RequiredArgsConstructor
+public class LatencyProfileController {
+    private final LatencySimulator simulator;
+
+    @GetMapping
+    public LatencyProfile get() {
+        return simulator.profile();
+    }
+
+    @PutMapping
+    public LatencyProfile put(@RequestBody LatencyProfile profile) {
+        try {
+            return simulator.update(profile);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -2,9 +2,13 @@ package simulation.crawler.parser.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import simulation.crawler.parser.dto.ParserBatchResult;
 import simulation.crawler.parser.dto.ParserResponse;
 import simulation.crawler.parser.service.ParserService;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1/parser")
 @RequiredArgsConstructor
@@ -12,7 +16,12 @@ public class ParserController {
     private final ParserService parserService;
 
     @PostMapping("/process")
-    public ParserResponse process(@RequestBody String url) throws Exception {
+    public CompletableFuture<ParserResponse> process(@RequestBody String url) {
         return parserService.parse(url);
     }
+
+    @PostMapping("/process-batch")
+    public CompletableFuture<List<ParserBatchResult>> processBatch(@RequestBody List<String> urls) {
+        return parserService.parseBatch(urls);
+    }
 }
@@ -0,0 +1,14 @@
+package simulation.crawler.parser.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParserBatchResult {
+    private String url;
+    private Boolean success;
+    private ParserResponse result;
+    private String error;
+}
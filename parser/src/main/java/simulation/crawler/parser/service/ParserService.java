@@ -1,40 +1,116 @@
 package simulation.crawler.parser.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import simulation.crawler.parser.dto.ParserBatchResult;
 import simulation.crawler.parser.dto.ParserResponse;
+import simulation.crawler.parser.simulation.LatencySimulator;
+import simulation.crawler.parser.simulation.SimulatedCall;
+import simulation.crawler.parser.util.UrlLogSampler;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+// Latency is simulated with a delayed completion instead of Thread.sleep, so a waiting request holds
+// no Tomcat thread and the mock's concurrency is bounded by connections rather than the worker pool.
+// parser.simulated.latency holds the drawn delays and parser.observed.latency the time until the response was
+// ready; the gap is scheduling overshoot under load, which the profile alone does not show.
 @Service
 @Slf4j
 public class ParserService {
-    private final Random random = new Random();
+    private final LatencySimulator simulator;
+    private final UrlLogSampler logSampler;
+    // Delayed completions run on virtual threads; the common pool falls back to a thread per task on small hosts
+    private final Executor completions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer simulatedSingle;
+    private final Timer simulatedBatch;
+    private final Timer observedSingle;
+    private final Timer observedBatch;
+    private final Counter failures;
 
-    @Value("${parser.jitter.min:100}")
-    private int minJitter;
+    public ParserService(LatencySimulator simulator, UrlLogSampler logSampler, MeterRegistry meterRegistry) {
+        this.simulator = simulator;
+        this.logSampler = logSampler;
+        this.simulatedSingle = latencyTimer(meterRegistry, "parser.simulated.latency", "single");
+        this.simulatedBatch = latencyTimer(meterRegistry, "parser.simulated.latency", "batch");
+        this.observedSingle = latencyTimer(meterRegistry, "parser.observed.latency", "single");
+        this.observedBatch = latencyTimer(meterRegistry, "parser.observed.latency", "batch");
+        this.failures = Counter.builder("parser.simulated.failures")
+                .description("URLs answered with a simulated failure")
+                .register(meterRegistry);
+    }
 
-    @Value("${parser.jitter.max:1000}")
-    private int maxJitter;
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String name, String mode) {
+        return Timer.builder(name).tag("mode", mode).publishPercentileHistogram().register(meterRegistry);
+    }
 
-    @Value("${parser.fail-rate:0.25}")
-    private double failRate;
+    public CompletableFuture<ParserResponse> parse(String url) {
+        long start = System.nanoTime();
 
-    public ParserResponse parse(String url) throws Exception {
-        log.info("Received parsing request for URL: {}", url);
+        // Simulation: Jitter and failure, drawn from the active latency profile
+        SimulatedCall call = simulator.next(List.of(url));
+        simulatedSingle.record(call.latencyMs(), TimeUnit.MILLISECONDS);
+        boolean sampled = logSampler.sampled(log, url);
+        if (sampled) {
+            log.debug("Simulating parsing delay: {}ms for URL: {}", call.latencyMs(), url);
+        }
 
-        // Simulation: Jitter
-        int jitter = minJitter + random.nextInt(maxJitter - minJitter);
-        log.info("Simulating parsing delay: {}ms for URL: {}", jitter, url);
-        Thread.sleep(jitter);
+        return CompletableFuture.supplyAsync(() -> {
+            // Simulation: Failure Rate
+            if (call.fails(0)) {
+                failures.increment();
+                if (sampled) {
+                    log.debug("Simulated parsing failure for URL: {}", url);
+                }
+                throw new RuntimeException("Simulated Parser Failure");
+            }
 
-        // Simulation: Failure Rate
-        if (random.nextDouble() < failRate) {
-            log.error("Simulated parsing failure for URL: {}", url);
-            throw new RuntimeException("Simulated Parser Failure");
-        }
+            ParserResponse response = simulatedResponse(url);
+            if (sampled) {
+                log.debug("Parsed URL: {} (Result size: {})", url, response.getContentSize());
+            }
+            return response;
+        }, CompletableFuture.delayedExecutor(call.latencyMs(), TimeUnit.MILLISECONDS, completions))
+                .whenComplete((response, e) -> observedSingle.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
 
+    // One request, one jitter: the batch pays the simulated latency once, while each URL still
+    // fails independently at the configured rate
+    public CompletableFuture<List<ParserBatchResult>> parseBatch(List<String> urls) {
+        long start = System.nanoTime();
+        SimulatedCall call = simulator.next(urls);
+        simulatedBatch.record(call.latencyMs(), TimeUnit.MILLISECONDS);
+        log.debug("Simulating parsing delay: {}ms for batch of {} URLs", call.latencyMs(), urls.size());
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<ParserBatchResult> results = new ArrayList<>(urls.size());
+            for (int i = 0; i < urls.size(); i++) {
+                String url = urls.get(i);
+                if (call.fails(i)) {
+                    failures.increment();
+                    if (logSampler.sampled(log, url)) {
+                        log.debug("Simulated parsing failure for URL: {}", url);
+                    }
+                    results.add(ParserBatchResult.builder().url(url).success(false).error("Simulated Parser Failure").build());
+                } else {
+                    results.add(ParserBatchResult.builder().url(url).success(true).result(simulatedResponse(url)).build());
+                }
+            }
+            return results;
+        }, CompletableFuture.delayedExecutor(call.latencyMs(), TimeUnit.MILLISECONDS, completions))
+                .whenComplete((results, e) -> observedBatch.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private ParserResponse simulatedResponse(String url) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         ParserResponse response = new ParserResponse();
         response.setPageTitle("Simulated Title for " + url);
         response.setPageMetaTags("crawler, simulation, mock");
@@ -42,8 +118,6 @@ public class ParserService {
         response.setContentSize(random.nextInt(50000));
         response.setNormalizedContents("Extracted text from site...");
         response.setPopularity(random.nextInt(100));
-
-        log.info("Successfully parsed URL: {} (Result size: {})", url, response.getContentSize());
         return response;
     }
 }
@@ -0,0 +1,174 @@
+package simulation.crawler.parser.simulation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import simulation.crawler.parser.dto.LatencyProfile;
+import simulation.crawler.parser.dto.LatencyProfile.BrownoutWindow;
+import simulation.crawler.parser.dto.LatencyProfile.DomainOverride;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+// Draws latency and failures from the active LatencyProfile. The profile starts out as the uniform
+// parser.jitter.min/max and parser.fail-rate settings and can be swapped at runtime. With a seed,
+// every request takes the next split of one SplittableRandom, so a run replays the same sequence of
+// draws (exactly for a sequential client, as the same multiset of values under concurrency).
+@Component
+@Slf4j
+public class LatencySimulator {
+    private final AtomicReference<ActiveProfile> active;
+
+    public LatencySimulator(@Value("${parser.jitter.min:100}") int minJitter,
+                            @Value("${parser.jitter.max:1000}") int maxJitter,
+                            @Value("${parser.fail-rate:0.25}") double failRate) {
+        LatencyProfile profile = new LatencyProfile();
+        profile.setMinMs(minJitter);
+        profile.setMaxMs(maxJitter);
+        profile.setFailRate(failRate);
+        this.active = new AtomicReference<>(new ActiveProfile(profile));
+    }
+
+    public LatencyProfile profile() {
+        return active.get().profile;
+    }
+
+    public LatencyProfile update(LatencyProfile profile) {
+        validate(profile);
+        active.set(new ActiveProfile(profile));
+        log.info("Applied latency profile: {}", profile);
+        return profile;
+    }
+
+    public SimulatedCall next(List<String> urls) {
+        ActiveProfile current = active.get();
+        LatencyProfile profile = current.profile;
+        RandomGenerator random = current.random();
+        BrownoutWindow brownout = current.brownoutAt(System.nanoTime());
+
+        double latency = baseLatency(profile, random);
+        double multiplier = brownout != null ? brownout.getLatencyMultiplier() : 1;
+        double domainMultiplier = 1;
+        boolean[] failures = new boolean[urls.size()];
+        for (int i = 0; i < urls.size(); i++) {
+            DomainOverride override = overrideFor(profile.getDomains(), urls.get(i));
+            double failRate = profile.getFailRate();
+            if (override != null) {
+                domainMultiplier = Math.max(domainMultiplier, override.getLatencyMultiplier());
+                if (override.getFailRate() != null) {
+                    failRate = override.getFailRate();
+                }
+            }
+            if (brownout != null) {
+                failRate = Math.max(failRate, brownout.getFailRate());
+            }
+            failures[i] = random.nextDouble() < failRate;
+        }
+        return new SimulatedCall(Math.round(latency * multiplier * domainMultiplier), failures);
+    }
+
+    private static double baseLatency(LatencyProfile profile, RandomGenerator random) {
+        double latency = switch (profile.getDistribution()) {
+            case UNIFORM -> profile.getMaxMs() > profile.getMinMs()
+                    ? random.nextDouble(profile.getMinMs(), profile.getMaxMs())
+                    : profile.getMinMs();
+            case LOGNORMAL -> profile.getMedianMs() * Math.exp(profile.getSigma() * random.nextGaussian());
+            case PARETO -> profile.getScaleMs() / Math.pow(1 - random.nextDouble(), 1 / profile.getShape());
+        };
+        // maxMs belongs to the uniform range; capping the long-tail distributions with it would cut off the tail
+        if (profile.getDistribution() != LatencyProfile.Distribution.UNIFORM && profile.getTailCapMs() != null) {
+            latency = Math.min(profile.getTailCapMs(), latency);
+        }
+        return Math.max(profile.getMinMs(), latency);
+    }
+
+    private static DomainOverride overrideFor(Map<String, DomainOverride> domains, String url) {
+        if (domains == null || domains.isEmpty()) {
+            return null;
+        }
+        String host = hostOf(url);
+        for (Map.Entry<String, DomainOverride> domain : domains.entrySet()) {
+            String key = domain.getKey().toLowerCase();
+            if (host.equals(key) || host.endsWith("." + key)) {
+                return domain.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String hostOf(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && "/?#:".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        return url.substring(start, end).toLowerCase();
+    }
+
+    private static void validate(LatencyProfile profile) {
+        require(profile.getDistribution() != null, "distribution is required");
+        require(profile.getMinMs() >= 0 && profile.getMaxMs() >= profile.getMinMs(), "need 0 <= minMs <= maxMs");
+        require(profile.getMedianMs() > 0 && profile.getSigma() > 0, "medianMs and sigma must be positive");
+        require(profile.getScaleMs() > 0 && profile.getShape() > 0, "scaleMs and shape must be positive");
+        require(profile.getTailCapMs() == null || profile.getTailCapMs() >= profile.getMinMs(),
+                "tailCapMs must not be below minMs");
+        require(isRate(profile.getFailRate()), "failRate must be within [0, 1]");
+        BrownoutWindow brownout = profile.getBrownout();
+        if (brownout != null) {
+            require(brownout.getPeriodMs() > 0 && brownout.getDurationMs() >= 0
+                    && brownout.getDurationMs() <= brownout.getPeriodMs(), "need 0 <= brownout.durationMs <= periodMs");
+            require(brownout.getLatencyMultiplier() > 0 && isRate(brownout.getFailRate()),
+                    "brownout needs a positive latencyMultiplier and a failRate within [0, 1]");
+        }
+        if (profile.getDomains() != null) {
+            profile.getDomains().forEach((domain, override) -> require(override.getLatencyMultiplier() > 0
+                    && (override.getFailRate() == null || isRate(override.getFailRate())),
+                    "invalid override for domain " + domain));
+        }
+    }
+
+    private static boolean isRate(double rate) {
+        return rate >= 0 && rate <= 1;
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static final class ActiveProfile {
+        private final LatencyProfile profile;
+        private final long appliedAt = System.nanoTime();
+        private final SplittableRandom seeded;
+
+        private ActiveProfile(LatencyProfile profile) {
+            this.profile = profile;
+            this.seeded = profile.getSeed() != null ? new SplittableRandom(profile.getSeed()) : null;
+        }
+
+        private RandomGenerator random() {
+            if (seeded == null) {
+                return ThreadLocalRandom.current();
+            }
+            synchronized (seeded) {
+                return seeded.split();
+            }
+        }
+
+        private BrownoutWindow brownoutAt(long now) {
+            BrownoutWindow brownout = profile.getBrownout();
+            if (brownout == null) {
+                return null;
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - appliedAt);
+            return elapsedMs % brownout.getPeriodMs() < brownout.getDurationMs() ? brownout : null;
+        }
+    }
+}
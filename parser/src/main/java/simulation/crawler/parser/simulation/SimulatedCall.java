@@ -0,0 +1,8 @@
+package simulation.crawler.parser.simulation;
+
+// Latency and per-URL failure decisions drawn for one request
+public record SimulatedCall(long latencyMs, boolean[] failures) {
+    public boolean fails(int index) {
+        return failures[index];
+    }
+}
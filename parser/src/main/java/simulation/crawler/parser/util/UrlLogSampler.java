@@ -0,0 +1,21 @@
+package simulation.crawler.parser.util;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Same URL-hash sampling as the fetcher and processor, so the parser logs the URLs they log
+@Component
+public class UrlLogSampler {
+    private static final int BUCKETS = 10_000;
+
+    private final int threshold;
+
+    public UrlLogSampler(@Value("${crawler.logging.sample-rate:0.01}") double sampleRate) {
+        this.threshold = (int) Math.round(Math.max(0, Math.min(1, sampleRate)) * BUCKETS);
+    }
+
+    public boolean sampled(Logger log, String url) {
+        return log.isDebugEnabled() && url != null && Math.floorMod(url.hashCode(), BUCKETS) < threshold;
+    }
+}
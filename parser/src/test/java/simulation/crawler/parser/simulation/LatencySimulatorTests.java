@@ -0,0 +1,112 @@
+package simulation.crawler.parser.simulation;
+
+import org.junit.jupiter.api.Test;
+import simulation.crawler.parser.dto.LatencyProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencySimulatorTests {
+
+	@Test
+	void seededProfileReplaysTheSameDraws() {
+		LatencyProfile profile = new LatencyProfile();
+		profile.setDistribution(LatencyProfile.Distribution.PARETO);
+		profile.setSeed(42L);
+
+		assertEquals(draws(profile), draws(profile));
+	}
+
+	@Test
+	void paretoTailIsNotCutOffAtTheUniformMax() {
+		LatencyProfile profile = new LatencyProfile();
+		profile.setDistribution(LatencyProfile.Distribution.PARETO);
+		profile.setScaleMs(100);
+		profile.setShape(1.2);
+		profile.setSeed(7L);
+
+		List<Long> latencies = draws(profile);
+		long slow = latencies.stream().filter(latency -> latency > profile.getMaxMs()).count();
+		assertTrue(latencies.stream().allMatch(latency -> latency >= 100));
+		assertTrue(slow > 0 && slow < latencies.size() / 5, "tail size " + slow);
+	}
+
+	@Test
+	void tailCapBoundsLongTailDraws() {
+		LatencyProfile profile = new LatencyProfile();
+		profile.setDistribution(LatencyProfile.Distribution.LOGNORMAL);
+		profile.setSigma(2);
+		profile.setTailCapMs(5_000);
+		profile.setSeed(7L);
+
+		List<Long> latencies = draws(profile);
+		assertTrue(latencies.stream().anyMatch(latency -> latency > profile.getMaxMs()));
+		assertTrue(latencies.stream().allMatch(latency -> latency >= 100 && latency <= 5_000));
+	}
+
+	@Test
+	void domainOverridesApplyToSubdomains() {
+		LatencyProfile.DomainOverride slowAndBroken = new LatencyProfile.DomainOverride();
+		slowAndBroken.setLatencyMultiplier(10);
+		slowAndBroken.setFailRate(1.0);
+		LatencyProfile profile = new LatencyProfile();
+		profile.setMinMs(100);
+		profile.setMaxMs(100);
+		profile.setFailRate(0);
+		profile.setDomains(Map.of("slow.example", slowAndBroken));
+
+		LatencySimulator simulator = simulator(profile);
+		SimulatedCall call = simulator.next(List.of("https://fast.example/a", "https://shop.slow.example/b"));
+
+		assertEquals(1_000, call.latencyMs());
+		assertEquals(false, call.fails(0));
+		assertEquals(true, call.fails(1));
+	}
+
+	@Test
+	void brownoutWindowDegradesCallsWhileActive() {
+		LatencyProfile.BrownoutWindow brownout = new LatencyProfile.BrownoutWindow();
+		brownout.setPeriodMs(60_000);
+		brownout.setDurationMs(60_000);
+		brownout.setLatencyMultiplier(3);
+		brownout.setFailRate(1.0);
+		LatencyProfile profile = new LatencyProfile();
+		profile.setMinMs(200);
+		profile.setMaxMs(200);
+		profile.setFailRate(0);
+		profile.setBrownout(brownout);
+
+		SimulatedCall call = simulator(profile).next(List.of("https://any.example/"));
+
+		assertEquals(600, call.latencyMs());
+		assertTrue(call.fails(0));
+	}
+
+	@Test
+	void rejectsInvalidProfiles() {
+		LatencyProfile profile = new LatencyProfile();
+		profile.setFailRate(1.5);
+
+		assertThrows(IllegalArgumentException.class, () -> simulator(new LatencyProfile()).update(profile));
+	}
+
+	private List<Long> draws(LatencyProfile profile) {
+		LatencySimulator simulator = simulator(profile);
+		List<Long> latencies = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			latencies.add(simulator.next(List.of("https://seeded.example/" + i)).latencyMs());
+		}
+		return latencies;
+	}
+
+	private LatencySimulator simulator(LatencyProfile profile) {
+		LatencySimulator simulator = new LatencySimulator(100, 1000, 0.25);
+		simulator.update(profile);
+		return simulator;
+	}
+}
@@ -0,0 +1,43 @@
+package simulation.crawler.processor.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Subscribes this instance to the version bumps published by ProcessRecordCache. The subscription is
+// (re)established in the background so the processor starts and keeps serving while Redis is down;
+// until then the near-cache TTL bounds how stale a page from another instance's writes can get.
+@Component
+@Slf4j
+public class InvalidationSubscriber {
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+    public InvalidationSubscriber(RedisConnectionFactory connectionFactory, ProcessRecordCache cache) {
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cache, new ChannelTopic(ProcessRecordCache.INVALIDATION_CHANNEL));
+        container.afterPropertiesSet();
+    }
+
+    @Scheduled(fixedDelayString = "${processor.cache.invalidation.resubscribe-interval-ms:5000}")
+    public void ensureSubscribed() {
+        if (container.isRunning()) {
+            return;
+        }
+        try {
+            container.start();
+            log.info("Subscribed to {}", ProcessRecordCache.INVALIDATION_CHANNEL);
+        } catch (RuntimeException e) {
+            log.warn("Could not subscribe to {}, retrying: {}", ProcessRecordCache.INVALIDATION_CHANNEL, e.getMessage());
+            container.stop();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        container.destroy();
+    }
+}
@@ -0,0 +1,218 @@
+package simulation.crawler.processor.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import simulation.crawler.processor.dto.RecordPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Two-level cache for record pages: a size-bounded Caffeine near-cache in front of the Redis cache.
+// Keys embed a per-process version, so invalidating a process is one INCR: every page cached under the
+// old version becomes unreachable and ages out on its own. Changed processes are collected after each
+// commit and flushed together on a short interval, one INCR per process however many batches touched it,
+// and the new versions are published so other instances drop their near-cached pages as well.
+@Component
+@Slf4j
+public class ProcessRecordCache implements MessageListener {
+    public static final String CACHE_NAME = "processRecordPages";
+    public static final String INVALIDATION_CHANNEL = CACHE_NAME + ":invalidations";
+    private static final String VERSION_KEY_PREFIX = CACHE_NAME + ":version:";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redis;
+    private final Cache<String, RecordPage> near;
+    private final Cache<Long, Long> versions;
+    private final Set<Long> pendingInvalidations = ConcurrentHashMap.newKeySet();
+    private final Duration versionTtl;
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisErrors;
+    private final Counter invalidationRequests;
+    private final Counter invalidations;
+
+    public ProcessRecordCache(CacheManager cacheManager, StringRedisTemplate redis, MeterRegistry meterRegistry,
+                              @Value("${processor.cache.near.max-size:10000}") long nearMaxSize,
+                              @Value("${processor.cache.near.ttl:10s}") Duration nearTtl,
+                              @Value("${processor.cache.version-ttl:24h}") Duration versionTtl) {
+        this.cacheManager = cacheManager;
+        this.redis = redis;
+        this.versionTtl = versionTtl;
+        // The near-cache TTL bounds how long a missed invalidation message can keep a page stale
+        this.near = Caffeine.newBuilder().maximumSize(nearMaxSize).expireAfterWrite(nearTtl).recordStats().build();
+        this.versions = Caffeine.newBuilder().maximumSize(nearMaxSize).expireAfterWrite(nearTtl).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, near, CACHE_NAME + ".near");
+
+        this.nearHits = lookups(meterRegistry, "near", "hit");
+        this.nearMisses = lookups(meterRegistry, "near", "miss");
+        this.redisHits = lookups(meterRegistry, "redis", "hit");
+        this.redisMisses = lookups(meterRegistry, "redis", "miss");
+        this.redisErrors = lookups(meterRegistry, "redis", "error");
+        this.invalidationRequests = Counter.builder("processor.records.cache.invalidation.requests")
+                .description("Processes reported as changed by committed transactions, before coalescing")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("processor.records.cache.invalidations")
+                .description("Process versions bumped").register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry registry, String level, String result) {
+        return Counter.builder("processor.records.cache.gets")
+                .description("Record page lookups per cache level")
+                .tag("level", level).tag("result", result)
+                .register(registry);
+    }
+
+    public RecordPage getPage(long processId, long afterId, int limit, boolean includeData, Supplier<RecordPage> loader) {
+        Long version = version(processId);
+        if (version == null) {
+            // Without the current version a cached page cannot be told from a stale one
+            return loader.get();
+        }
+        String key = processId + ":" + version + ":" + afterId + ":" + limit + ":" + includeData;
+        RecordPage page = near.getIfPresent(key);
+        if (page != null) {
+            nearHits.increment();
+            return page;
+        }
+        nearMisses.increment();
+
+        org.springframework.cache.Cache shared = cacheManager.getCache(CACHE_NAME);
+        try {
+            page = shared == null ? null : shared.get(key, RecordPage.class);
+        } catch (RuntimeException e) {
+            // Redis being unavailable degrades reads to the database instead of failing them
+            redisErrors.increment();
+            log.warn("Could not read record page {} from Redis: {}", key, e.getMessage());
+            shared = null;
+        }
+        if (page != null) {
+            redisHits.increment();
+        } else {
+            redisMisses.increment();
+            page = loader.get();
+            if (shared != null) {
+                try {
+                    shared.put(key, page);
+                } catch (RuntimeException e) {
+                    redisErrors.increment();
+                    log.warn("Could not write record page {} to Redis: {}", key, e.getMessage());
+                }
+            }
+        }
+        near.put(key, page);
+        return page;
+    }
+
+    // Called from the write transactions. Bumping before the commit would let a concurrent read cache
+    // pre-commit rows under the new version, so the processes are only queued once the commit succeeded.
+    public void invalidateAfterCommit(Collection<Long> processIds) {
+        if (processIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queue(processIds);
+            return;
+        }
+        List<Long> changed = List.copyOf(processIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                queue(changed);
+            }
+        });
+    }
+
+    private void queue(Collection<Long> processIds) {
+        invalidationRequests.increment(processIds.size());
+        pendingInvalidations.addAll(processIds);
+    }
+
+    @Scheduled(fixedDelayString = "${processor.cache.invalidation.flush-interval-ms:200}")
+    public void flushInvalidations() {
+        if (pendingInvalidations.isEmpty()) {
+            return;
+        }
+        List<Long> processIds = new ArrayList<>(pendingInvalidations);
+        pendingInvalidations.removeAll(processIds);
+
+        try {
+            List<Object> results = redis.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (Long processId : processIds) {
+                        operations.opsForValue().increment(VERSION_KEY_PREFIX + processId);
+                        operations.expire(VERSION_KEY_PREFIX + processId, versionTtl);
+                    }
+                    return null;
+                }
+            });
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < processIds.size(); i++) {
+                long version = (Long) results.get(i * 2);
+                versions.asMap().merge(processIds.get(i), version, Math::max);
+                message.append(i > 0 ? "," : "").append(processIds.get(i)).append(':').append(version);
+            }
+            redis.convertAndSend(INVALIDATION_CHANNEL, message.toString());
+            invalidations.increment(processIds.size());
+        } catch (RuntimeException e) {
+            // Queued again so the next flush retries them; a bump that did land only costs one extra version.
+            // Until then other instances serve the stale pages, so drop them locally at least.
+            log.warn("Could not publish cache invalidations for {} processes, retrying on the next flush: {}",
+                    processIds.size(), e.getMessage());
+            pendingInvalidations.addAll(processIds);
+            processIds.forEach(versions::invalidate);
+            near.asMap().keySet().removeIf(key -> processIds.contains(Long.parseLong(key.substring(0, key.indexOf(':')))));
+        }
+    }
+
+    // Invalidations published by any instance, including this one
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        for (String entry : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+            int separator = entry.indexOf(':');
+            versions.asMap().merge(Long.parseLong(entry.substring(0, separator)),
+                    Long.parseLong(entry.substring(separator + 1)), Math::max);
+        }
+    }
+
+    // Null when Redis cannot be read. Caffeine does not store a null, so the next lookup asks Redis again
+    // instead of serving pages under a made-up version for as long as the entry lives.
+    private Long version(long processId) {
+        return versions.get(processId, id -> {
+            try {
+                String version = redis.opsForValue().get(VERSION_KEY_PREFIX + id);
+                return version == null ? 0L : Long.parseLong(version);
+            } catch (RuntimeException e) {
+                redisErrors.increment();
+                log.warn("Could not read the cache version of process {} from Redis: {}", id, e.getMessage());
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package simulation.crawler.processor.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.events.FetchResultMessage;
+import simulation.crawler.events.ParsedPage;
+import simulation.crawler.events.SensorReport;
+import simulation.crawler.events.UrlCreatedMessage;
+import simulation.crawler.processor.dto.DiscoveryEvent;
+import simulation.crawler.processor.dto.FetcherResult;
+import simulation.crawler.processor.dto.ParserData;
+import simulation.crawler.processor.dto.SensorData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+// Wire format of the processor's topics. Outgoing events use crawler.wire-format; incoming values are
+// detected per message (Avro single-object header vs JSON), so producers can be switched one at a time.
+@Component
+@Slf4j
+public class EventCodec {
+    private final ObjectMapper objectMapper;
+    private final boolean avro;
+    private final SingleObjectReader<DiscoveryMessage> discoveryReader;
+    private final SingleObjectReader<FetchResultMessage> resultReader;
+    private final BinaryMessageEncoder<UrlCreatedMessage> urlCreatedEncoder = UrlCreatedMessage.getEncoder();
+
+    public EventCodec(ObjectMapper objectMapper, FileSchemaStore schemaStore,
+                      @Value("${crawler.wire-format:avro}") String wireFormat) {
+        this.objectMapper = objectMapper;
+        this.avro = "avro".equalsIgnoreCase(wireFormat);
+        this.discoveryReader = new SingleObjectReader<>(DiscoveryMessage.getClassSchema(), schemaStore);
+        this.resultReader = new SingleObjectReader<>(FetchResultMessage.getClassSchema(), schemaStore);
+        log.info("Outgoing wire format: {}", avro ? "avro" : "json");
+    }
+
+    // Avro single-object encoding starts with the marker bytes C3 01; JSON values start with '{'
+    public static boolean isAvro(byte[] value) {
+        return value.length > 1 && value[0] == (byte) 0xC3 && value[1] == 0x01;
+    }
+
+    public DiscoveryEvent decodeDiscovery(byte[] value) throws IOException {
+        if (!isAvro(value)) {
+            return objectMapper.readValue(value, DiscoveryEvent.class);
+        }
+        DiscoveryMessage message = discoveryReader.read(value);
+        DiscoveryEvent event = new DiscoveryEvent();
+        event.setUrl(message.getUrl());
+        event.setProcessId(message.getProcessId());
+        event.setProcessSize(message.getProcessSize());
+        return event;
+    }
+
+    public byte[] encodeUrlCreated(DiscoveryEvent event) throws IOException {
+        if (!avro) {
+            return objectMapper.writeValueAsBytes(event);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        urlCreatedEncoder.encode(new UrlCreatedMessage(event.getUrl(), event.getUrlHash(), event.getProcessId(),
+                event.getProcessSize()), out);
+        return out.toByteArray();
+    }
+
+    public FetcherResult decodeResult(byte[] value) throws IOException {
+        return isAvro(value) ? fromAvro(resultReader.read(value)) : fromJson(objectMapper.readTree(value));
+    }
+
+    private static FetcherResult fromAvro(FetchResultMessage message) {
+        FetcherResult result = new FetcherResult();
+        result.setUrl(message.getUrl());
+        result.setSuccess(message.getSuccess());
+        result.setCensored(message.getCensored());
+        result.setAttempts(message.getAttempts());
+        if (message.getParsingData() != null) {
+            ParsedPage page = message.getParsingData();
+            ParserData parsingData = new ParserData();
+            parsingData.setPageTitle(page.getPageTitle());
+            parsingData.setPageMetaTags(page.getPageMetaTags());
+            parsingData.setPageMetaDescription(page.getPageMetaDescription());
+            parsingData.setContentSize(page.getContentSize());
+            parsingData.setNormalizedContents(page.getNormalizedContents());
+            parsingData.setPopularity(page.getPopularity());
+            result.setParsingData(parsingData);
+        }
+        if (message.getSensorData() != null) {
+            SensorReport report = message.getSensorData();
+            SensorData sensorData = new SensorData();
+            sensorData.setSslStatus(report.getSslStatus());
+            sensorData.setLatencyMs(report.getLatencyMs());
+            sensorData.setSiteAvailable(report.getSiteAvailable());
+            sensorData.setCensored(report.getCensored());
+            result.setSensorData(sensorData);
+        } else if (message.getError() != null) {
+            result.setSensorData(errorData(message.getError()));
+        }
+        return result;
+    }
+
+    // JSON results embed parsingData and sensorData as JSON strings; a sensorData string that is not a
+    // JSON object is the fetcher's failure reason and is kept as the record's error message
+    private FetcherResult fromJson(JsonNode root) throws IOException {
+        FetcherResult result = new FetcherResult();
+        result.setUrl(root.path("url").asText(null));
+        result.setSuccess(root.path("success").asBoolean(false));
+        result.setCensored(root.hasNonNull("censored") ? root.get("censored").asBoolean() : null);
+        result.setAttempts(root.path("attempts").asInt(1));
+
+        JsonNode parsingData = embedded(root.get("parsingData"));
+        if (parsingData != null && parsingData.isObject()) {
+            result.setParsingData(objectMapper.treeToValue(parsingData, ParserData.class));
+        } else if (parsingData != null) {
+            log.warn("Could not parse enrichment data for {}: not a JSON object", result.getUrl());
+        }
+
+        JsonNode sensorData = embedded(root.get("sensorData"));
+        if (sensorData != null && sensorData.isObject()) {
+            result.setSensorData(objectMapper.treeToValue(sensorData, SensorData.class));
+        } else if (sensorData != null) {
+            result.setSensorData(errorData(sensorData.asText()));
+        }
+        return result;
+    }
+
+    private JsonNode embedded(JsonNode node) throws IOException {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isTextual() && node.asText().startsWith("{")) {
+            return objectMapper.readTree(node.asText());
+        }
+        return node;
+    }
+
+    private static SensorData errorData(String message) {
+        SensorData errorData = new SensorData();
+        errorData.setErrorMessage(message);
+        return errorData;
+    }
+}
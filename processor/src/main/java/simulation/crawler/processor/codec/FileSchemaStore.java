@@ -0,0 +1,59 @@
+package simulation.crawler.processor.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// Local stand-in for a schema registry. Avro single-object messages carry the 64-bit fingerprint of
+// their writer schema; this store resolves it from the .avsc files bundled under avro/, superseded
+// versions kept under avro-history/ and any extra versions dropped into crawler.schemas.dir, so messages
+// from older or newer producers still decode.
+@Component
+@Slf4j
+public class FileSchemaStore implements SchemaStore {
+    private final SchemaStore.Cache schemas = new SchemaStore.Cache();
+
+    public FileSchemaStore(@Value("${crawler.schemas.dir:}") String schemasDir) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String pattern : new String[] { "classpath*:avro/*.avsc", "classpath*:avro-history/*.avsc" }) {
+            for (Resource resource : resolver.getResources(pattern)) {
+                try (InputStream in = resource.getInputStream()) {
+                    register(in, resource.getFilename());
+                }
+            }
+        }
+        if (!schemasDir.isBlank()) {
+            try (Stream<Path> files = Files.list(Path.of(schemasDir))) {
+                for (Path file : files.filter(path -> path.toString().endsWith(".avsc")).toList()) {
+                    try (InputStream in = Files.newInputStream(file)) {
+                        register(in, file.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    private void register(InputStream in, String source) throws IOException {
+        // A parser per file, so several versions of the same record name can be registered side by side
+        Schema schema = new Schema.Parser().parse(in);
+        schemas.addSchema(schema);
+        log.info("Registered schema {} ({}) from {}", schema.getFullName(),
+                Long.toHexString(SchemaNormalization.parsingFingerprint64(schema)), source);
+    }
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        return schemas.findByFingerprint(fingerprint);
+    }
+}
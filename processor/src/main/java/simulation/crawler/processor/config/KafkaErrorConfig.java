@@ -0,0 +1,34 @@
+package simulation.crawler.processor.config;
+
+import org.apache.avro.AvroRuntimeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import simulation.crawler.processor.service.DeadLetterPublisher;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Picked up by Boot's listener container factory. A failed record is retried in place with backoff, which
+// covers a database restart or lock timeout, then goes to <topic>.dlt instead of being logged and dropped.
+// Values that cannot be decoded will not decode on a retry either and go to the DLT straight away.
+@Configuration
+public class KafkaErrorConfig {
+
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                                 @Value("${processor.retry.attempts:5}") int attempts,
+                                                 @Value("${processor.retry.initial-backoff:1s}") Duration initialBackoff) {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(attempts - 1);
+        backOff.setInitialInterval(initialBackoff.toMillis());
+        backOff.setMultiplier(2);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(kafkaTemplate, DeadLetterPublisher::destination), backOff);
+        errorHandler.addNotRetryableExceptions(IOException.class, AvroRuntimeException.class);
+        return errorHandler;
+    }
+}
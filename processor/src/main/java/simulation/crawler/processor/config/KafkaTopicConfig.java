@@ -0,0 +1,39 @@
+package simulation.crawler.processor.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+import simulation.crawler.processor.service.DeadLetterPublisher;
+
+import java.util.Optional;
+
+// Topic the outbox relay publishes to, declared here because the processor produces it. Partitions
+// bound the fetcher's consumer threads across all of its replicas.
+@Configuration
+public class KafkaTopicConfig {
+
+    @Bean
+    public NewTopic outboxTopic(@Value("${crawler.topics.outbox.partitions:12}") int partitions,
+                               @Value("${crawler.topics.replication-factor:-1}") short replicationFactor) {
+        // KafkaAdmin creates the topic on startup, or adds partitions if it exists with fewer; -1 keeps the
+        // broker's default.replication.factor
+        return new NewTopic("processor.outbox.urls", Optional.of(partitions),
+                replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty());
+    }
+
+    // Dead letters of the processor's own listeners; low volume, so a few partitions are plenty
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics(@Value("${crawler.topics.dlt.partitions:3}") int partitions,
+                                                 @Value("${crawler.topics.replication-factor:-1}") short replicationFactor) {
+        return new KafkaAdmin.NewTopics(
+                deadLetterTopic("discovery.urls", partitions, replicationFactor),
+                deadLetterTopic("fetcher.results", partitions, replicationFactor));
+    }
+
+    private static NewTopic deadLetterTopic(String topic, int partitions, short replicationFactor) {
+        return new NewTopic(topic + DeadLetterPublisher.DLT_SUFFIX, Optional.of(partitions),
+                replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty());
+    }
+}
@@ -1,22 +1,99 @@
 package simulation.crawler.processor.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import simulation.crawler.processor.entity.CrawlRecord;
-import simulation.crawler.processor.repository.CrawlRecordRepository;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import simulation.crawler.processor.cache.ProcessRecordCache;
+import simulation.crawler.processor.dto.CrawlRecordView;
+import simulation.crawler.processor.dto.ProcessLatency;
+import simulation.crawler.processor.dto.ProcessProgress;
+import simulation.crawler.processor.dto.RecordPage;
+import simulation.crawler.processor.repository.CrawlProgressRepository;
+import simulation.crawler.processor.repository.CrawlRecordQueryRepository;
+import simulation.crawler.processor.service.ProcessorService;
+import simulation.crawler.processor.service.ProgressNotifier;
+import simulation.crawler.processor.service.RecordExportService;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/processor")
 @RequiredArgsConstructor
 public class ProcessorController {
-    private final CrawlRecordRepository repository;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
+    private final CrawlRecordQueryRepository queryRepository;
+    private final ProcessRecordCache recordCache;
+    private final RecordExportService exportService;
+    private final CrawlProgressRepository progressRepository;
+    private final ProgressNotifier progressNotifier;
+    private final ProcessorService processorService;
+
+    @Value("${processor.records.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${processor.records.max-requeue:10000}")
+    private int maxRequeue;
+
+    // Keyset pagination: pass the previous page's nextAfterId as afterId. Each page is cached on its own key,
+    // so a client walking a large process never pulls (or stores) the whole process as one cache value.
     @GetMapping("/records/{processId}")
-    @Cacheable(value = "processRecords", key = "#processId")
-    public List<CrawlRecord> getRecordsByProcessId(@PathVariable Long processId) {
-        return repository.findByProcessId(processId);
+    public RecordPage getRecordsByProcessId(@PathVariable Long processId,
+                                            @RequestParam(defaultValue = "0") long afterId,
+                                            @RequestParam(defaultValue = "100") int limit,
+                                            @RequestParam(defaultValue = "false") boolean includeData) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+        }
+        return recordCache.getPage(processId, afterId, limit, includeData, () -> {
+            List<CrawlRecordView> records = queryRepository.findPage(processId, afterId, limit, includeData);
+            Long nextAfterId = records.size() < limit ? null : records.get(records.size() - 1).getId();
+            return new RecordPage(records, nextAfterId);
+        });
+    }
+
+    // Whole process as newline-delimited JSON, streamed from a cursor; not cached
+    @GetMapping("/records/{processId}/export")
+    public ResponseEntity<StreamingResponseBody> exportRecords(@PathVariable Long processId,
+                                                               @RequestParam(defaultValue = "false") boolean includeData) {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> exportService.export(processId, includeData, out));
+    }
+
+    // Reads the per-process counters, not the records, so it is cheap enough to poll
+    @GetMapping("/records/{processId}/progress")
+    public ProcessProgress getProgress(@PathVariable Long processId) {
+        return progressRepository.find(processId)
+                .map(ProcessProgress::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown process " + processId));
+    }
+
+    // Percentiles over the process's COMPLETED records; computed on each call and not cached
+    @GetMapping("/records/{processId}/latency")
+    public ProcessLatency getLatency(@PathVariable Long processId) {
+        return queryRepository.findLatency(processId);
+    }
+
+    // Oldest failures first, at most limit per call; repeat while the response reports a full batch
+    @PostMapping("/records/{processId}/requeue-failed")
+    public Map<String, Integer> requeueFailed(@PathVariable Long processId,
+                                              @RequestParam(defaultValue = "1000") int limit) throws Exception {
+        if (limit < 1 || limit > maxRequeue) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxRequeue);
+        }
+        return Map.of("requeued", processorService.requeueFailed(processId, limit));
+    }
+
+    @GetMapping(value = "/records/{processId}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@PathVariable Long processId) {
+        return progressNotifier.subscribe(processId);
     }
 }
@@ -0,0 +1,136 @@
+package simulation.crawler.processor.dedup;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+// Scalable Bloom filter (Almeida et al.): a chain of plain Bloom filters where each new slice doubles
+// in capacity and halves its false-positive target, so the compound rate stays below twice the initial
+// target however many keys arrive. Bit arrays live in direct buffers to keep them off the Java heap.
+// Writes are serialized; reads are lock-free and may miss keys that are being added concurrently.
+public class ScalableBloomFilter {
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+
+    private final long initialCapacity;
+    private final double falsePositiveRate;
+    private volatile Slice[] slices;
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bloom filter sizing: capacity=" + initialCapacity
+                    + ", fpp=" + falsePositiveRate);
+        }
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.slices = new Slice[] { new Slice(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)) };
+    }
+
+    public boolean mightContain(long hash) {
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void put(long hash) {
+        Slice[] current = slices;
+        Slice active = current[current.length - 1];
+        if (active.count >= active.capacity) {
+            Slice next = new Slice(active.capacity * GROWTH_FACTOR, active.falsePositiveRate * TIGHTENING_RATIO);
+            Slice[] grown = new Slice[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            grown[current.length] = next;
+            slices = grown;
+            active = next;
+        }
+        active.put(hash);
+    }
+
+    public synchronized void clear() {
+        slices = new Slice[] { new Slice(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)) };
+    }
+
+    public long size() {
+        long total = 0;
+        for (Slice slice : slices) {
+            total += slice.count;
+        }
+        return total;
+    }
+
+    public int sliceCount() {
+        return slices.length;
+    }
+
+    public long memoryBytes() {
+        long total = 0;
+        for (Slice slice : slices) {
+            total += (long) slice.words.capacity() * Long.BYTES;
+        }
+        return total;
+    }
+
+    // Probability that a key never added is reported as present, given the current fill of every slice
+    public double expectedFalsePositiveRate() {
+        double allMiss = 1.0;
+        for (Slice slice : slices) {
+            double sliceRate = Math.pow(1 - Math.exp(-(double) slice.hashes * slice.count / slice.bits), slice.hashes);
+            allMiss *= 1 - sliceRate;
+        }
+        return 1 - allMiss;
+    }
+
+    private static final class Slice {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bits;
+        private final int hashes;
+        private final LongBuffer words;
+        private volatile long count;
+
+        private Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / LN2_SQUARED);
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+            this.bits = (long) wordCount * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+            this.words = ByteBuffer.allocateDirect(wordCount * Long.BYTES).asLongBuffer();
+        }
+
+        private boolean mightContain(long hash) {
+            long h2 = secondaryHash(hash);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash) {
+            long h2 = secondaryHash(hash);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash + i * h2, bits);
+                int index = (int) (bit >>> 6);
+                words.put(index, words.get(index) | (1L << bit));
+            }
+            count++;
+        }
+
+        // Double hashing (Kirsch-Mitzenmacher): derive the probe stride from a remix of the key hash
+        private static long secondaryHash(long hash) {
+            long h = hash;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h | 1;
+        }
+    }
+}
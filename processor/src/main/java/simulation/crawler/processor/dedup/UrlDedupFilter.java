@@ -0,0 +1,122 @@
+package simulation.crawler.processor.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory front-end for the crawl_urls uniqueness check. A negative answer means the URL
+// was never inserted through this instance or seen during warm-up, so the DB lookup can be skipped
+// (inserts still use ON CONFLICT, which keeps other instances' writes safe). Until warm-up from
+// crawl_urls completes every URL is reported as a possible duplicate.
+@Component
+@Slf4j
+public class UrlDedupFilter {
+    private final ScalableBloomFilter filter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private volatile boolean ready;
+
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final Counter negativeCounter;
+    private final Counter maybeCounter;
+    private final Counter falsePositiveCounter;
+
+    public UrlDedupFilter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${processor.dedup.enabled:true}") boolean enabled,
+                          @Value("${processor.dedup.initial-capacity:1000000}") long initialCapacity,
+                          @Value("${processor.dedup.false-positive-rate:0.01}") double falsePositiveRate) {
+        // A cursor-backed read (fetch size inside a transaction) keeps warm-up memory flat
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.filter = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+
+        this.negativeCounter = Counter.builder("processor.dedup.filter.checks").tag("result", "negative")
+                .description("URLs the filter proved new").register(meterRegistry);
+        this.maybeCounter = Counter.builder("processor.dedup.filter.checks").tag("result", "maybe")
+                .description("URLs that fell through to the database check").register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("processor.dedup.filter.false.positives")
+                .description("Possible duplicates that turned out to be new").register(meterRegistry);
+        Gauge.builder("processor.dedup.filter.memory", filter, ScalableBloomFilter::memoryBytes)
+                .baseUnit("bytes").description("Off-heap bytes held by the filter").register(meterRegistry);
+        Gauge.builder("processor.dedup.filter.entries", filter, ScalableBloomFilter::size).register(meterRegistry);
+        Gauge.builder("processor.dedup.filter.slices", filter, ScalableBloomFilter::sliceCount).register(meterRegistry);
+        Gauge.builder("processor.dedup.filter.fpp.expected", filter, ScalableBloomFilter::expectedFalsePositiveRate)
+                .description("False-positive rate implied by the current fill").register(meterRegistry);
+        Gauge.builder("processor.dedup.filter.fpp.observed", this, UrlDedupFilter::observedFalsePositiveRate)
+                .description("False positives over all checks of URLs that were new").register(meterRegistry);
+    }
+
+    public boolean mightContain(long urlHash) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        boolean maybe = filter.mightContain(urlHash);
+        if (maybe) {
+            maybeCounter.increment();
+        } else {
+            negatives.incrementAndGet();
+            negativeCounter.increment();
+        }
+        return maybe;
+    }
+
+    public void put(long urlHash) {
+        if (enabled) {
+            filter.put(urlHash);
+        }
+    }
+
+    // Called when a URL the filter flagged as a possible duplicate was inserted after all
+    public void recordFalsePositive() {
+        if (enabled && ready) {
+            falsePositives.incrementAndGet();
+            falsePositiveCounter.increment();
+        }
+    }
+
+    public double observedFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long total = fp + negatives.get();
+        return total == 0 ? 0.0 : (double) fp / total;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("URL dedup filter disabled, every discovery event is checked against the database");
+            return;
+        }
+        Thread.ofVirtual().name("dedup-filter-warmup").start(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    jdbcTemplate.query("SELECT url_hash FROM crawl_urls", rs -> {
+                        filter.put(rs.getLong(1));
+                    });
+                });
+                ready = true;
+                log.info("URL dedup filter warmed with {} URLs in {}ms ({} bytes off-heap)", filter.size(),
+                        System.currentTimeMillis() - start, filter.memoryBytes());
+            } catch (Exception e) {
+                log.error("URL dedup filter warm-up failed, falling back to database checks: {}", e.getMessage(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package simulation.crawler.processor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// Outcome of one bulk result update. Changed rows are counted per process, for progress and cache
+// invalidation; unchanged rows are recrawls that left the stored page as it was (same content hash,
+// or a failed refresh), which only moved the record's crawl times.
+@Data
+@AllArgsConstructor
+public class AppliedResults {
+    private Map<Long, Integer> changedByProcess;
+    private int unchanged;
+
+    public int changed() {
+        return changedByProcess.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
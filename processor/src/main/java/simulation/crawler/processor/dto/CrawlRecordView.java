@@ -0,0 +1,31 @@
+package simulation.crawler.processor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Read-side projection of crawl_records. The jsonb columns are only selected when requested and are
+// passed through as the JSON text Postgres returns instead of being bound to ParserData/SensorData.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CrawlRecordView implements Serializable {
+    private Long id;
+    private String url;
+    private String status;
+    private Boolean censored;
+    private Integer attempts;
+
+    @JsonRawValue
+    private String parsingData;
+
+    @JsonRawValue
+    private String sensorData;
+}
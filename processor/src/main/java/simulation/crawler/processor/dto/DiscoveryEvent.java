@@ -1,9 +1,16 @@
 package simulation.crawler.processor.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
 public class DiscoveryEvent {
     private String url;
     private Long processId;
+    // Number of URLs requested for the process, used as the expected total by progress tracking
+    private Integer processSize;
+    private Long urlHash;
+    // Epoch millis from the discovery header; stored with the record, not forwarded on the outbox
+    @JsonIgnore
+    private Long discoveredAt;
 }
@@ -0,0 +1,36 @@
+package simulation.crawler.processor.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Discovery events consumed for one process within a poll, and how many of them created a record. Events are
+// kept by Kafka partition and offset, so those already counted before a redelivery are not counted again.
+// The records created widen the process's discovery window.
+@Data
+public class DiscoveryTally {
+    private final Long processId;
+    private final Long expected;
+    private final List<Integer> partitions = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+    private long inserted;
+    private Instant discoveredFrom;
+    private Instant discoveredTo;
+
+    public void consumed(int partition, long offset) {
+        partitions.add(partition);
+        offsets.add(offset);
+    }
+
+    public void inserted(Instant discoveredAt) {
+        inserted++;
+        if (discoveredFrom == null || discoveredAt.isBefore(discoveredFrom)) {
+            discoveredFrom = discoveredAt;
+        }
+        if (discoveredTo == null || discoveredAt.isAfter(discoveredTo)) {
+            discoveredTo = discoveredAt;
+        }
+    }
+}
@@ -2,11 +2,14 @@ package simulation.crawler.processor.dto;
 
 import lombok.Data;
 
+// A fetcher.results value as decoded by EventCodec, whichever wire format it arrived in
 @Data
 public class FetcherResult {
     private String url;
     private Boolean success;
-    private String parsingData;
+    private ParserData parsingData;
     private Boolean censored;
-    private String sensorData;
+    private SensorData sensorData;
+    // Enrichment attempts the fetcher made, retries included; 1 from fetchers that predate retries
+    private Integer attempts;
 }
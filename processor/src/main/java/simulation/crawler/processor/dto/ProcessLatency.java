@@ -0,0 +1,16 @@
+package simulation.crawler.processor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Discovery-to-COMPLETED latency of a process's records, in milliseconds; percentiles are null until one completes
+@Data
+@AllArgsConstructor
+public class ProcessLatency {
+    private Long processId;
+    private long completed;
+    private Double p50Ms;
+    private Double p95Ms;
+    private Double p99Ms;
+    private Double maxMs;
+}
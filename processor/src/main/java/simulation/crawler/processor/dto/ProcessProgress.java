@@ -0,0 +1,43 @@
+package simulation.crawler.processor.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import simulation.crawler.processor.entity.CrawlProgress;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ProcessProgress {
+    private Long processId;
+    private Long expected;
+    private long discovered;
+    private long total;
+    private long pending;
+    private long completed;
+    private long failed;
+    private long censored;
+    // Discovered URLs that already had a record from an earlier process
+    private long duplicates;
+    private boolean done;
+    private Instant updatedAt;
+
+    // Done once every requested URL has been consumed and every record created for it has a result
+    public static ProcessProgress from(CrawlProgress progress) {
+        long pending = progress.getTotal() - progress.getCompleted() - progress.getFailed();
+        return ProcessProgress.builder()
+                .processId(progress.getProcessId())
+                .expected(progress.getExpected())
+                .discovered(progress.getDiscovered())
+                .total(progress.getTotal())
+                .pending(pending)
+                .completed(progress.getCompleted())
+                .failed(progress.getFailed())
+                .censored(progress.getCensored())
+                .duplicates(progress.getDiscovered() - progress.getTotal())
+                .done(progress.getExpected() != null && progress.getDiscovered() >= progress.getExpected()
+                        && pending <= 0)
+                .updatedAt(progress.getUpdatedAt())
+                .build();
+    }
+}
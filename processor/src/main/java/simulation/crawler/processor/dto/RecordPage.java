@@ -0,0 +1,17 @@
+package simulation.crawler.processor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+// One keyset page; nextAfterId is passed back as afterId for the following page and is null on the last one
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordPage implements Serializable {
+    private List<CrawlRecordView> records;
+    private Long nextAfterId;
+}
@@ -0,0 +1,21 @@
+package simulation.crawler.processor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One row of a bulk result update; jsonb columns are carried as JSON text and cast in SQL
+@Data
+@AllArgsConstructor
+public class ResultUpdate {
+    private Long urlHash;
+    private String status;
+    private String parsingData;
+    private String sensorData;
+    private Boolean censored;
+    private Integer attempts;
+    // ContentHash of parsingData; null when the result carries no page
+    private Long contentHash;
+    // Delay until the next crawl: the recrawl interval on success, the retry delay on failure (which only
+    // applies to records that were already COMPLETED). Null with recrawl off.
+    private Long recrawlMillis;
+}
@@ -0,0 +1,48 @@
+package simulation.crawler.processor.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Per-process counters, maintained incrementally in the same transactions that write crawl_records,
+// so progress can be read without scanning the process's records. Written through CrawlProgressRepository.
+@Entity
+@Table(name = "crawl_progress")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrawlProgress {
+    @Id
+    private Long processId;
+
+    // URLs requested from discovery; null for events published before the size was carried
+    private Long expected;
+
+    // Discovery events consumed, including URLs already known from earlier processes
+    @Column(nullable = false)
+    private long discovered;
+
+    // Records created for this process
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(nullable = false)
+    private long censored;
+
+    // discovered_at range of the process's records, which bounds its queries to the partitions it spans
+    private Instant discoveredFrom;
+
+    private Instant discoveredTo;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -8,7 +8,11 @@ import simulation.crawler.processor.dto.ParserData;
 import simulation.crawler.processor.dto.SensorData;
 
 import java.io.Serializable;
+import java.time.Instant;
 
+// Partitioned by week of discovered_at (db/migration/V2); the key is (id, discovered_at) and CrawlUrl holds
+// the URL's uniqueness. Rows are written and read through CrawlRecordBatchRepository and
+// CrawlRecordQueryRepository with plain JDBC.
 @Entity
 @Table(name = "crawl_records")
 @Getter
@@ -21,22 +25,55 @@ public class CrawlRecord implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    // Canonical URL; uniqueness is enforced on its fingerprint in crawl_urls, an 8-byte key per row
+    @Column(nullable = false, columnDefinition = "text")
     private String url;
 
+    @Column(nullable = false)
+    private Long urlHash;
+
     @Column(nullable = false)
     private Long processId;
 
     @Column(nullable = false)
     private String status; // PENDING, COMPLETED, FAILED
 
+    // Without popularity and contentSize, which live in their own columns
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private ParserData parsingData;
 
+    private Integer popularity;
+
+    private Integer contentSize;
+
     private Boolean censored;
 
+    // Enrichment attempts behind the latest result, fetcher retries included; null while never finished
+    private Integer attempts;
+
+    // Generation time at url.discovery and time of the first crawl's result; together the pipeline latency.
+    // Recrawls leave both alone.
+    @Column(nullable = false)
+    private Instant discoveredAt;
+
+    private Instant finishedAt;
+
+    // Time of the latest successful fetch, recrawls included
+    private Instant lastCrawledAt;
+
+    // When the page is due for a recrawl (see RecrawlPolicy); null while never completed or with recrawl off
+    private Instant nextCrawlAt;
+
+    // xxHash64 of the stored page content (ContentHash); a recrawl with the same hash leaves the row's data alone
+    private Long contentHash;
+
+    // Without sslStatus and latencyMs, which live in their own columns
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private SensorData sensorData;
+
+    private String sslStatus;
+
+    private Long latencyMs;
 }
@@ -0,0 +1,24 @@
+package simulation.crawler.processor.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// One row per known URL. A unique url_hash cannot span the crawl_records partitions, so this primary key is
+// the dedup check; discovered_at names the partition holding the URL's record. Written together with the
+// record by CrawlRecordBatchRepository and removed with its partition by PartitionRepository.
+@Entity
+@Table(name = "crawl_urls")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrawlUrl {
+    @Id
+    private Long urlHash;
+
+    @Column(nullable = false)
+    private Instant discoveredAt;
+}
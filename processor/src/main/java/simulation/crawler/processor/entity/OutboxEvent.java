@@ -0,0 +1,33 @@
+package simulation.crawler.processor.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Row written in the same transaction as the crawl_records change it announces; OutboxRelay publishes
+// and deletes it. Rows are written and claimed through OutboxEventRepository with plain JDBC.
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String messageKey;
+
+    // Kafka value as it will be sent, in the configured wire format
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
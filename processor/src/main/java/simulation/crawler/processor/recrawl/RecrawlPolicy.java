@@ -0,0 +1,117 @@
+package simulation.crawler.processor.recrawl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// How long a crawled page stays fresh. A domain listed in domain-intervals (subdomains included) uses
+// its own interval; every other page takes the tier of its parser popularity, the highest
+// "minPopularity=interval" entry it reaches. Intervals are spread by +-jitter so pages crawled together
+// do not all fall due in the same poll.
+@Component
+@Slf4j
+public class RecrawlPolicy {
+    @Getter
+    private final boolean enabled;
+    private final TreeMap<Integer, Duration> popularityTiers = new TreeMap<>();
+    private final Map<String, Duration> domainIntervals = new HashMap<>();
+    private final Duration retryAfter;
+    private final double jitter;
+
+    public RecrawlPolicy(@Value("${processor.recrawl.enabled:true}") boolean enabled,
+                         @Value("${processor.recrawl.popularity-intervals:80=1h,50=6h,20=1d,0=7d}") List<String> popularityIntervals,
+                         @Value("${processor.recrawl.domain-intervals:}") List<String> domainIntervals,
+                         @Value("${processor.recrawl.retry-after:1h}") Duration retryAfter,
+                         @Value("${processor.recrawl.jitter:0.1}") double jitter) {
+        this.enabled = enabled;
+        for (String entry : popularityIntervals) {
+            String[] parts = split(entry, "popularity-intervals");
+            popularityTiers.put(Integer.parseInt(parts[0]), DurationStyle.detectAndParse(parts[1]));
+        }
+        if (popularityTiers.isEmpty()) {
+            throw new IllegalArgumentException("processor.recrawl.popularity-intervals needs at least one tier");
+        }
+        for (String entry : domainIntervals) {
+            String[] parts = split(entry, "domain-intervals");
+            this.domainIntervals.put(parts[0].toLowerCase(Locale.ROOT), DurationStyle.detectAndParse(parts[1]));
+        }
+        this.retryAfter = retryAfter;
+        this.jitter = jitter;
+        if (enabled) {
+            log.info("Recrawl intervals by popularity {}, by domain {}", popularityTiers, this.domainIntervals);
+        }
+    }
+
+    // Milliseconds until the page is due again; null with recrawl off
+    public Long recrawlMillis(String url, Integer popularity) {
+        if (!enabled) {
+            return null;
+        }
+        Duration interval = domainInterval(url);
+        if (interval == null) {
+            Map.Entry<Integer, Duration> tier = popularityTiers.floorEntry(popularity == null ? 0 : popularity);
+            interval = tier != null ? tier.getValue() : popularityTiers.firstEntry().getValue();
+        }
+        return jittered(interval);
+    }
+
+    // A failed recrawl keeps the page it already has and tries again after retry-after
+    public Long retryMillis() {
+        return enabled ? jittered(retryAfter) : null;
+    }
+
+    private Duration domainInterval(String url) {
+        if (domainIntervals.isEmpty() || url == null) {
+            return null;
+        }
+        // Canonical URLs: the authority runs from "://" to the path's "/", with a lower-case host
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            return null;
+        }
+        int authorityEnd = url.indexOf('/', schemeEnd + 3);
+        String host = url.substring(schemeEnd + 3, authorityEnd < 0 ? url.length() : authorityEnd);
+        host = host.substring(host.lastIndexOf('@') + 1);
+        int colon = host.lastIndexOf(':');
+        if (colon >= 0 && host.indexOf(']', colon) < 0) {
+            host = host.substring(0, colon);
+        }
+        // The most specific listed suffix wins: shop.example.com before example.com
+        for (String domain = host; ; domain = domain.substring(domain.indexOf('.') + 1)) {
+            Duration interval = domainIntervals.get(domain);
+            if (interval != null) {
+                return interval;
+            }
+            if (domain.indexOf('.') < 0) {
+                return null;
+            }
+        }
+    }
+
+    private long jittered(Duration interval) {
+        long millis = interval.toMillis();
+        if (jitter <= 0) {
+            return millis;
+        }
+        return Math.round(millis * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter)));
+    }
+
+    private static String[] split(String entry, String property) {
+        String[] parts = entry.trim().split("=", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("processor.recrawl." + property + " entries look like key=interval, got: "
+                    + entry);
+        }
+        return new String[] { parts[0].trim(), parts[1].trim() };
+    }
+}
@@ -0,0 +1,76 @@
+package simulation.crawler.processor.recrawl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import simulation.crawler.processor.repository.CrawlRecordBatchRepository;
+import simulation.crawler.processor.service.ProcessorService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Polls for records whose next_crawl_at has passed and puts them on the outbox in batches, one
+// transaction each. Claims skip rows another instance holds, so every processor instance can run it.
+// max-per-poll bounds how much one poll adds to the outbox, so a large backlog is fed to the fetcher
+// at the relay's pace instead of all at once.
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "processor.recrawl.enabled", havingValue = "true", matchIfMissing = true)
+public class RecrawlScheduler {
+    private final ProcessorService processorService;
+    private final CrawlRecordBatchRepository batchRepository;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${processor.recrawl.batch-size:500}")
+    private int batchSize;
+
+    @Value("${processor.recrawl.max-per-poll:10000}")
+    private int maxPerPoll;
+
+    // How long a claimed recrawl may take before the record falls due again
+    @Value("${processor.recrawl.lease:30m}")
+    private Duration lease;
+
+    public RecrawlScheduler(ProcessorService processorService, CrawlRecordBatchRepository batchRepository,
+                            MeterRegistry meterRegistry) {
+        this.processorService = processorService;
+        this.batchRepository = batchRepository;
+        Gauge.builder("processor.recrawl.lag", lagMillis, value -> value.get() / 1000.0).baseUnit("seconds")
+                .description("How long the most overdue record has been due").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${processor.recrawl.poll-interval-ms:5000}")
+    public void enqueueDue() {
+        int total = 0;
+        try {
+            int claimed;
+            do {
+                claimed = processorService.enqueueDueRecrawls(Math.min(batchSize, maxPerPoll - total),
+                        lease.toMillis());
+                total += claimed;
+            } while (claimed == batchSize && total < maxPerPoll);
+        } catch (Exception e) {
+            log.error("Recrawl scheduling failed, due records stay due for the next poll: {}", e.getMessage(), e);
+        } finally {
+            refreshLag();
+        }
+        if (total > 0) {
+            log.info("Scheduled {} recrawls", total);
+        }
+    }
+
+    private void refreshLag() {
+        try {
+            lagMillis.set(batchRepository.oldestDueRecrawl()
+                    .map(due -> Math.max(0, Duration.between(due, Instant.now()).toMillis()))
+                    .orElse(0L));
+        } catch (Exception e) {
+            log.warn("Could not refresh recrawl lag: {}", e.getMessage());
+        }
+    }
+}
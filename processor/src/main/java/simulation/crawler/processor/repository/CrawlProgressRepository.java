@@ -0,0 +1,159 @@
+package simulation.crawler.processor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import simulation.crawler.processor.dto.DiscoveryTally;
+import simulation.crawler.processor.entity.CrawlProgress;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Counter updates are upserts of deltas, so concurrent polls for the same process only contend on one
+// row for the length of their transaction. Rows are always locked in process_id order, so consumers on
+// different partitions that touch the same processes wait for each other instead of deadlocking.
+// Result deltas are applied by CrawlRecordBatchRepository.
+@Repository
+@RequiredArgsConstructor
+public class CrawlProgressRepository {
+    // discovered counts the consumed events past each partition's stored offset, so a redelivered poll adds
+    // nothing it already counted; total counts the records inserted, which a redelivery cannot insert twice.
+    // A partition has one consumer at a time, so its discovery_offsets rows have a single writer.
+    // The discovery window only widens (LEAST and GREATEST skip nulls), so a redelivered poll leaves it as it was.
+    private static final String RECORD_DISCOVERY = """
+            WITH e AS (
+                SELECT * FROM unnest(?::bigint[], ?::int[], ?::bigint[]) AS e(process_id, kafka_partition, kafka_offset)
+            ), fresh AS (
+                SELECT e.process_id, e.kafka_partition, max(e.kafka_offset) + 1 AS next_offset,
+                       count(*) FILTER (WHERE o.next_offset IS NULL OR e.kafka_offset >= o.next_offset) AS events
+                FROM e
+                LEFT JOIN discovery_offsets o ON o.process_id = e.process_id AND o.kafka_partition = e.kafka_partition
+                GROUP BY e.process_id, e.kafka_partition
+            ), advanced AS (
+                INSERT INTO discovery_offsets AS o (process_id, kafka_partition, next_offset)
+                SELECT process_id, kafka_partition, next_offset FROM fresh
+                ORDER BY process_id, kafka_partition
+                ON CONFLICT (process_id, kafka_partition) DO UPDATE SET
+                    next_offset = GREATEST(o.next_offset, EXCLUDED.next_offset)
+            )
+            INSERT INTO crawl_progress AS p (process_id, expected, discovered, total, completed, failed, censored,
+                                             discovered_from, discovered_to, updated_at)
+            SELECT d.process_id, d.expected, COALESCE(f.events, 0), d.inserted, 0, 0, 0, d.discovered_from,
+                   d.discovered_to, now()
+            FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::timestamptz[], ?::timestamptz[])
+                AS d(process_id, expected, inserted, discovered_from, discovered_to)
+            LEFT JOIN (SELECT process_id, sum(events)::bigint AS events FROM fresh GROUP BY process_id) f
+                ON f.process_id = d.process_id
+            ORDER BY d.process_id
+            ON CONFLICT (process_id) DO UPDATE SET
+                expected = COALESCE(EXCLUDED.expected, p.expected),
+                discovered = p.discovered + EXCLUDED.discovered,
+                total = p.total + EXCLUDED.total,
+                discovered_from = LEAST(p.discovered_from, EXCLUDED.discovered_from),
+                discovered_to = GREATEST(p.discovered_to, EXCLUDED.discovered_to),
+                updated_at = now()
+            """;
+
+    private static final String SELECT = """
+            SELECT process_id, expected, discovered, total, completed, failed, censored, discovered_from,
+                   discovered_to, updated_at
+            FROM crawl_progress
+            """;
+
+    private static final RowMapper<CrawlProgress> ROW_MAPPER = (rs, rowNum) -> CrawlProgress.builder()
+            .processId(rs.getLong("process_id"))
+            .expected(rs.getObject("expected", Long.class))
+            .discovered(rs.getLong("discovered"))
+            .total(rs.getLong("total"))
+            .completed(rs.getLong("completed"))
+            .failed(rs.getLong("failed"))
+            .censored(rs.getLong("censored"))
+            .discoveredFrom(instant(rs.getTimestamp("discovered_from")))
+            .discoveredTo(instant(rs.getTimestamp("discovered_to")))
+            .updatedAt(rs.getTimestamp("updated_at").toInstant())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void recordDiscovery(Collection<DiscoveryTally> tallies) {
+        if (tallies.isEmpty()) {
+            return;
+        }
+        Long[] processIds = new Long[tallies.size()];
+        Long[] expected = new Long[tallies.size()];
+        Long[] inserted = new Long[tallies.size()];
+        Timestamp[] discoveredFrom = new Timestamp[tallies.size()];
+        Timestamp[] discoveredTo = new Timestamp[tallies.size()];
+        List<Long> eventProcessIds = new ArrayList<>();
+        List<Integer> partitions = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        int i = 0;
+        for (DiscoveryTally tally : tallies) {
+            processIds[i] = tally.getProcessId();
+            expected[i] = tally.getExpected();
+            inserted[i] = tally.getInserted();
+            discoveredFrom[i] = timestamp(tally.getDiscoveredFrom());
+            discoveredTo[i] = timestamp(tally.getDiscoveredTo());
+            i++;
+            for (int event = 0; event < tally.getOffsets().size(); event++) {
+                eventProcessIds.add(tally.getProcessId());
+            }
+            partitions.addAll(tally.getPartitions());
+            offsets.addAll(tally.getOffsets());
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RECORD_DISCOVERY);
+            ps.setArray(1, con.createArrayOf("bigint", eventProcessIds.toArray()));
+            ps.setArray(2, con.createArrayOf("int", partitions.toArray()));
+            ps.setArray(3, con.createArrayOf("bigint", offsets.toArray()));
+            ps.setArray(4, con.createArrayOf("bigint", processIds));
+            ps.setArray(5, con.createArrayOf("bigint", expected));
+            ps.setArray(6, con.createArrayOf("bigint", inserted));
+            ps.setArray(7, con.createArrayOf("timestamptz", discoveredFrom));
+            ps.setArray(8, con.createArrayOf("timestamptz", discoveredTo));
+            return ps;
+        });
+    }
+
+    public Optional<CrawlProgress> find(long processId) {
+        return jdbcTemplate.query(SELECT + "WHERE process_id = ?", ROW_MAPPER, processId).stream().findFirst();
+    }
+
+    // Retention: a process untouched since the cutoff has no records left in the partitions that remain
+    public int deleteIdleBefore(Instant cutoff) {
+        return jdbcTemplate.queryForObject("""
+                WITH gone AS (
+                    DELETE FROM crawl_progress WHERE updated_at < ? RETURNING process_id
+                ), offsets AS (
+                    DELETE FROM discovery_offsets o USING gone WHERE o.process_id = gone.process_id
+                )
+                SELECT count(*) FROM gone
+                """, Integer.class, Timestamp.from(cutoff));
+    }
+
+    public List<CrawlProgress> findAll(Collection<Long> processIds) {
+        if (processIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT + "WHERE process_id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", processIds.toArray()));
+            return ps;
+        }, ROW_MAPPER);
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,276 @@
+package simulation.crawler.processor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import simulation.crawler.processor.dto.AppliedResults;
+import simulation.crawler.processor.dto.DiscoveryEvent;
+import simulation.crawler.processor.dto.ResultUpdate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+// Set-based JDBC writes for the batch listeners. Rows are passed as parallel arrays and expanded
+// with unnest(), so a whole poll is one statement and one round trip regardless of its size.
+@Repository
+@RequiredArgsConstructor
+public class CrawlRecordBatchRepository {
+    // crawl_urls takes the conflict check, since crawl_records partitions cannot share a unique index; only the
+    // URLs it accepted get a record, in the partition of their discovery time
+    private static final String INSERT_PENDING = """
+            WITH u AS (
+                SELECT * FROM unnest(?::text[], ?::bigint[], ?::bigint[], ?::bigint[])
+                    AS u(url, url_hash, process_id, discovered_ms)
+            ), known AS (
+                INSERT INTO crawl_urls (url_hash, discovered_at)
+                SELECT url_hash, COALESCE(to_timestamp(discovered_ms / 1000.0), now()) FROM u
+                ON CONFLICT (url_hash) DO NOTHING
+                RETURNING url_hash, discovered_at
+            )
+            INSERT INTO crawl_records (url, url_hash, process_id, status, discovered_at)
+            SELECT u.url, u.url_hash, u.process_id, 'PENDING', k.discovered_at
+            FROM known k JOIN u ON u.url_hash = k.url_hash
+            RETURNING url_hash, discovered_at
+            """;
+
+    // Null enrichment columns keep what is stored. The previous status is
+    // read under the row lock so the crawl_progress counters move by the actual transition, which keeps
+    // them correct when a result is redelivered or a URL is re-enriched. Records that turn COMPLETED report
+    // their discovery-to-result latency; a redelivered result does not count twice.
+    // A result for a record that is already COMPLETED is a recrawl: it keeps the stored page (status, data,
+    // finished_at) when it failed or its content hash is unchanged, and only moves last_crawled_at and
+    // next_crawl_at. Such rows are reported as unchanged and leave progress and caches alone.
+    // Records are reached through crawl_urls, whose discovered_at prunes the lookup to one partition. The hot
+    // page and sensor fields are split off the documents into their typed columns. The locked rows carry the
+    // incoming values along, so the UPDATE joins them once instead of matching them against u again.
+    private static final String APPLY_RESULTS = """
+            WITH u AS (
+                SELECT url_hash, status, parsing_data::jsonb AS page, sensor_data::jsonb AS sensor, censored, attempts,
+                       content_hash, recrawl_ms
+                FROM unnest(?::bigint[], ?::text[], ?::text[], ?::text[], ?::boolean[], ?::int[], ?::bigint[],
+                        ?::bigint[])
+                    AS u(url_hash, status, parsing_data, sensor_data, censored, attempts, content_hash, recrawl_ms)
+            ), m AS (
+                SELECT u.*, c.id, c.discovered_at, c.status AS old_status, c.censored AS old_censored,
+                       COALESCE(c.status = 'COMPLETED'
+                           AND (u.status = 'FAILED' OR c.content_hash = u.content_hash), false) AS keep
+                FROM u
+                JOIN crawl_urls r ON r.url_hash = u.url_hash
+                JOIN crawl_records c ON c.url_hash = r.url_hash AND c.discovered_at = r.discovered_at
+                FOR UPDATE OF c
+            ), updated AS (
+                UPDATE crawl_records c
+                SET status = CASE WHEN m.keep THEN c.status ELSE m.status END,
+                    parsing_data = CASE WHEN m.keep OR m.page IS NULL THEN c.parsing_data
+                        ELSE m.page - 'popularity' - 'contentSize' END,
+                    popularity = CASE WHEN m.keep OR m.page IS NULL THEN c.popularity
+                        ELSE (m.page ->> 'popularity')::int END,
+                    content_size = CASE WHEN m.keep OR m.page IS NULL THEN c.content_size
+                        ELSE (m.page ->> 'contentSize')::int END,
+                    sensor_data = CASE WHEN m.keep OR m.sensor IS NULL THEN c.sensor_data
+                        ELSE m.sensor - 'sslStatus' - 'latencyMs' END,
+                    ssl_status = CASE WHEN m.keep OR m.sensor IS NULL THEN c.ssl_status
+                        ELSE m.sensor ->> 'sslStatus' END,
+                    latency_ms = CASE WHEN m.keep OR m.sensor IS NULL THEN c.latency_ms
+                        ELSE (m.sensor ->> 'latencyMs')::bigint END,
+                    censored = CASE WHEN m.keep THEN c.censored ELSE m.censored END,
+                    content_hash = CASE WHEN m.keep THEN c.content_hash ELSE COALESCE(m.content_hash, c.content_hash) END,
+                    attempts = CASE WHEN m.keep THEN c.attempts ELSE m.attempts END,
+                    finished_at = CASE WHEN m.old_status = 'COMPLETED' THEN c.finished_at ELSE now() END,
+                    last_crawled_at = CASE WHEN m.status = 'COMPLETED' THEN now() ELSE c.last_crawled_at END,
+                    next_crawl_at = CASE WHEN m.status = 'COMPLETED' OR m.old_status = 'COMPLETED'
+                        THEN now() + m.recrawl_ms * interval '1 millisecond' END
+                FROM m
+                WHERE c.id = m.id AND c.discovered_at = m.discovered_at
+                RETURNING c.process_id, c.status, c.censored, m.old_status, m.old_censored, m.keep,
+                    CASE WHEN c.status = 'COMPLETED' AND m.old_status <> 'COMPLETED'
+                        THEN (extract(epoch FROM c.finished_at - c.discovered_at) * 1000)::bigint END AS latency_ms
+            ), delta AS (
+                SELECT process_id,
+                       count(*) FILTER (WHERE status = 'COMPLETED') - count(*) FILTER (WHERE old_status = 'COMPLETED') AS completed,
+                       count(*) FILTER (WHERE status = 'FAILED') - count(*) FILTER (WHERE old_status = 'FAILED') AS failed,
+                       count(*) FILTER (WHERE censored) - count(*) FILTER (WHERE old_censored) AS censored
+                FROM updated
+                GROUP BY process_id
+            ), locked AS MATERIALIZED (
+                -- Same lock order as CrawlProgressRepository, so concurrent consumers cannot deadlock here
+                SELECT p.process_id FROM crawl_progress p JOIN delta d ON p.process_id = d.process_id
+                ORDER BY p.process_id
+                FOR UPDATE OF p
+            ), progress AS (
+                UPDATE crawl_progress p
+                SET completed = p.completed + d.completed,
+                    failed = p.failed + d.failed,
+                    censored = p.censored + d.censored,
+                    updated_at = now()
+                FROM delta d JOIN locked l ON l.process_id = d.process_id
+                WHERE p.process_id = d.process_id
+            )
+            SELECT process_id, count(*) FILTER (WHERE NOT keep), count(*) FILTER (WHERE keep),
+                   array_agg(latency_ms) FILTER (WHERE latency_ms IS NOT NULL)
+            FROM updated GROUP BY process_id
+            """;
+
+    // Puts FAILED records back to PENDING and takes them off the failed counter in the same statement.
+    // SKIP LOCKED leaves rows a result consumer is updating right now to the next call.
+    private static final String REQUEUE_FAILED = """
+            WITH requeued AS (
+                UPDATE crawl_records c
+                SET status = 'PENDING'
+                WHERE (c.id, c.discovered_at) IN (
+                    SELECT id, discovered_at FROM crawl_records
+                    WHERE process_id = ? AND status = 'FAILED'
+                    ORDER BY id LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING c.url, c.url_hash, c.process_id
+            ), progress AS (
+                UPDATE crawl_progress p
+                SET failed = p.failed - (SELECT count(*) FROM requeued), updated_at = now()
+                WHERE p.process_id = ? AND EXISTS (SELECT 1 FROM requeued)
+            )
+            SELECT url, url_hash, process_id FROM requeued
+            """;
+
+    // Due records are leased rather than cleared: next_crawl_at moves a lease ahead, so a recrawl whose result
+    // never arrives falls due again, and the result resets it to the next interval. The range scans on
+    // idx_crawl_records_next_crawl_at, one per partition merged in order, stop after the batch.
+    private static final String CLAIM_DUE_RECRAWLS = """
+            UPDATE crawl_records c
+            SET next_crawl_at = now() + ?::bigint * interval '1 millisecond'
+            WHERE (c.id, c.discovered_at) IN (
+                SELECT id, discovered_at FROM crawl_records
+                WHERE next_crawl_at <= now()
+                ORDER BY next_crawl_at LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING c.url, c.url_hash, c.process_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Returns the fingerprints that were actually inserted, with the discovered_at their record was stored
+    // under; known URLs are skipped by the conflict clause
+    public Map<Long, Instant> insertPending(List<DiscoveryEvent> events) {
+        if (events.isEmpty()) {
+            return Map.of();
+        }
+        String[] urls = new String[events.size()];
+        Long[] urlHashes = new Long[events.size()];
+        Long[] processIds = new Long[events.size()];
+        Long[] discoveredAt = new Long[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            urls[i] = events.get(i).getUrl();
+            urlHashes[i] = events.get(i).getUrlHash();
+            processIds[i] = events.get(i).getProcessId();
+            discoveredAt[i] = events.get(i).getDiscoveredAt();
+        }
+
+        Map<Long, Instant> inserted = new LinkedHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_PENDING);
+            ps.setArray(1, con.createArrayOf("text", urls));
+            ps.setArray(2, con.createArrayOf("bigint", urlHashes));
+            ps.setArray(3, con.createArrayOf("bigint", processIds));
+            ps.setArray(4, con.createArrayOf("bigint", discoveredAt));
+            return ps;
+        }, (RowCallbackHandler) rs -> inserted.put(rs.getLong(1), rs.getTimestamp(2).toInstant()));
+        return inserted;
+    }
+
+    // Results for unknown fingerprints simply match nothing. Latencies in milliseconds of the records that
+    // became COMPLETED go to completionLatencies.
+    public AppliedResults applyResults(List<ResultUpdate> updates, LongConsumer completionLatencies) {
+        if (updates.isEmpty()) {
+            return new AppliedResults(Map.of(), 0);
+        }
+        int size = updates.size();
+        Long[] urlHashes = new Long[size];
+        String[] statuses = new String[size];
+        String[] parsingData = new String[size];
+        String[] sensorData = new String[size];
+        Boolean[] censored = new Boolean[size];
+        Integer[] attempts = new Integer[size];
+        Long[] contentHashes = new Long[size];
+        Long[] recrawlMillis = new Long[size];
+        for (int i = 0; i < size; i++) {
+            ResultUpdate update = updates.get(i);
+            urlHashes[i] = update.getUrlHash();
+            statuses[i] = update.getStatus();
+            parsingData[i] = update.getParsingData();
+            sensorData[i] = update.getSensorData();
+            censored[i] = update.getCensored();
+            attempts[i] = update.getAttempts();
+            contentHashes[i] = update.getContentHash();
+            recrawlMillis[i] = update.getRecrawlMillis();
+        }
+
+        Map<Long, Integer> changed = new HashMap<>();
+        int[] unchanged = new int[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(APPLY_RESULTS);
+            ps.setArray(1, con.createArrayOf("bigint", urlHashes));
+            ps.setArray(2, con.createArrayOf("text", statuses));
+            ps.setArray(3, con.createArrayOf("text", parsingData));
+            ps.setArray(4, con.createArrayOf("text", sensorData));
+            ps.setArray(5, con.createArrayOf("boolean", censored));
+            ps.setArray(6, con.createArrayOf("integer", attempts));
+            ps.setArray(7, con.createArrayOf("bigint", contentHashes));
+            ps.setArray(8, con.createArrayOf("bigint", recrawlMillis));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            if (rs.getInt(2) > 0) {
+                changed.put(rs.getLong(1), rs.getInt(2));
+            }
+            unchanged[0] += rs.getInt(3);
+            Array latencies = rs.getArray(4);
+            if (latencies != null) {
+                for (Long latency : (Long[]) latencies.getArray()) {
+                    completionLatencies.accept(latency);
+                }
+            }
+        });
+        return new AppliedResults(changed, unchanged[0]);
+    }
+
+    // Point lookup on the crawl_urls primary key
+    public boolean isKnown(long urlHash) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM crawl_urls WHERE url_hash = ?)", Boolean.class, urlHash));
+    }
+
+    public List<DiscoveryEvent> requeueFailed(long processId, int limit) {
+        return jdbcTemplate.query(REQUEUE_FAILED, (rs, rowNum) -> {
+            DiscoveryEvent event = new DiscoveryEvent();
+            event.setUrl(rs.getString("url"));
+            event.setUrlHash(rs.getLong("url_hash"));
+            event.setProcessId(rs.getLong("process_id"));
+            return event;
+        }, processId, limit, processId);
+    }
+
+    public List<DiscoveryEvent> claimDueRecrawls(int limit, long leaseMillis) {
+        return jdbcTemplate.query(CLAIM_DUE_RECRAWLS, (rs, rowNum) -> {
+            DiscoveryEvent event = new DiscoveryEvent();
+            event.setUrl(rs.getString("url"));
+            event.setUrlHash(rs.getLong("url_hash"));
+            event.setProcessId(rs.getLong("process_id"));
+            return event;
+        }, leaseMillis, limit);
+    }
+
+    // Served from the next_crawl_at index; empty when nothing is overdue
+    public Optional<Instant> oldestDueRecrawl() {
+        return jdbcTemplate.query("SELECT next_crawl_at FROM crawl_records WHERE next_crawl_at <= now() "
+                        + "ORDER BY next_crawl_at LIMIT 1",
+                (rs, rowNum) -> rs.getTimestamp(1).toInstant()).stream().findFirst();
+    }
+}
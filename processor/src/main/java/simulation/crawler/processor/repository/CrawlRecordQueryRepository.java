@@ -0,0 +1,135 @@
+package simulation.crawler.processor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import simulation.crawler.processor.dto.CrawlRecordView;
+import simulation.crawler.processor.dto.ProcessLatency;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Read queries for the retrieval API. Both walk the (process_id, id) index of each partition, merged in id
+// order, so a page costs the same wherever it sits in the process and the export never sorts. Every query is
+// bounded by the weeks of the process's discovery window from crawl_progress, so only the partitions the
+// process spans are probed instead of all of them.
+@Repository
+@RequiredArgsConstructor
+public class CrawlRecordQueryRepository {
+    private static final String SUMMARY_COLUMNS = "id, url, status, censored, attempts";
+    // The typed columns split off the documents are merged back, so the JSON is the same as the fetcher sent
+    private static final String FULL_COLUMNS = SUMMARY_COLUMNS
+            + ", (parsing_data || jsonb_build_object('contentSize', content_size, 'popularity', popularity))::text"
+            + " AS parsing_data"
+            + ", (sensor_data || jsonb_build_object('sslStatus', ssl_status, 'latencyMs', latency_ms))::text"
+            + " AS sensor_data";
+
+    private static final String LATENCY = """
+            SELECT count(*) AS completed,
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY l.ms) AS p50,
+                   percentile_cont(0.95) WITHIN GROUP (ORDER BY l.ms) AS p95,
+                   percentile_cont(0.99) WITHIN GROUP (ORDER BY l.ms) AS p99,
+                   max(l.ms) AS max
+            FROM (
+                SELECT extract(epoch FROM finished_at - discovered_at) * 1000 AS ms
+                FROM crawl_records
+                WHERE process_id = ? AND discovered_at >= ? AND discovered_at < ? AND status = 'COMPLETED'
+            ) l
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<CrawlRecordView> findPage(long processId, long afterId, int limit, boolean includeData) {
+        Optional<DiscoveryWindow> window = findWindow(processId);
+        if (window.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT " + (includeData ? FULL_COLUMNS : SUMMARY_COLUMNS)
+                + " FROM crawl_records WHERE process_id = ? AND discovered_at >= ? AND discovered_at < ? AND id > ?"
+                + " ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sql, rowMapper(includeData), processId, window.get().from(), window.get().to(),
+                afterId, limit);
+    }
+
+    // The driver only streams through a server-side cursor inside a transaction, so callers must hold one;
+    // otherwise the whole result set is buffered before the first row is handed over
+    public void streamAll(long processId, boolean includeData, int fetchSize, Consumer<CrawlRecordView> sink) {
+        Optional<DiscoveryWindow> window = findWindow(processId);
+        if (window.isEmpty()) {
+            return;
+        }
+        String sql = "SELECT " + (includeData ? FULL_COLUMNS : SUMMARY_COLUMNS)
+                + " FROM crawl_records WHERE process_id = ? AND discovered_at >= ? AND discovered_at < ? ORDER BY id";
+        RowMapper<CrawlRecordView> mapper = rowMapper(includeData);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, processId);
+            ps.setTimestamp(2, window.get().from());
+            ps.setTimestamp(3, window.get().to());
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(mapper.mapRow(rs, rs.getRow())));
+    }
+
+    public ProcessLatency findLatency(long processId) {
+        Optional<DiscoveryWindow> window = findWindow(processId);
+        if (window.isEmpty()) {
+            return new ProcessLatency(processId, 0, null, null, null, null);
+        }
+        return jdbcTemplate.queryForObject(LATENCY, (rs, rowNum) -> new ProcessLatency(processId,
+                rs.getLong("completed"), nullableDouble(rs, "p50"), nullableDouble(rs, "p95"),
+                nullableDouble(rs, "p99"), nullableDouble(rs, "max")), processId, window.get().from(),
+                window.get().to());
+    }
+
+    // Empty while the process has no records. The window is widened to whole partition weeks: the bound only
+    // has to prune, and an exact one looks selective enough for the planner to scan the (url_hash, discovered_at)
+    // index for it. They are bind parameters rather than a subquery so pruning happens at planning.
+    private Optional<DiscoveryWindow> findWindow(long processId) {
+        return jdbcTemplate.query("""
+                SELECT date_trunc('week', discovered_from AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS week_from,
+                       (date_trunc('week', discovered_to AT TIME ZONE 'UTC') + interval '1 week') AT TIME ZONE 'UTC'
+                           AS week_to
+                FROM crawl_progress
+                WHERE process_id = ? AND discovered_from IS NOT NULL
+                """, (rs, rowNum) -> new DiscoveryWindow(rs.getTimestamp("week_from"), rs.getTimestamp("week_to")),
+                processId).stream().findFirst();
+    }
+
+    private record DiscoveryWindow(Timestamp from, Timestamp to) {
+    }
+
+    private static RowMapper<CrawlRecordView> rowMapper(boolean includeData) {
+        return (rs, rowNum) -> {
+            CrawlRecordView view = CrawlRecordView.builder()
+                    .id(rs.getLong("id"))
+                    .url(rs.getString("url"))
+                    .status(rs.getString("status"))
+                    .censored(nullableBoolean(rs, "censored"))
+                    .attempts(rs.getObject("attempts", Integer.class))
+                    .build();
+            if (includeData) {
+                view.setParsingData(rs.getString("parsing_data"));
+                view.setSensorData(rs.getString("sensor_data"));
+            }
+            return view;
+        };
+    }
+
+    private static Boolean nullableBoolean(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,79 @@
+package simulation.crawler.processor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import simulation.crawler.processor.entity.OutboxEvent;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxEventRepository {
+    private static final String APPEND = """
+            INSERT INTO outbox_events (topic, message_key, payload, created_at)
+            SELECT e.topic, e.message_key, e.payload, now()
+            FROM unnest(?::text[], ?::text[], ?::bytea[]) AS e(topic, message_key, payload)
+            """;
+
+    // Claimed rows are deleted inside the caller's transaction; a failed publish rolls the delete back.
+    // SKIP LOCKED lets several relays (one per processor instance) drain the table without blocking each other.
+    private static final String CLAIM = """
+            DELETE FROM outbox_events
+            WHERE id IN (SELECT id FROM outbox_events ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING id, topic, message_key, payload, created_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        String[] topics = new String[events.size()];
+        String[] keys = new String[events.size()];
+        byte[][] payloads = new byte[events.size()][];
+        for (int i = 0; i < events.size(); i++) {
+            topics[i] = events.get(i).getTopic();
+            keys[i] = events.get(i).getMessageKey();
+            payloads[i] = events.get(i).getPayload();
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPEND);
+            ps.setArray(1, con.createArrayOf("text", topics));
+            ps.setArray(2, con.createArrayOf("text", keys));
+            ps.setArray(3, con.createArrayOf("bytea", payloads));
+            return ps;
+        });
+    }
+
+    public List<OutboxEvent> claimBatch(int limit) {
+        List<OutboxEvent> claimed = jdbcTemplate.query(CLAIM, (rs, rowNum) -> OutboxEvent.builder()
+                .id(rs.getLong("id"))
+                .topic(rs.getString("topic"))
+                .messageKey(rs.getString("message_key"))
+                .payload(rs.getBytes("payload"))
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .build(), limit);
+        // RETURNING does not preserve the subquery order; publish in insertion order
+        claimed.sort(Comparator.comparing(OutboxEvent::getId));
+        return claimed;
+    }
+
+    // Pending rows estimated from the id range so the gauge stays an index-only lookup
+    public long estimatePending() {
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(max(id) - min(id) + 1, 0) FROM outbox_events", Long.class);
+        return pending == null ? 0 : pending;
+    }
+
+    public Optional<Instant> oldestCreatedAt() {
+        return jdbcTemplate.query("SELECT created_at FROM outbox_events ORDER BY id LIMIT 1",
+                (rs, rowNum) -> rs.getTimestamp(1).toInstant()).stream().findFirst();
+    }
+}
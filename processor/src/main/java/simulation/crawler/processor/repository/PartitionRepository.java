@@ -0,0 +1,101 @@
+package simulation.crawler.processor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// DDL for the weekly crawl_records partitions (Monday 00:00 UTC to the next Monday), named after their first
+// day like the ones V2 created. Partition DDL takes no bind parameters, so names and bounds are formatted
+// in; both are derived from dates, never from input.
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'crawl_records_p'yyyyMMdd");
+    // Any value will do as long as every instance uses the same one
+    private static final long MAINTENANCE_LOCK = 0x63726177_6c706172L;
+
+    // The upper bound is read back from the partition's bound expression; null for the default partition
+    private static final String LIST = """
+            SELECT c.relname,
+                   (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'crawl_records'::regclass
+            ORDER BY c.relname
+            """;
+
+    // The new partition is filled from the default partition before it is attached, so rows that landed there
+    // while their week had no partition move with it. ATTACH only takes a SHARE UPDATE EXCLUSIVE lock on
+    // crawl_records, so writers to other partitions keep going.
+    private static final String CREATE = """
+            CREATE TABLE %1$s (LIKE crawl_records INCLUDING DEFAULTS);
+            WITH moved AS (
+                DELETE FROM crawl_records_default WHERE discovered_at >= '%2$s' AND discovered_at < '%3$s'
+                RETURNING *
+            )
+            INSERT INTO %1$s SELECT * FROM moved;
+            ALTER TABLE crawl_records ATTACH PARTITION %1$s FOR VALUES FROM ('%2$s') TO ('%3$s');
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Partition(String name, Instant upperBound) {
+    }
+
+    public static String nameOf(LocalDate weekStart) {
+        return NAME.format(weekStart);
+    }
+
+    public List<Partition> list() {
+        return jdbcTemplate.query(LIST, (rs, rowNum) -> {
+            Timestamp upper = rs.getTimestamp(2);
+            return new Partition(rs.getString(1), upper == null ? null : upper.toInstant());
+        });
+    }
+
+    // Serializes maintenance across processor instances; released when the caller's transaction ends
+    public void lock() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, MAINTENANCE_LOCK);
+    }
+
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                MAINTENANCE_LOCK));
+    }
+
+    public void create(LocalDate weekStart) {
+        jdbcTemplate.execute(String.format(CREATE, nameOf(weekStart),
+                weekStart.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                weekStart.plusWeeks(1).atStartOfDay(ZoneOffset.UTC).toInstant()));
+    }
+
+    // Run before the partition is dropped, so the URLs can be discovered again. Until then a rediscovered URL
+    // only gets a second record, which crawl_urls points at.
+    public int forgetUrls(String partition) {
+        return jdbcTemplate.update("DELETE FROM crawl_urls r USING " + partition + " c "
+                + "WHERE r.url_hash = c.url_hash AND r.discovered_at = c.discovered_at");
+    }
+
+    // Dropping a partition briefly takes an ACCESS EXCLUSIVE lock on crawl_records; the lock timeout keeps
+    // a long-running query from queueing every writer behind it, and the next run tries again
+    public void drop(String partition) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '10s'; DROP TABLE " + partition);
+    }
+
+    // Rows in the default partition are retired by DELETE, with their crawl_urls entries
+    public int deleteDefaultBefore(Instant cutoff) {
+        return jdbcTemplate.update("""
+                WITH gone AS (
+                    DELETE FROM crawl_records_default WHERE discovered_at < ? RETURNING url_hash, discovered_at
+                )
+                DELETE FROM crawl_urls r USING gone
+                WHERE r.url_hash = gone.url_hash AND r.discovered_at = gone.discovered_at
+                """, Timestamp.from(cutoff));
+    }
+}
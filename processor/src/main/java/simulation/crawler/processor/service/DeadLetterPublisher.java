@@ -0,0 +1,51 @@
+package simulation.crawler.processor.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Dead letters of the processor's listeners go to <topic>.dlt. Single listeners leave that to the
+// container's error handler (KafkaErrorConfig); batch listeners skip undecodable values themselves, since
+// failing the poll would hold up every good record in it, and park them here with the same headers
+// DeadLetterPublishingRecoverer sets.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterPublisher {
+    public static final String DLT_SUFFIX = ".dlt";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    // Any partition: the DLTs have fewer partitions than the topics they collect from
+    public static TopicPartition destination(ConsumerRecord<?, ?> record, Exception e) {
+        return new TopicPartition(record.topic() + DLT_SUFFIX, -1);
+    }
+
+    public CompletableFuture<?> publish(String topic, byte[] value, Exception cause) {
+        log.error("Dead-lettering unreadable {} value: {}", topic, cause.getMessage());
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic + DLT_SUFFIX, value);
+        record.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, topic.getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, cause.getClass().getName().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+                        String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+
+    // Called before a batch listener returns, so its offsets are only committed once the dead letters are stored
+    public void await(List<CompletableFuture<?>> sent) throws Exception {
+        if (!sent.isEmpty()) {
+            CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package simulation.crawler.processor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import simulation.crawler.processor.entity.OutboxEvent;
+import simulation.crawler.processor.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Polling relay for outbox_events: claims a batch, hands every row to the producer (which batches them
+// under linger.ms), waits for all acks and only then commits the delete. Delivery is at-least-once.
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "processor.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Timer batchTimer;
+
+    @Value("${processor.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${processor.outbox.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository, KafkaTemplate<String, byte[]> kafkaTemplate,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.published = Counter.builder("processor.outbox.published")
+                .description("Outbox rows published to Kafka").register(meterRegistry);
+        this.batchTimer = Timer.builder("processor.outbox.relay.batch")
+                .description("Claim, publish and delete time per relay batch").register(meterRegistry);
+        Gauge.builder("processor.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows waiting to be relayed (estimated from the id range)").register(meterRegistry);
+        Gauge.builder("processor.outbox.lag", lagMillis, value -> value.get() / 1000.0).baseUnit("seconds")
+                .description("Age of the oldest unrelayed outbox row").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${processor.outbox.relay.poll-interval-ms:100}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay batch failed, rows stay queued for the next poll: {}", e.getMessage(), e);
+        } finally {
+            refreshLag();
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.claimBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+        }
+        try {
+            // Any failed send throws here and rolls back the delete, so the whole batch is retried
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox publish failed: " + e.getMessage(), e);
+        }
+
+        published.increment(batch.size());
+        log.debug("Relayed {} outbox events (oldest id {})", batch.size(), batch.get(0).getId());
+        return batch.size();
+    }
+
+    private void refreshLag() {
+        try {
+            pending.set(outboxRepository.estimatePending());
+            lagMillis.set(outboxRepository.oldestCreatedAt()
+                    .map(createdAt -> Math.max(0, Duration.between(createdAt, Instant.now()).toMillis()))
+                    .orElse(0L));
+        } catch (Exception e) {
+            log.warn("Could not refresh outbox lag: {}", e.getMessage());
+        }
+    }
+}
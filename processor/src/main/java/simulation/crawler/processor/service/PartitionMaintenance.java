@@ -0,0 +1,129 @@
+package simulation.crawler.processor.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import simulation.crawler.processor.repository.CrawlProgressRepository;
+import simulation.crawler.processor.repository.PartitionRepository;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Keeps weekly crawl_records partitions ready partitions-ahead weeks beyond the current one, and with a
+// retention set, retires whole weeks: their crawl_urls entries are removed, then the partition is dropped,
+// which costs the same however many records it holds. Runs at startup and every maintenance interval; an
+// advisory lock keeps concurrent instances from doing the same work twice.
+@Service
+@Slf4j
+public class PartitionMaintenance {
+    private final PartitionRepository partitionRepository;
+    private final CrawlProgressRepository progressRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${processor.storage.partitions-ahead:4}")
+    private int partitionsAhead;
+
+    // Zero keeps every partition
+    @Value("${processor.storage.retention:0d}")
+    private Duration retention;
+
+    public PartitionMaintenance(PartitionRepository partitionRepository, CrawlProgressRepository progressRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.partitionRepository = partitionRepository;
+        this.progressRepository = progressRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${processor.storage.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        Instant now = Instant.now();
+        try {
+            ensurePartitions(now, now.plus(Duration.ofDays(7L * partitionsAhead)));
+        } catch (Exception e) {
+            log.error("Creating crawl_records partitions failed, new weeks fall into the default partition: {}",
+                    e.getMessage(), e);
+        }
+        if (retention.isZero() || retention.isNegative()) {
+            return;
+        }
+        try {
+            dropBefore(now.minus(retention));
+        } catch (Exception e) {
+            log.error("Dropping expired crawl_records partitions failed, retrying next run: {}", e.getMessage(), e);
+        }
+    }
+
+    // Creates the missing partitions for every week from the one holding 'from' through the one holding 'to'.
+    // Waits for another instance's maintenance instead of skipping, so the weeks exist once this returns.
+    public List<String> ensurePartitions(Instant from, Instant to) {
+        List<String> created = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            partitionRepository.lock();
+            Set<String> existing = new HashSet<>();
+            partitionRepository.list().forEach(partition -> existing.add(partition.name()));
+            for (LocalDate week = weekOf(from); !week.isAfter(weekOf(to)); week = week.plusWeeks(1)) {
+                String name = PartitionRepository.nameOf(week);
+                if (!existing.contains(name)) {
+                    partitionRepository.create(week);
+                    created.add(name);
+                }
+            }
+        });
+        if (!created.isEmpty()) {
+            log.info("Created crawl_records partitions {}", created);
+        }
+        return created;
+    }
+
+    // Retires every week that ended before the cutoff, along with the default partition's rows and the
+    // progress of processes from that time. The week holding the cutoff is kept whole.
+    public List<String> dropBefore(Instant cutoff) {
+        Instant boundary = weekOf(cutoff).atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<String> dropped = new ArrayList<>();
+        for (PartitionRepository.Partition partition : partitionRepository.list()) {
+            if (partition.upperBound() == null || partition.upperBound().isAfter(boundary)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            Integer urls = transactionTemplate.execute(status -> partitionRepository.tryLock()
+                    ? partitionRepository.forgetUrls(partition.name()) : null);
+            boolean done = urls != null && Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!partitionRepository.tryLock()) {
+                    return false;
+                }
+                partitionRepository.drop(partition.name());
+                return true;
+            }));
+            if (!done) {
+                // Another instance holds the lock; this partition is handled then or by the next run
+                return dropped;
+            }
+            dropped.add(partition.name());
+            log.info("Dropped crawl_records partition {} ({} URLs) in {}ms", partition.name(), urls,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        int defaultRows = transactionTemplate.execute(status -> partitionRepository.deleteDefaultBefore(boundary));
+        int processes = progressRepository.deleteIdleBefore(boundary);
+        if (defaultRows > 0 || processes > 0) {
+            log.info("Retention removed {} default-partition records and {} idle processes before {}", defaultRows,
+                    processes, boundary);
+        }
+        return dropped;
+    }
+
+    // Partitions run Monday to Monday, UTC
+    private static LocalDate weekOf(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
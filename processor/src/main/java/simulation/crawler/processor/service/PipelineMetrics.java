@@ -0,0 +1,90 @@
+package simulation.crawler.processor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Meters of the processor's two listeners. Hop latency is how long a record sat in its topic (producer
+// timestamp to poll), so consumer lag shows up as time next to the record counts the Kafka client reports.
+// Pipeline latency runs from generation at url.discovery to the COMPLETED result; it is exported without a
+// process tag to keep the series count fixed, per-process percentiles come from /records/{id}/latency.
+@Component
+public class PipelineMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> hopLatency = new ConcurrentHashMap<>();
+    private final Counter ingestMessages;
+    private final Counter ingestInserted;
+    private final Timer ingestDb;
+    private final Counter resultMessages;
+    private final Counter resultsUpdated;
+    private final Timer resultsDb;
+    private final Counter resultsUnchanged;
+    private final Counter recrawlsScheduled;
+    private final Timer completionLatency;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ingestMessages = Counter.builder("processor.ingest.messages")
+                .description("Discovery events consumed").register(meterRegistry);
+        this.ingestInserted = Counter.builder("processor.ingest.inserted")
+                .description("Discovery events that created a record").register(meterRegistry);
+        this.ingestDb = Timer.builder("processor.ingest.db")
+                .description("Database time per ingested poll or message").register(meterRegistry);
+        this.resultMessages = Counter.builder("processor.results.messages")
+                .description("Fetcher results consumed").register(meterRegistry);
+        this.resultsUpdated = Counter.builder("processor.results.updated")
+                .description("Records updated from fetcher results").register(meterRegistry);
+        this.resultsDb = Timer.builder("processor.results.db")
+                .description("Database time per result poll or message").register(meterRegistry);
+        this.resultsUnchanged = Counter.builder("processor.results.unchanged")
+                .description("Recrawl results that left the stored page as it was").register(meterRegistry);
+        this.recrawlsScheduled = Counter.builder("processor.recrawl.scheduled")
+                .description("Due records put back on the outbox for a recrawl").register(meterRegistry);
+        this.completionLatency = Timer.builder("crawler.pipeline.latency")
+                .description("Discovery to COMPLETED, per record")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void hop(ConsumerRecord<?, ?> record) {
+        if (record.timestamp() < 0) {
+            return;
+        }
+        hopLatency.computeIfAbsent(record.topic(), topic -> Timer.builder("crawler.hop.latency")
+                        .description("Producer timestamp to consumer poll")
+                        .tag("topic", topic)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+    }
+
+    public void ingested(int messages, int inserted, long dbNanos) {
+        ingestMessages.increment(messages);
+        ingestInserted.increment(inserted);
+        ingestDb.record(dbNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void resultsApplied(int messages, int updated, long dbNanos) {
+        resultMessages.increment(messages);
+        resultsUpdated.increment(updated);
+        resultsDb.record(dbNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void resultsUnchanged(int unchanged) {
+        resultsUnchanged.increment(unchanged);
+    }
+
+    public void recrawlsScheduled(int scheduled) {
+        recrawlsScheduled.increment(scheduled);
+    }
+
+    public void completed(long latencyMillis) {
+        completionLatency.record(Math.max(0, latencyMillis), TimeUnit.MILLISECONDS);
+    }
+}
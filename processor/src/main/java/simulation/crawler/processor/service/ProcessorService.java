@@ -3,86 +3,323 @@ package simulation.crawler.processor.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import simulation.crawler.processor.cache.ProcessRecordCache;
+import simulation.crawler.processor.codec.EventCodec;
+import simulation.crawler.processor.dedup.UrlDedupFilter;
 import simulation.crawler.processor.dto.*;
-import simulation.crawler.processor.entity.CrawlRecord;
-import simulation.crawler.processor.repository.CrawlRecordRepository;
+import simulation.crawler.processor.entity.OutboxEvent;
+import simulation.crawler.processor.recrawl.RecrawlPolicy;
+import simulation.crawler.processor.repository.CrawlProgressRepository;
+import simulation.crawler.processor.repository.CrawlRecordBatchRepository;
+import simulation.crawler.processor.repository.OutboxEventRepository;
+import simulation.crawler.processor.util.ContentHash;
+import simulation.crawler.processor.util.UrlCanonicalizer;
+import simulation.crawler.processor.util.UrlFingerprint;
+import simulation.crawler.processor.util.UrlLogSampler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProcessorService {
-    private final CrawlRecordRepository repository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    // Set by url.discovery when the URL is generated, as epoch millis in decimal
+    static final String DISCOVERED_AT_HEADER = "crawler-discovered-at";
+
+    private final CrawlRecordBatchRepository batchRepository;
+    private final OutboxEventRepository outboxRepository;
+    private final CrawlProgressRepository progressRepository;
+    private final UrlDedupFilter dedupFilter;
+    private final ProcessRecordCache recordCache;
+    private final EventCodec codec;
+    private final DeadLetterPublisher deadLetters;
+    private final PipelineMetrics metrics;
+    private final UrlLogSampler logSampler;
+    private final RecrawlPolicy recrawlPolicy;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @KafkaListener(topics = "discovery.urls", groupId = "processor-group")
+    @KafkaListener(topics = "discovery.urls", groupId = "processor-group",
+            concurrency = "${processor.ingest.concurrency:3}",
+            autoStartup = "#{'${processor.ingest.mode:batch}' == 'single'}")
     @Transactional
-    public void consumeDiscovery(String message) {
+    public void consumeDiscovery(ConsumerRecord<String, byte[]> message) throws Exception {
+        // Exceptions reach the container's error handler: retried with backoff, then sent to discovery.urls.dlt
+        metrics.hop(message);
+        DiscoveryEvent event = decodeDiscoveryEvent(message);
+        DiscoveryTally tally = new DiscoveryTally(event.getProcessId(), expectedOf(event));
+        tally.consumed(message.partition(), message.offset());
         try {
-            DiscoveryEvent event = objectMapper.readValue(message, DiscoveryEvent.class);
-            log.info("Received discovery event for URL: {}", event.getUrl());
-
-            if (repository.findByUrl(event.getUrl()).isEmpty()) {
-                CrawlRecord record = CrawlRecord.builder()
-                        .url(event.getUrl())
-                        .processId(event.getProcessId())
-                        .status("PENDING")
-                        .build();
-                repository.save(record);
-                log.info("Successfully saved new discovery record to DB: {}", event.getUrl());
-
-                // Simulated Outbox: Publish to 'processor.outbox.urls'
-                // This follows the architectural detail in dev_detail.md
-                kafkaTemplate.send("processor.outbox.urls", message);
-                log.info("Published to outbox for URL: {}", event.getUrl());
-            } else {
-                log.warn("Duplicate URL detected, skipping: {}", event.getUrl());
-            }
+            resolve(event, message);
         } catch (Exception e) {
-            log.error("Error processing discovery event: {}", e.getMessage(), e);
+            // Counted as discovered like any other event, or its process could never complete
+            progressRepository.recordDiscovery(List.of(tally));
+            deadLetters.await(List.of(deadLetters.publish("discovery.urls", message.value(), e)));
+            return;
+        }
+        long dbStart = System.nanoTime();
+
+        // Only URLs the dedup filter cannot rule out pay for the lookup against the crawl_urls key.
+        // The conflict-safe insert still guards against URLs inserted by other processor instances.
+        boolean possibleDuplicate = dedupFilter.mightContain(event.getUrlHash());
+        Instant discoveredAt = possibleDuplicate && batchRepository.isKnown(event.getUrlHash()) ? null
+                : batchRepository.insertPending(List.of(event)).get(event.getUrlHash());
+        boolean inserted = discoveredAt != null;
+        if (inserted) {
+            tally.inserted(discoveredAt);
+        }
+        progressRepository.recordDiscovery(List.of(tally));
+        if (!inserted) {
+            metrics.ingested(1, 0, System.nanoTime() - dbStart);
+            if (logSampler.sampled(log, event.getUrl())) {
+                log.debug("Duplicate URL skipped: {}", event.getUrl());
+            }
+            return;
+        }
+        dedupFilter.put(event.getUrlHash());
+        if (possibleDuplicate) {
+            dedupFilter.recordFalsePositive();
+        }
+
+        // Outbox row commits atomically with the record; OutboxRelay publishes it to 'processor.outbox.urls'
+        outboxRepository.append(List.of(toOutboxEvent(event)));
+        recordCache.invalidateAfterCommit(List.of(event.getProcessId()));
+        metrics.ingested(1, 1, System.nanoTime() - dbStart);
+        if (logSampler.sampled(log, event.getUrl())) {
+            log.debug("Saved discovery record and queued outbox event for URL: {}", event.getUrl());
         }
     }
 
-    @KafkaListener(topics = "fetcher.results", groupId = "processor-group")
+    @KafkaListener(topics = "discovery.urls", groupId = "processor-group", batch = "true",
+            concurrency = "${processor.ingest.concurrency:3}",
+            autoStartup = "#{'${processor.ingest.mode:batch}' == 'batch'}")
     @Transactional
-    public void consumeResults(String message) {
-        try {
-            FetcherResult result = objectMapper.readValue(message, FetcherResult.class);
-            log.info("Received result for URL: {}, Success: {}", result.getUrl(), result.getSuccess());
-
-            repository.findByUrl(result.getUrl()).ifPresentOrElse(record -> {
-                record.setStatus(result.getSuccess() ? "COMPLETED" : "FAILED");
-
-                try {
-                    if (result.getParsingData() != null) {
-                        record.setParsingData(objectMapper.readValue(result.getParsingData(), ParserData.class));
-                    }
-                    if (result.getSensorData() != null) {
-                        if (result.getSensorData().startsWith("{")) {
-                            record.setSensorData(objectMapper.readValue(result.getSensorData(), SensorData.class));
-                        } else {
-                            SensorData errorData = new SensorData();
-                            errorData.setErrorMessage(result.getSensorData());
-                            record.setSensorData(errorData);
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Could not parse enrichment data for {}: {}", result.getUrl(), e.getMessage());
-                }
-
-                record.setCensored(result.getCensored());
-                repository.save(record);
-                log.info("Successfully updated record for URL: {} with status: {}", result.getUrl(),
-                        record.getStatus());
-            }, () -> {
-                log.error("Received result for unknown URL: {}", result.getUrl());
-            });
-        } catch (Exception e) {
-            log.error("Error processing fetcher result: {}", e.getMessage(), e);
+    public void consumeDiscoveryBatch(List<ConsumerRecord<String, byte[]>> messages) throws Exception {
+        long start = System.nanoTime();
+
+        // Dedup within the poll first; the first event seen for a fingerprint is the one forwarded to the outbox
+        Map<Long, DiscoveryEvent> eventsByHash = new LinkedHashMap<>();
+        Set<Long> possibleDuplicates = new HashSet<>();
+        Map<Long, DiscoveryTally> tallies = new HashMap<>();
+        List<CompletableFuture<?>> deadLettered = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> message : messages) {
+            metrics.hop(message);
+            DiscoveryEvent event;
+            try {
+                event = decodeDiscoveryEvent(message);
+            } catch (Exception e) {
+                // Not attributable to any process, so not counted anywhere
+                deadLettered.add(deadLetters.publish("discovery.urls", message.value(), e));
+                continue;
+            }
+            tallies.computeIfAbsent(event.getProcessId(), processId -> new DiscoveryTally(processId, expectedOf(event)))
+                    .consumed(message.partition(), message.offset());
+            try {
+                resolve(event, message);
+            } catch (Exception e) {
+                // Counted as discovered like any other event, or its process could never complete
+                deadLettered.add(deadLetters.publish("discovery.urls", message.value(), e));
+                continue;
+            }
+            if (eventsByHash.putIfAbsent(event.getUrlHash(), event) == null
+                    && dedupFilter.mightContain(event.getUrlHash())) {
+                possibleDuplicates.add(event.getUrlHash());
+            }
+        }
+
+        // Database errors propagate so the container's error handler redelivers the whole batch
+        long dbStart = System.nanoTime();
+        Map<Long, Instant> inserted = batchRepository.insertPending(new ArrayList<>(eventsByHash.values()));
+        List<OutboxEvent> outbox = new ArrayList<>(inserted.size());
+        for (Map.Entry<Long, Instant> record : inserted.entrySet()) {
+            Long urlHash = record.getKey();
+            dedupFilter.put(urlHash);
+            if (possibleDuplicates.contains(urlHash)) {
+                dedupFilter.recordFalsePositive();
+            }
+            DiscoveryEvent event = eventsByHash.get(urlHash);
+            tallies.get(event.getProcessId()).inserted(record.getValue());
+            outbox.add(toOutboxEvent(event));
+        }
+        outboxRepository.append(outbox);
+        progressRepository.recordDiscovery(tallies.values());
+        if (!inserted.isEmpty()) {
+            // Only the last page of a process can gain records; all of its pages share one version
+            recordCache.invalidateAfterCommit(tallies.keySet());
+        }
+        metrics.ingested(messages.size(), inserted.size(), System.nanoTime() - dbStart);
+        deadLetters.await(deadLettered);
+
+        log.debug("Ingested discovery batch: {} messages, {} unique, {} new in {}ms", messages.size(),
+                eventsByHash.size(), inserted.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private DiscoveryEvent decodeDiscoveryEvent(ConsumerRecord<String, byte[]> message) throws Exception {
+        DiscoveryEvent event = codec.decodeDiscovery(message.value());
+        if (event.getProcessId() == null) {
+            throw new IOException("Discovery event without a processId");
+        }
+        return event;
+    }
+
+    private void resolve(DiscoveryEvent event, ConsumerRecord<String, byte[]> message) {
+        if (event.getUrl() == null || event.getUrl().isBlank()) {
+            throw new IllegalArgumentException("Discovery event without a URL for process " + event.getProcessId());
+        }
+        event.setUrl(UrlCanonicalizer.canonicalize(event.getUrl()));
+        event.setUrlHash(UrlFingerprint.of(event.getUrl()));
+        event.setDiscoveredAt(discoveredAt(message));
+    }
+
+    // Events from producers that do not set the header are timed from their Kafka timestamp instead
+    private static Long discoveredAt(ConsumerRecord<String, byte[]> message) {
+        Header header = message.headers().lastHeader(DISCOVERED_AT_HEADER);
+        if (header != null) {
+            try {
+                return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed {} header on {}", DISCOVERED_AT_HEADER, message.topic());
+            }
         }
+        return message.timestamp() < 0 ? null : message.timestamp();
+    }
+
+    private static Long expectedOf(DiscoveryEvent event) {
+        return event.getProcessSize() == null ? null : event.getProcessSize().longValue();
+    }
+
+    // Records that ended FAILED, i.e. whose URL the fetcher dead-lettered, get a fresh retry budget: they go
+    // back to PENDING and onto the outbox, so the fetcher takes them as first attempts again
+    @Transactional
+    public int requeueFailed(long processId, int limit) throws Exception {
+        List<DiscoveryEvent> requeued = batchRepository.requeueFailed(processId, limit);
+        List<OutboxEvent> outbox = new ArrayList<>(requeued.size());
+        for (DiscoveryEvent event : requeued) {
+            outbox.add(toOutboxEvent(event));
+        }
+        outboxRepository.append(outbox);
+        if (!requeued.isEmpty()) {
+            recordCache.invalidateAfterCommit(List.of(processId));
+        }
+        log.info("Requeued {} failed records of process {}", requeued.size(), processId);
+        return requeued.size();
+    }
+
+    // Due records go onto the outbox like new URLs; they stay COMPLETED with their current page until the
+    // recrawl's result arrives, so progress counters and cached pages are not touched here
+    @Transactional
+    public int enqueueDueRecrawls(int limit, long leaseMillis) throws Exception {
+        List<DiscoveryEvent> due = batchRepository.claimDueRecrawls(limit, leaseMillis);
+        List<OutboxEvent> outbox = new ArrayList<>(due.size());
+        for (DiscoveryEvent event : due) {
+            outbox.add(toOutboxEvent(event));
+        }
+        outboxRepository.append(outbox);
+        metrics.recrawlsScheduled(due.size());
+        return due.size();
+    }
+
+    private OutboxEvent toOutboxEvent(DiscoveryEvent event) throws Exception {
+        return OutboxEvent.builder()
+                .topic("processor.outbox.urls")
+                .messageKey(UrlFingerprint.key(event.getUrlHash()))
+                .payload(codec.encodeUrlCreated(event))
+                .build();
+    }
+
+    @KafkaListener(topics = "fetcher.results", groupId = "processor-group",
+            concurrency = "${processor.results.concurrency:3}",
+            autoStartup = "#{'${processor.results.mode:batch}' == 'single'}")
+    @Transactional
+    public void consumeResults(ConsumerRecord<String, byte[]> message) throws Exception {
+        // Exceptions reach the container's error handler: retried with backoff, then sent to fetcher.results.dlt
+        metrics.hop(message);
+        FetcherResult result = codec.decodeResult(message.value());
+        ResultUpdate update = toResultUpdate(result);
+        long dbStart = System.nanoTime();
+
+        // The batch statement with a single row: records are found through crawl_urls, and the recrawl rules and
+        // progress deltas are the same in both modes
+        AppliedResults applied = batchRepository.applyResults(List.of(update), metrics::completed);
+        metrics.resultsApplied(1, applied.changed(), System.nanoTime() - dbStart);
+        metrics.resultsUnchanged(applied.getUnchanged());
+        recordCache.invalidateAfterCommit(applied.getChangedByProcess().keySet());
+        if (applied.changed() + applied.getUnchanged() == 0) {
+            log.error("Received result for unknown URL: {}", result.getUrl());
+        } else if (logSampler.sampled(log, result.getUrl())) {
+            log.debug("Applied {} result for URL: {}{}", update.getStatus(), result.getUrl(),
+                    applied.getUnchanged() > 0 ? " (stored page kept)" : "");
+        }
+    }
+
+    @KafkaListener(topics = "fetcher.results", groupId = "processor-group", batch = "true",
+            concurrency = "${processor.results.concurrency:3}",
+            autoStartup = "#{'${processor.results.mode:batch}' == 'batch'}")
+    @Transactional
+    public void consumeResultsBatch(List<ConsumerRecord<String, byte[]>> messages) throws Exception {
+        long start = System.nanoTime();
+
+        // Later results for the same URL within a poll win, as they would with per-message updates
+        Map<Long, ResultUpdate> updatesByHash = new LinkedHashMap<>();
+        List<CompletableFuture<?>> deadLettered = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> message : messages) {
+            metrics.hop(message);
+            try {
+                FetcherResult result = codec.decodeResult(message.value());
+                ResultUpdate update = toResultUpdate(result);
+                updatesByHash.put(update.getUrlHash(), update);
+            } catch (Exception e) {
+                deadLettered.add(deadLetters.publish("fetcher.results", message.value(), e));
+            }
+        }
+
+        long dbStart = System.nanoTime();
+        AppliedResults applied = batchRepository.applyResults(new ArrayList<>(updatesByHash.values()),
+                metrics::completed);
+        int updated = applied.changed();
+        metrics.resultsApplied(messages.size(), updated, System.nanoTime() - dbStart);
+        metrics.resultsUnchanged(applied.getUnchanged());
+        // Unchanged recrawls only moved crawl times, which no cached page shows
+        recordCache.invalidateAfterCommit(applied.getChangedByProcess().keySet());
+        deadLetters.await(deadLettered);
+        if (updated + applied.getUnchanged() < updatesByHash.size()) {
+            log.error("Received results for {} unknown URLs", updatesByHash.size() - updated - applied.getUnchanged());
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        log.debug("Applied result batch: {} messages, {} rows updated, {} unchanged in {}ms ({} rows/s)",
+                messages.size(), updated, applied.getUnchanged(), elapsedNanos / 1_000_000,
+                Math.round(updated * 1e9 / elapsedNanos));
+    }
+
+    // The decoded payloads are written once as JSON text and cast to jsonb in the bulk update
+    private ResultUpdate toResultUpdate(FetcherResult result) throws Exception {
+        String parsingData = result.getParsingData() == null ? null
+                : objectMapper.writeValueAsString(result.getParsingData());
+        String sensorData = result.getSensorData() == null ? null
+                : objectMapper.writeValueAsString(result.getSensorData());
+
+        String url = UrlCanonicalizer.canonicalize(result.getUrl());
+        boolean success = Boolean.TRUE.equals(result.getSuccess());
+        Long recrawlMillis = success
+                ? recrawlPolicy.recrawlMillis(url, result.getParsingData() == null ? null
+                        : result.getParsingData().getPopularity())
+                : recrawlPolicy.retryMillis();
+        return new ResultUpdate(UrlFingerprint.of(url), success ? "COMPLETED" : "FAILED", parsingData, sensorData,
+                result.getCensored(), result.getAttempts(), ContentHash.of(result.getParsingData()), recrawlMillis);
     }
 }
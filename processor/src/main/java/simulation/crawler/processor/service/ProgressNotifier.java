@@ -0,0 +1,93 @@
+package simulation.crawler.processor.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import simulation.crawler.processor.dto.ProcessProgress;
+import simulation.crawler.processor.entity.CrawlProgress;
+import simulation.crawler.processor.repository.CrawlProgressRepository;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Server-sent progress updates. All subscribers share one poll of crawl_progress per interval (a single
+// primary-key lookup for every watched process), and an event is only pushed when the row changed.
+// A final "complete" event is sent once the process is done, after which the stream is closed.
+@Service
+@Slf4j
+public class ProgressNotifier {
+    private final CrawlProgressRepository progressRepository;
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> lastPushed = new ConcurrentHashMap<>();
+
+    @Value("${processor.progress.stream-timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    public ProgressNotifier(CrawlProgressRepository progressRepository, MeterRegistry meterRegistry) {
+        this.progressRepository = progressRepository;
+        Gauge.builder("processor.progress.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(List::size).sum())
+                .description("Open progress streams").register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long processId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        emitter.onCompletion(() -> unsubscribe(processId, emitter));
+        emitter.onTimeout(() -> unsubscribe(processId, emitter));
+        emitter.onError(ex -> unsubscribe(processId, emitter));
+        subscribers.computeIfAbsent(processId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+
+        // The current state goes out right away; later events only follow changes
+        progressRepository.find(processId).ifPresent(progress -> send(emitter, ProcessProgress.from(progress)));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${processor.progress.push-interval-ms:500}")
+    public void push() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (CrawlProgress progress : progressRepository.findAll(List.copyOf(subscribers.keySet()))) {
+            if (progress.getUpdatedAt().equals(lastPushed.put(progress.getProcessId(), progress.getUpdatedAt()))) {
+                continue;
+            }
+            ProcessProgress view = ProcessProgress.from(progress);
+            for (SseEmitter emitter : subscribers.getOrDefault(progress.getProcessId(), List.of())) {
+                send(emitter, view);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, ProcessProgress progress) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(progress));
+            if (progress.isDone()) {
+                emitter.send(SseEmitter.event().name("complete").data(progress));
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the completion callback removes the emitter
+            log.debug("Dropping progress stream for process {}: {}", progress.getProcessId(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(long processId, SseEmitter emitter) {
+        subscribers.computeIfPresent(processId, (id, emitters) -> {
+            emitters.remove(emitter);
+            if (emitters.isEmpty()) {
+                lastPushed.remove(id);
+                return null;
+            }
+            return emitters;
+        });
+    }
+}
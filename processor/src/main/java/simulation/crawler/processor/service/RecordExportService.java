@@ -0,0 +1,59 @@
+package simulation.crawler.processor.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import simulation.crawler.processor.dto.CrawlRecordView;
+import simulation.crawler.processor.repository.CrawlRecordQueryRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Writes a process's records as newline-delimited JSON straight from a database cursor. Rows are
+// serialized as they are fetched, so memory stays at one fetch-size window regardless of process size.
+@Service
+@Slf4j
+public class RecordExportService {
+    private final CrawlRecordQueryRepository queryRepository;
+    private final ObjectWriter writer;
+
+    @Value("${processor.records.export-fetch-size:1000}")
+    private int fetchSize;
+
+    public RecordExportService(CrawlRecordQueryRepository queryRepository, ObjectMapper objectMapper) {
+        this.queryRepository = queryRepository;
+        this.writer = objectMapper.writerFor(CrawlRecordView.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(long processId, boolean includeData, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long[] rows = {0};
+        try (SequenceWriter records = writer.writeValues(out)) {
+            queryRepository.streamAll(processId, includeData, fetchSize, view -> {
+                try {
+                    records.write(view);
+                    rows[0]++;
+                } catch (IOException e) {
+                    // Client disconnected; abort the cursor instead of reading the rest of the process
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (rows[0] > 0) {
+            out.write('\n');
+        }
+        log.info("Exported {} records for process {} in {}ms", rows[0], processId,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,32 @@
+package simulation.crawler.processor.util;
+
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+import simulation.crawler.processor.dto.ParserData;
+
+import java.nio.charset.StandardCharsets;
+
+// 64-bit xxHash of what a page says: title, meta tags, meta description and normalized text. Size and
+// popularity are measurements of the page rather than its content and are left out, so a recrawl that
+// only sees them move still counts as unchanged.
+public final class ContentHash {
+    private static final XXHash64 XX_HASH_64 = XXHashFactory.fastestInstance().hash64();
+    private static final long SEED = 0L;
+
+    private ContentHash() {
+    }
+
+    public static Long of(ParserData data) {
+        if (data == null) {
+            return null;
+        }
+        StringBuilder content = new StringBuilder(256);
+        // NUL separators keep "ab" + "c" apart from "a" + "bc"
+        content.append(data.getPageTitle()).append('\0')
+                .append(data.getPageMetaTags()).append('\0')
+                .append(data.getPageMetaDescription()).append('\0')
+                .append(data.getNormalizedContents());
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        return XX_HASH_64.hash(bytes, 0, bytes.length, SEED);
+    }
+}
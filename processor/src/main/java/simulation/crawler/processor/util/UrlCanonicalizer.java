@@ -0,0 +1,76 @@
+package simulation.crawler.processor.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Canonical form used for dedup, fingerprints and Kafka keys: lower-case scheme and host, no default
+// port, no fragment, "/" for an empty path and query parameters sorted. Strings without a scheme are
+// returned trimmed but otherwise untouched. Must stay identical in discovery, processor and fetcher.
+public final class UrlCanonicalizer {
+
+    private UrlCanonicalizer() {
+    }
+
+    public static String canonicalize(String url) {
+        if (url == null) {
+            return null;
+        }
+        String value = url.trim();
+        int schemeEnd = value.indexOf("://");
+        if (schemeEnd <= 0) {
+            return value;
+        }
+        String scheme = value.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < value.length() && "/?#".indexOf(value.charAt(authorityEnd)) < 0) {
+            authorityEnd++;
+        }
+        String authority = value.substring(authorityStart, authorityEnd);
+        int at = authority.lastIndexOf('@');
+        String userInfo = authority.substring(0, at + 1);
+        String host = authority.substring(at + 1);
+        String port = null;
+        int colon = host.lastIndexOf(':');
+        if (colon >= 0 && host.indexOf(']', colon) < 0) {
+            port = host.substring(colon + 1);
+            host = host.substring(0, colon);
+        }
+        if (port != null && (port.isEmpty() || isDefaultPort(scheme, port))) {
+            port = null;
+        }
+
+        String rest = value.substring(authorityEnd);
+        int fragment = rest.indexOf('#');
+        if (fragment >= 0) {
+            rest = rest.substring(0, fragment);
+        }
+        int queryStart = rest.indexOf('?');
+        String path = queryStart >= 0 ? rest.substring(0, queryStart) : rest;
+        String query = queryStart >= 0 ? rest.substring(queryStart + 1) : "";
+
+        StringBuilder canonical = new StringBuilder(value.length());
+        canonical.append(scheme).append("://").append(userInfo).append(host.toLowerCase(Locale.ROOT));
+        if (port != null) {
+            canonical.append(':').append(port);
+        }
+        canonical.append(path.isEmpty() ? "/" : path);
+        appendSortedQuery(canonical, query);
+        return canonical.toString();
+    }
+
+    private static void appendSortedQuery(StringBuilder canonical, String query) {
+        if (query.isEmpty()) {
+            return;
+        }
+        String[] params = Arrays.stream(query.split("&")).filter(p -> !p.isEmpty()).sorted().toArray(String[]::new);
+        for (int i = 0; i < params.length; i++) {
+            canonical.append(i == 0 ? '?' : '&').append(params[i]);
+        }
+    }
+
+    private static boolean isDefaultPort(String scheme, String port) {
+        return ("http".equals(scheme) && "80".equals(port)) || ("https".equals(scheme) && "443".equals(port));
+    }
+}
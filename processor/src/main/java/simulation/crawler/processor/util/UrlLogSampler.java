@@ -0,0 +1,22 @@
+package simulation.crawler.processor.util;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Per-URL debug lines are written for crawler.logging.sample-rate of URLs, picked by URL hash. The other
+// services use the same rule, so a sampled URL shows up in every service's log.
+@Component
+public class UrlLogSampler {
+    private static final int BUCKETS = 10_000;
+
+    private final int threshold;
+
+    public UrlLogSampler(@Value("${crawler.logging.sample-rate:0.01}") double sampleRate) {
+        this.threshold = (int) Math.round(Math.max(0, Math.min(1, sampleRate)) * BUCKETS);
+    }
+
+    public boolean sampled(Logger log, String url) {
+        return log.isDebugEnabled() && url != null && Math.floorMod(url.hashCode(), BUCKETS) < threshold;
+    }
+}
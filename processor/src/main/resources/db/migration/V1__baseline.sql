@@ -0,0 +1,41 @@
+-- Schema as ddl-auto: update left it before migrations took over. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start from V2.
+
+CREATE TABLE crawl_records (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    url text NOT NULL,
+    url_hash bigint NOT NULL UNIQUE,
+    process_id bigint NOT NULL,
+    status varchar(255) NOT NULL,
+    parsing_data jsonb,
+    censored boolean,
+    attempts integer,
+    discovered_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    last_crawled_at timestamp(6) with time zone,
+    next_crawl_at timestamp(6) with time zone,
+    content_hash bigint,
+    sensor_data jsonb
+);
+
+CREATE INDEX idx_crawl_records_process_id_id ON crawl_records (process_id, id);
+CREATE INDEX idx_crawl_records_next_crawl_at ON crawl_records (next_crawl_at);
+
+CREATE TABLE crawl_progress (
+    process_id bigint PRIMARY KEY,
+    expected bigint,
+    discovered bigint NOT NULL,
+    total bigint NOT NULL,
+    completed bigint NOT NULL,
+    failed bigint NOT NULL,
+    censored bigint NOT NULL,
+    updated_at timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE outbox_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    topic varchar(255) NOT NULL,
+    message_key varchar(255),
+    payload bytea NOT NULL,
+    created_at timestamp(6) with time zone NOT NULL
+);
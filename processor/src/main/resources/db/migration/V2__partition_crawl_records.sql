@@ -0,0 +1,143 @@
+-- crawl_records becomes a table range-partitioned by week of discovered_at, so old crawls are retired by
+-- dropping whole partitions (PartitionMaintenance) instead of deleting rows. Existing rows are copied over;
+-- on a large table this migration takes as long as rewriting it once.
+--
+-- Uniqueness of url_hash cannot be enforced across partitions, so crawl_urls keeps one row per known URL.
+-- Its primary key is the dedup check, and its discovered_at routes results to the record's partition.
+--
+-- The fields that are read or filtered on most (popularity, contentSize, sslStatus, latencyMs) move out of
+-- the jsonb documents into typed columns; the read queries merge them back into the JSON they return.
+-- Fixed-width columns come first, widest first, so rows carry no alignment padding.
+
+SET LOCAL TIME ZONE 'UTC';
+
+-- baseline-on-migrate marks any existing schema as V1 without looking at it. Only a database last run by the
+-- release before migrations (ddl-auto: update) has the V1 schema; an older dev database or a hand-managed one
+-- may not. Stop before touching anything and name what is missing, instead of failing halfway through the copy.
+DO $$
+DECLARE
+    missing text;
+BEGIN
+    SELECT string_agg(format('%s.%s', r.table_name, r.column_name), ', ') INTO missing
+    FROM (VALUES ('crawl_records', 'id'), ('crawl_records', 'url'), ('crawl_records', 'url_hash'),
+                 ('crawl_records', 'process_id'), ('crawl_records', 'status'), ('crawl_records', 'parsing_data'),
+                 ('crawl_records', 'sensor_data'), ('crawl_records', 'censored'), ('crawl_records', 'attempts'),
+                 ('crawl_records', 'discovered_at'), ('crawl_records', 'finished_at'),
+                 ('crawl_records', 'last_crawled_at'), ('crawl_records', 'next_crawl_at'),
+                 ('crawl_records', 'content_hash'), ('crawl_progress', 'expected'), ('crawl_progress', 'discovered'),
+                 ('outbox_events', 'payload')) AS r(table_name, column_name)
+    WHERE NOT EXISTS (SELECT 1 FROM information_schema.columns c
+                      WHERE c.table_schema = current_schema() AND c.table_name = r.table_name
+                        AND c.column_name = r.column_name);
+    IF missing IS NOT NULL THEN
+        RAISE EXCEPTION 'Database is not at schema V1, missing: %', missing
+            USING HINT = 'Only databases last run by the release before Flyway can be baselined. Start that release '
+                || 'once against this database so ddl-auto adds the columns, or migrate into a new database.';
+    END IF;
+    IF EXISTS (SELECT 1 FROM crawl_records WHERE url_hash IS NULL) THEN
+        RAISE EXCEPTION 'Database is not at schema V1: crawl_records has rows without a url_hash'
+            USING HINT = 'These rows predate URL fingerprints. Delete them or migrate into a new database.';
+    END IF;
+END $$;
+
+-- Databases from before the Avro outbox still have a text payload; ddl-auto never converted it
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'outbox_events' AND column_name = 'payload') <> 'bytea' THEN
+        ALTER TABLE outbox_events ALTER COLUMN payload TYPE bytea USING convert_to(payload, 'UTF8');
+    END IF;
+END $$;
+
+-- Move the heap table and everything named after it out of the way
+ALTER TABLE crawl_records RENAME TO crawl_records_heap;
+DO $$
+DECLARE
+    pkey name;
+BEGIN
+    -- Looked up by type, since a hand-made primary key need not be called crawl_records_pkey
+    SELECT conname INTO pkey FROM pg_constraint
+    WHERE conrelid = 'crawl_records_heap'::regclass AND contype = 'p';
+    IF pkey IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE crawl_records_heap RENAME CONSTRAINT %I TO crawl_records_heap_pkey', pkey);
+    END IF;
+    IF pg_get_serial_sequence('crawl_records_heap', 'id') IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s RENAME TO crawl_records_heap_id_seq',
+                pg_get_serial_sequence('crawl_records_heap', 'id'));
+    END IF;
+END $$;
+-- Hand-managed databases may not have created these
+DROP INDEX IF EXISTS idx_crawl_records_process_id_id;
+DROP INDEX IF EXISTS idx_crawl_records_next_crawl_at;
+
+CREATE TABLE crawl_records (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    url_hash bigint NOT NULL,
+    process_id bigint NOT NULL,
+    content_hash bigint,
+    latency_ms bigint,
+    discovered_at timestamp(6) with time zone NOT NULL,
+    finished_at timestamp(6) with time zone,
+    last_crawled_at timestamp(6) with time zone,
+    next_crawl_at timestamp(6) with time zone,
+    popularity integer,
+    content_size integer,
+    attempts integer,
+    censored boolean,
+    status varchar(255) NOT NULL,
+    ssl_status varchar(255),
+    url text NOT NULL,
+    parsing_data jsonb,
+    sensor_data jsonb,
+    CONSTRAINT crawl_records_pkey PRIMARY KEY (id, discovered_at),
+    CONSTRAINT crawl_records_url_hash_discovered_at_key UNIQUE (url_hash, discovered_at)
+) PARTITION BY RANGE (discovered_at);
+
+-- Catches rows outside the weekly partitions, e.g. replayed events older than the first one.
+-- PartitionMaintenance moves its rows out when it creates the partition they belong to.
+CREATE TABLE crawl_records_default PARTITION OF crawl_records DEFAULT;
+
+CREATE INDEX idx_crawl_records_process_id_id ON crawl_records (process_id, id);
+-- Only records that are due at some point are indexed; PENDING and FAILED ones never are
+CREATE INDEX idx_crawl_records_next_crawl_at ON crawl_records (next_crawl_at) WHERE next_crawl_at IS NOT NULL;
+
+CREATE TABLE crawl_urls (
+    url_hash bigint PRIMARY KEY,
+    discovered_at timestamp(6) with time zone NOT NULL
+);
+
+-- One partition per ISO week (Monday 00:00 UTC) from the oldest record through next week
+DO $$
+DECLARE
+    week timestamptz;
+BEGIN
+    FOR week IN
+        SELECT generate_series(date_trunc('week', COALESCE(min(discovered_at), now())),
+                date_trunc('week', now()) + interval '1 week', interval '1 week')
+        FROM crawl_records_heap
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF crawl_records FOR VALUES FROM (%L) TO (%L)',
+                'crawl_records_p' || to_char(week, 'YYYYMMDD'), week, week + interval '1 week');
+    END LOOP;
+END $$;
+
+-- Records from before discovered_at was stored get their result time (or now) as partition key
+INSERT INTO crawl_records (id, url_hash, process_id, content_hash, latency_ms, discovered_at, finished_at,
+        last_crawled_at, next_crawl_at, popularity, content_size, attempts, censored, status, ssl_status, url,
+        parsing_data, sensor_data)
+SELECT id, url_hash, process_id, content_hash, (sensor_data ->> 'latencyMs')::bigint,
+       COALESCE(discovered_at, finished_at, now()), finished_at, last_crawled_at, next_crawl_at,
+       (parsing_data ->> 'popularity')::integer, (parsing_data ->> 'contentSize')::integer, attempts, censored,
+       status, sensor_data ->> 'sslStatus', url,
+       parsing_data - 'popularity' - 'contentSize', sensor_data - 'sslStatus' - 'latencyMs'
+FROM crawl_records_heap;
+
+INSERT INTO crawl_urls (url_hash, discovered_at)
+SELECT url_hash, discovered_at FROM crawl_records;
+
+SELECT setval(pg_get_serial_sequence('crawl_records', 'id'), COALESCE(max(id), 0) + 1, false) FROM crawl_records;
+
+DROP TABLE crawl_records_heap;
+
+ANALYZE crawl_records;
+ANALYZE crawl_urls;
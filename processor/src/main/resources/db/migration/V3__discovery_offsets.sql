@@ -0,0 +1,10 @@
+-- Where each process's discovery events have been counted up to, per discovery.urls partition. A redelivered
+-- poll carries the same offsets, so crawl_progress.discovered only grows by events past this point.
+-- Process ids are random, so the rows of a recreated topic never meet the offsets of an old one.
+
+CREATE TABLE discovery_offsets (
+    process_id bigint NOT NULL,
+    kafka_partition int NOT NULL,
+    next_offset bigint NOT NULL,
+    PRIMARY KEY (process_id, kafka_partition)
+);
@@ -0,0 +1,16 @@
+-- The discovered_at range of each process's records. A record never changes process or discovered_at, so the
+-- range only widens as records are inserted; the read queries bound discovered_at by it and only the weekly
+-- partitions the process was discovered in are scanned. Null while the process has no records.
+
+ALTER TABLE crawl_progress
+    ADD COLUMN discovered_from timestamp(6) with time zone,
+    ADD COLUMN discovered_to timestamp(6) with time zone;
+
+UPDATE crawl_progress p
+SET discovered_from = r.discovered_from, discovered_to = r.discovered_to
+FROM (
+    SELECT process_id, min(discovered_at) AS discovered_from, max(discovered_at) AS discovered_to
+    FROM crawl_records
+    GROUP BY process_id
+) r
+WHERE r.process_id = p.process_id;
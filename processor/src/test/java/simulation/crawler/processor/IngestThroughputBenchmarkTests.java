@@ -0,0 +1,189 @@
+package simulation.crawler.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import simulation.crawler.processor.service.ProcessorService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compares the per-message and batch ingest paths (discovery and fetcher results) against a real Postgres.
+// Run with: BENCH_DB_URL=jdbc:postgresql://localhost:5432/crawler_db ./mvnw test -Dtest=IngestThroughputBenchmarkTests
+// Optional: -Dbench.messages=20000 -Dbench.batch-size=500
+@SpringBootTest(properties = {
+        "spring.datasource.url=${BENCH_DB_URL}",
+        "spring.jpa.show-sql=false",
+        "processor.ingest.mode=none",
+        "processor.results.mode=none",
+        "processor.outbox.relay.enabled=false"
+})
+@EnabledIfEnvironmentVariable(named = "BENCH_DB_URL", matches = ".+")
+@Slf4j
+class IngestThroughputBenchmarkTests {
+    private static final int MESSAGES = Integer.getInteger("bench.messages", 20_000);
+    private static final int BATCH_SIZE = Integer.getInteger("bench.batch-size", 500);
+    private static final AtomicLong OFFSETS = new AtomicLong();
+
+    @Autowired
+    private ProcessorService processorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> processIds = new ArrayList<>();
+    private long outboxHighWater;
+
+    @Test
+    void comparePerMessageAndBatchIngest() throws Exception {
+        List<byte[]> single = discoveryMessages(MESSAGES);
+        long start = System.nanoTime();
+        for (byte[] message : single) {
+            processorService.consumeDiscovery(record(message));
+        }
+        double singleRate = MESSAGES / ((System.nanoTime() - start) / 1e9);
+
+        List<ConsumerRecord<String, byte[]>> batched = records(discoveryMessages(MESSAGES));
+        start = System.nanoTime();
+        for (int i = 0; i < batched.size(); i += BATCH_SIZE) {
+            processorService.consumeDiscoveryBatch(batched.subList(i, Math.min(i + BATCH_SIZE, batched.size())));
+        }
+        double batchRate = MESSAGES / ((System.nanoTime() - start) / 1e9);
+
+        log.info("ingest per-message: {} msg/s, batch({}): {} msg/s, speedup: {}x", Math.round(singleRate), BATCH_SIZE,
+                Math.round(batchRate), "%.1f".formatted(batchRate / singleRate));
+    }
+
+    @Test
+    void comparePerMessageAndBatchResults() throws Exception {
+        List<byte[]> single = discoveryMessages(MESSAGES);
+        List<byte[]> batched = discoveryMessages(MESSAGES);
+        List<ConsumerRecord<String, byte[]>> singleRecords = records(single);
+        List<ConsumerRecord<String, byte[]>> batchedRecords = records(batched);
+        for (int i = 0; i < MESSAGES; i += BATCH_SIZE) {
+            processorService.consumeDiscoveryBatch(singleRecords.subList(i, Math.min(i + BATCH_SIZE, MESSAGES)));
+            processorService.consumeDiscoveryBatch(batchedRecords.subList(i, Math.min(i + BATCH_SIZE, MESSAGES)));
+        }
+
+        List<byte[]> singleResults = resultMessages(single);
+        long start = System.nanoTime();
+        for (byte[] message : singleResults) {
+            processorService.consumeResults(record(message));
+        }
+        double singleRate = MESSAGES / ((System.nanoTime() - start) / 1e9);
+
+        List<ConsumerRecord<String, byte[]>> batchedResults = records(resultMessages(batched));
+        start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i += BATCH_SIZE) {
+            processorService.consumeResultsBatch(batchedResults.subList(i, Math.min(i + BATCH_SIZE, MESSAGES)));
+        }
+        double batchRate = MESSAGES / ((System.nanoTime() - start) / 1e9);
+
+        Integer completed = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM crawl_records WHERE process_id = ? AND status <> 'PENDING'", Integer.class,
+                processIds.get(processIds.size() - 1));
+        log.info("results per-message: {} msg/s, batch({}): {} msg/s, speedup: {}x ({} batch rows applied)",
+                Math.round(singleRate), BATCH_SIZE, Math.round(batchRate), "%.1f".formatted(batchRate / singleRate),
+                completed);
+
+        // Both paths maintain crawl_progress incrementally; the counters must match a full count of the records
+        for (Long processId : processIds) {
+            Map<String, Object> counted = jdbcTemplate.queryForMap("""
+                    SELECT count(*) AS total,
+                           count(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+                           count(*) FILTER (WHERE status = 'FAILED') AS failed
+                    FROM crawl_records WHERE process_id = ?""", processId);
+            Map<String, Object> tracked = jdbcTemplate.queryForMap(
+                    "SELECT total, completed, failed FROM crawl_progress WHERE process_id = ?", processId);
+            assertEquals(counted, tracked, "progress counters for process " + processId);
+        }
+    }
+
+    // Polls redelivered after their transaction committed, whole or overlapping, must leave discovered at one
+    // count per event so the process can complete
+    @Test
+    void redeliveredDiscoveryIsCountedOnce() throws Exception {
+        List<byte[]> messages = discoveryMessages(BATCH_SIZE);
+        long processId = processIds.get(processIds.size() - 1);
+        List<ConsumerRecord<String, byte[]>> records = records(messages);
+        List<ConsumerRecord<String, byte[]>> firstPoll = records.subList(0, records.size() / 2);
+
+        processorService.consumeDiscoveryBatch(firstPoll);
+        processorService.consumeDiscoveryBatch(records);
+        processorService.consumeDiscoveryBatch(records.subList(records.size() / 2, records.size()));
+        processorService.consumeDiscovery(records.get(0));
+
+        Map<String, Object> tracked = jdbcTemplate.queryForMap(
+                "SELECT discovered, total FROM crawl_progress WHERE process_id = ?", processId);
+        assertEquals(Map.of("discovered", (long) messages.size(), "total", (long) BATCH_SIZE), tracked);
+    }
+
+    @BeforeEach
+    void rememberOutboxPosition() {
+        // The relay is off, so every outbox row above this id was written by the benchmark
+        outboxHighWater = jdbcTemplate.queryForObject("SELECT COALESCE(max(id), 0) FROM outbox_events", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long processId : processIds) {
+            jdbcTemplate.update("DELETE FROM crawl_urls r USING crawl_records c "
+                    + "WHERE c.process_id = ? AND r.url_hash = c.url_hash AND r.discovered_at = c.discovered_at", processId);
+            jdbcTemplate.update("DELETE FROM crawl_records WHERE process_id = ?", processId);
+            jdbcTemplate.update("DELETE FROM crawl_progress WHERE process_id = ?", processId);
+            jdbcTemplate.update("DELETE FROM discovery_offsets WHERE process_id = ?", processId);
+        }
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE id > ?", outboxHighWater);
+    }
+
+    // Discovery events carry the generation time like those from url.discovery, so the latency path is exercised.
+    // Offsets grow like a partition's would; progress counts each one once.
+    private static ConsumerRecord<String, byte[]> record(byte[] value) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("bench", 0, OFFSETS.getAndIncrement(), null, value);
+        record.headers().add("crawler-discovered-at",
+                Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static List<ConsumerRecord<String, byte[]>> records(List<byte[]> values) {
+        return values.stream().map(IngestThroughputBenchmarkTests::record).toList();
+    }
+
+    private List<byte[]> discoveryMessages(int count) {
+        long processId = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+        processIds.add(processId);
+        List<byte[]> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(("{\"url\":\"https://bench.example/" + processId + "/item-" + i + "\", \"processId\":" + processId
+                    + ", \"processSize\":" + count + "}").getBytes(StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+
+    private List<byte[]> resultMessages(List<byte[]> discoveryMessages) {
+        List<byte[]> messages = new ArrayList<>(discoveryMessages.size());
+        for (int i = 0; i < discoveryMessages.size(); i++) {
+            String discovery = new String(discoveryMessages.get(i), StandardCharsets.UTF_8);
+            String url = discovery.substring(8, discovery.indexOf('"', 8));
+            boolean success = i % 4 != 0;
+            messages.add(("{\"url\":\"" + url + "\",\"success\":" + success
+                    + ",\"parsingData\":\"{\\\"pageTitle\\\":\\\"Title\\\",\\\"popularity\\\":42}\""
+                    + ",\"censored\":false"
+                    + ",\"sensorData\":" + (success ? "\"{\\\"sslStatus\\\":\\\"VALID\\\",\\\"latencyMs\\\":120}\"" : "\"Sensor failed after retry\"")
+                    + "}").getBytes(StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,158 @@
+package simulation.crawler.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import simulation.crawler.processor.util.UrlFingerprint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Consumer throughput against partition count on one machine, using an embedded broker. Every record
+// waits bench.work-ms the way the processor waits on Postgres and the fetcher on the parser/sensor, so
+// the consumer threads overlap their waits rather than compete for cores. Each run uses a topic with N
+// partitions and a container with N consumer threads; records are keyed by URL fingerprint like the
+// real producers, and every URL gets several updates whose order is checked on the consumer side.
+// Run with: ./mvnw test -Dtest=KafkaPartitionScalingTests -Dbench.partition-scaling=true
+// Optional: -Dbench.messages=8000 -Dbench.work-ms=2
+@EnabledIfSystemProperty(named = "bench.partition-scaling", matches = "true")
+@Slf4j
+class KafkaPartitionScalingTests {
+    private static final int MESSAGES = Integer.getInteger("bench.messages", 8000);
+    private static final long WORK_MS = Long.getLong("bench.work-ms", 2);
+    private static final int UPDATES_PER_URL = 4;
+    private static final int[] PARTITIONS = { 1, 2, 4, 8 };
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void throughputScalesWithPartitions() throws Exception {
+        double baseline = 0;
+        double speedup = 0;
+        for (int partitions : PARTITIONS) {
+            double rate = consume(partitions);
+            baseline = baseline == 0 ? rate : baseline;
+            speedup = rate / baseline;
+            log.info("partitions: {}, consumer threads: {}, {} msg/s, speedup: {}x ({}% of linear)", partitions,
+                    partitions, Math.round(rate), "%.2f".formatted(speedup), Math.round(100 * speedup / partitions));
+        }
+
+        int widest = PARTITIONS[PARTITIONS.length - 1];
+        assertTrue(speedup >= 0.65 * widest,
+                "expected near-linear scaling to " + widest + " partitions, got " + speedup + "x");
+    }
+
+    private double consume(int partitions) throws Exception {
+        String topic = "scaling.p" + partitions;
+        broker.addTopics(new NewTopic(topic, partitions, (short) 1));
+        produce(topic);
+
+        Map<String, Integer> lastUpdate = new ConcurrentHashMap<>();
+        Map<String, Integer> partitionOf = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger partitionMoves = new AtomicInteger();
+        AtomicLong first = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(MESSAGES);
+
+        MessageListener<String, String> listener = (ConsumerRecord<String, String> record) -> {
+            first.compareAndSet(0, System.nanoTime());
+            int separator = record.value().lastIndexOf('#');
+            String url = record.value().substring(0, separator);
+            int update = Integer.parseInt(record.value().substring(separator + 1));
+            Integer previous = lastUpdate.put(url, update);
+            if (previous == null ? update != 0 : update != previous + 1) {
+                outOfOrder.incrementAndGet();
+            }
+            if (partitionOf.computeIfAbsent(url, key -> record.partition()) != record.partition()) {
+                partitionMoves.incrementAndGet();
+            }
+            try {
+                Thread.sleep(WORK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        };
+
+        // Explicit assignment from offset 0 instead of a group subscription, so no rebalance lands in the timing
+        TopicPartitionOffset[] assignment = IntStream.range(0, partitions)
+                .mapToObj(partition -> new TopicPartitionOffset(topic, partition, 0L))
+                .toArray(TopicPartitionOffset[]::new);
+        ContainerProperties containerProperties = new ContainerProperties(assignment);
+        containerProperties.setMessageListener(listener);
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("scaling-" + partitions, "false", broker);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        ConcurrentMessageListenerContainer<String, String> container = new ConcurrentMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(consumerProps), containerProperties);
+        container.setConcurrency(partitions);
+
+        container.start();
+        try {
+            assertTrue(done.await(5, TimeUnit.MINUTES), "timed out consuming " + topic);
+        } finally {
+            container.stop();
+        }
+        double rate = MESSAGES / ((System.nanoTime() - first.get()) / 1e9);
+
+        assertEquals(0, partitionMoves.get(), "URLs spread over more than one partition");
+        assertEquals(0, outOfOrder.get(), "updates for a URL consumed out of order");
+        return rate;
+    }
+
+    private void produce(String topic) {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put("key.serializer", StringSerializer.class);
+        producerProps.put("value.serializer", StringSerializer.class);
+        DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(producerProps);
+        try {
+            KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory);
+            int urls = MESSAGES / UPDATES_PER_URL;
+            for (int update = 0; update < UPDATES_PER_URL; update++) {
+                for (int i = 0; i < urls; i++) {
+                    String url = "https://retail-giant.com/products/toys/item-" + i;
+                    template.send(topic, UrlFingerprint.key(UrlFingerprint.of(url)), url + "#" + update);
+                }
+            }
+            template.flush();
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+}
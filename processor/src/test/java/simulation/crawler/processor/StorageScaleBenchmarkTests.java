@@ -0,0 +1,232 @@
+package simulation.crawler.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import simulation.crawler.processor.dto.CrawlRecordView;
+import simulation.crawler.processor.dto.DiscoveryEvent;
+import simulation.crawler.processor.dto.DiscoveryTally;
+import simulation.crawler.processor.dto.ResultUpdate;
+import simulation.crawler.processor.repository.CrawlRecordBatchRepository;
+import simulation.crawler.processor.repository.CrawlProgressRepository;
+import simulation.crawler.processor.repository.CrawlRecordQueryRepository;
+import simulation.crawler.processor.service.PartitionMaintenance;
+import simulation.crawler.processor.util.UrlFingerprint;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Fills crawl_records with bench.storage.rows records spread over bench.storage.weeks weekly partitions, then
+// measures bulk insert and result throughput, findPage latency and retention by DELETE versus partition drop.
+// The records are discovered in weeks from 2001, far behind any real data, and are dropped at the end.
+// Run with: BENCH_DB_URL=jdbc:postgresql://localhost:5432/crawler_db ./mvnw test -Dtest=StorageScaleBenchmarkTests
+// Optional: -Dbench.storage.rows=10000000 -Dbench.storage.weeks=8 -Dbench.storage.batch-size=1000
+@SpringBootTest(properties = {
+        "spring.datasource.url=${BENCH_DB_URL}",
+        "spring.jpa.show-sql=false",
+        "processor.ingest.mode=none",
+        "processor.results.mode=none",
+        "processor.outbox.relay.enabled=false",
+        "processor.recrawl.enabled=false"
+})
+@EnabledIfEnvironmentVariable(named = "BENCH_DB_URL", matches = ".+")
+@Slf4j
+class StorageScaleBenchmarkTests {
+    private static final int ROWS = Integer.getInteger("bench.storage.rows", 10_000_000);
+    private static final int WEEKS = Integer.getInteger("bench.storage.weeks", 8);
+    private static final int PROCESS_SIZE = Integer.getInteger("bench.storage.process-size", 10_000);
+    private static final int BATCH_SIZE = Integer.getInteger("bench.storage.batch-size", 1000);
+    private static final int QUERIES = Integer.getInteger("bench.storage.queries", 200);
+    private static final int PAGE_SIZE = 100;
+    // A Monday, so every bench week is exactly one partition
+    private static final Instant FIRST_WEEK = Instant.parse("2001-01-01T00:00:00Z");
+    private static final Duration WEEK = Duration.ofDays(7);
+
+    @Autowired
+    private CrawlRecordBatchRepository batchRepository;
+
+    @Autowired
+    private CrawlRecordQueryRepository queryRepository;
+
+    @Autowired
+    private CrawlProgressRepository progressRepository;
+
+    @Autowired
+    private PartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final long firstProcessId = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE / 2);
+
+    @Test
+    void measureStorageAtScale() {
+        partitionMaintenance.ensurePartitions(FIRST_WEEK, FIRST_WEEK.plus(WEEK.multipliedBy(WEEKS)).minusSeconds(1));
+
+        long start = System.nanoTime();
+        int inserted = 0;
+        for (int i = 0; i < ROWS; i += BATCH_SIZE) {
+            List<DiscoveryEvent> batch = new ArrayList<>(BATCH_SIZE);
+            for (int row = i; row < Math.min(i + BATCH_SIZE, ROWS); row++) {
+                batch.add(discovery(row));
+            }
+            Map<Long, Instant> batchInserted = batchRepository.insertPending(batch);
+            recordDiscovery(i, batch, batchInserted);
+            inserted += batchInserted.size();
+            progress("insert", i + batch.size(), start);
+        }
+        double insertRate = inserted / ((System.nanoTime() - start) / 1e9);
+        assertEquals(ROWS, inserted, "every bench URL is new");
+
+        start = System.nanoTime();
+        int applied = 0;
+        for (int i = 0; i < ROWS; i += BATCH_SIZE) {
+            List<ResultUpdate> batch = new ArrayList<>(BATCH_SIZE);
+            for (int row = i; row < Math.min(i + BATCH_SIZE, ROWS); row++) {
+                batch.add(result(row));
+            }
+            applied += batchRepository.applyResults(batch, latency -> { }).changed();
+            progress("results", i + batch.size(), start);
+        }
+        double applyRate = applied / ((System.nanoTime() - start) / 1e9);
+        assertEquals(ROWS, applied, "every bench record took its result");
+        jdbcTemplate.execute("ANALYZE crawl_records");
+        jdbcTemplate.execute("ANALYZE crawl_urls");
+
+        log.info("storage {} rows in {} weeks: insert {} rows/s, results {} rows/s", ROWS, WEEKS,
+                Math.round(insertRate), Math.round(applyRate));
+        log.info("storage size: crawl_records {} MB, crawl_urls {} MB", tableMegabytes("crawl_records"),
+                tableMegabytes("crawl_urls"));
+
+        long processes = (ROWS + PROCESS_SIZE - 1) / PROCESS_SIZE;
+        long[] firstPage = new long[QUERIES];
+        long[] deepPage = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            long processId = firstProcessId + ThreadLocalRandom.current().nextLong(processes);
+            long begin = System.nanoTime();
+            List<CrawlRecordView> page = queryRepository.findPage(processId, 0, PAGE_SIZE, false);
+            firstPage[q] = System.nanoTime() - begin;
+            long afterId = page.get(page.size() / 2).getId();
+            begin = System.nanoTime();
+            queryRepository.findPage(processId, afterId, PAGE_SIZE, true);
+            deepPage[q] = System.nanoTime() - begin;
+        }
+        log.info("findPage({}) summary: p50 {} ms, p99 {} ms; with data after a cursor: p50 {} ms, p99 {} ms", PAGE_SIZE,
+                "%.2f".formatted(percentile(firstPage, 0.5)), "%.2f".formatted(percentile(firstPage, 0.99)),
+                "%.2f".formatted(percentile(deepPage, 0.5)), "%.2f".formatted(percentile(deepPage, 0.99)));
+
+        // The first week goes row by row, the way retention worked before partitioning
+        Instant secondWeek = FIRST_WEEK.plus(WEEK);
+        start = System.nanoTime();
+        int deleted = jdbcTemplate.update("""
+                WITH gone AS (
+                    DELETE FROM crawl_records WHERE discovered_at >= ? AND discovered_at < ?
+                    RETURNING url_hash, discovered_at
+                )
+                DELETE FROM crawl_urls r USING gone
+                WHERE r.url_hash = gone.url_hash AND r.discovered_at = gone.discovered_at
+                """, Timestamp.from(FIRST_WEEK), Timestamp.from(secondWeek));
+        double deleteMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        List<String> dropped = partitionMaintenance.dropBefore(FIRST_WEEK.plus(WEEK.multipliedBy(WEEKS)));
+        double dropMillis = (System.nanoTime() - start) / 1e6;
+        log.info("retention: DELETE of one week ({} rows) {} ms; drop of {} partitions ({} rows) {} ms", deleted,
+                Math.round(deleteMillis), dropped.size(), ROWS - deleted, Math.round(dropMillis));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Also covers a failed run; dropping the bench weeks removes their records and crawl_urls entries
+        partitionMaintenance.dropBefore(FIRST_WEEK.plus(WEEK.multipliedBy(WEEKS)));
+        long lastProcessId = firstProcessId + (ROWS - 1) / PROCESS_SIZE;
+        jdbcTemplate.update("DELETE FROM discovery_offsets WHERE process_id BETWEEN ? AND ?", firstProcessId,
+                lastProcessId);
+        jdbcTemplate.update("DELETE FROM crawl_progress WHERE process_id BETWEEN ? AND ?", firstProcessId,
+                lastProcessId);
+    }
+
+    // As the ingest listener does, so the queries find each process's discovery window
+    private void recordDiscovery(int firstRow, List<DiscoveryEvent> batch, Map<Long, Instant> inserted) {
+        Map<Long, DiscoveryTally> tallies = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            DiscoveryEvent event = batch.get(i);
+            DiscoveryTally tally = tallies.computeIfAbsent(event.getProcessId(),
+                    processId -> new DiscoveryTally(processId, (long) PROCESS_SIZE));
+            tally.consumed(0, firstRow + i);
+            Instant discoveredAt = inserted.get(event.getUrlHash());
+            if (discoveredAt != null) {
+                tally.inserted(discoveredAt);
+            }
+        }
+        progressRepository.recordDiscovery(tallies.values());
+    }
+
+    // Rows are discovered in order, so each week holds a contiguous run of processes like real traffic would
+    private DiscoveryEvent discovery(int row) {
+        long week = (long) row * WEEKS / ROWS;
+        long offsetMillis = WEEK.toMillis() * ((long) row * WEEKS % ROWS) / ROWS;
+        DiscoveryEvent event = new DiscoveryEvent();
+        event.setUrl(url(row));
+        event.setUrlHash(UrlFingerprint.of(event.getUrl()));
+        event.setProcessId(firstProcessId + row / PROCESS_SIZE);
+        event.setProcessSize(PROCESS_SIZE);
+        event.setDiscoveredAt(FIRST_WEEK.plus(WEEK.multipliedBy(week)).toEpochMilli() + offsetMillis);
+        return event;
+    }
+
+    // Shaped like the fetcher's results; one in ten failed
+    private ResultUpdate result(int row) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean success = row % 10 != 0;
+        String url = url(row);
+        String page = success ? """
+                {"pageTitle":"Simulated Title for %s","pageMetaTags":"crawler, simulation, mock",\
+                "pageMetaDescription":"This is a simulated description for the crawled site.","contentSize":%d,\
+                "normalizedContents":"Extracted text from site...","popularity":%d}"""
+                .formatted(url, random.nextInt(1_000, 100_000), random.nextInt(100)) : null;
+        String sensor = """
+                {"sslStatus":"%s","latencyMs":%d,"siteAvailable":%b,"censored":false,"errorMessage":%s}"""
+                .formatted(success ? "VALID" : "UNKNOWN", random.nextLong(20, 2_000), success,
+                        success ? "null" : "\"Connection timed out\"");
+        return new ResultUpdate(UrlFingerprint.of(url), success ? "COMPLETED" : "FAILED", page, sensor, false, 1,
+                success ? random.nextLong() : null, null);
+    }
+
+    private String url(int row) {
+        return "https://bench.example/" + (firstProcessId + row / PROCESS_SIZE) + "/item-" + row % PROCESS_SIZE;
+    }
+
+    private long tableMegabytes(String table) {
+        return jdbcTemplate.queryForObject("""
+                SELECT (pg_total_relation_size(?::regclass) + COALESCE(sum(pg_total_relation_size(inhrelid)), 0))
+                       / (1024 * 1024)
+                FROM pg_inherits WHERE inhparent = ?::regclass
+                """, Long.class, table, table);
+    }
+
+    private static void progress(String phase, int done, long start) {
+        if (done % 1_000_000 == 0) {
+            log.info("storage {}: {} rows, {} rows/s", phase, done, Math.round(done / ((System.nanoTime() - start) / 1e9)));
+        }
+    }
+
+    private static double percentile(long[] nanos, double quantile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * (sorted.length - 1)))] / 1e6;
+    }
+}
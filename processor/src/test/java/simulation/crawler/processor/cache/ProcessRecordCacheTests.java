@@ -0,0 +1,159 @@
+package simulation.crawler.processor.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import simulation.crawler.processor.dto.RecordPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessRecordCacheTests {
+	private final Map<Long, Long> redisVersions = new HashMap<>();
+	private final List<String> published = new ArrayList<>();
+	private final AtomicInteger loads = new AtomicInteger();
+	private StringRedisTemplate redis;
+	private ValueOperations<String, String> values;
+	private ProcessRecordCache cache;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		redis = mock(StringRedisTemplate.class);
+		values = mock(ValueOperations.class);
+		when(redis.opsForValue()).thenReturn(values);
+		when(values.get(anyString())).thenReturn(null);
+		// Runs the pipelined callback against an in-memory INCR; each INCR is followed by an EXPIRE result
+		when(redis.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+			List<Object> results = new ArrayList<>();
+			RedisOperations<String, String> operations = mock(RedisOperations.class);
+			ValueOperations<String, String> pipelinedValues = mock(ValueOperations.class);
+			when(operations.opsForValue()).thenReturn(pipelinedValues);
+			when(pipelinedValues.increment(anyString())).thenAnswer(increment -> {
+				String key = increment.getArgument(0);
+				results.add(redisVersions.merge(Long.parseLong(key.substring(key.lastIndexOf(':') + 1)), 1L, Long::sum));
+				results.add(Boolean.TRUE);
+				return null;
+			});
+			invocation.<SessionCallback<?>>getArgument(0).execute(operations);
+			return results;
+		});
+		when(redis.convertAndSend(anyString(), anyString())).thenAnswer(invocation -> {
+			published.add(invocation.getArgument(1));
+			return 1L;
+		});
+
+		// ConcurrentMapCacheManager plays the shared Redis level
+		cache = new ProcessRecordCache(new ConcurrentMapCacheManager(), redis, new SimpleMeterRegistry(),
+				1_000, Duration.ofMinutes(1), Duration.ofHours(1));
+	}
+
+	private RecordPage page(long processId) {
+		return cache.getPage(processId, 0, 100, false, () -> {
+			loads.incrementAndGet();
+			return new RecordPage(List.of(), null);
+		});
+	}
+
+	private void invalidate(Long... processIds) {
+		cache.invalidateAfterCommit(List.of(processIds));
+	}
+
+	@Test
+	void servesRepeatedReadsFromCacheUntilTheProcessIsInvalidated() {
+		page(1);
+		page(1);
+		assertEquals(1, loads.get());
+
+		invalidate(1L);
+		page(1);
+		assertEquals(1, loads.get(), "invalidations take effect when flushed");
+
+		cache.flushInvalidations();
+		page(1);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void coalescesRepeatedInvalidationsIntoOneVersionBump() {
+		invalidate(1L);
+		invalidate(1L, 2L);
+		invalidate(1L);
+		cache.flushInvalidations();
+
+		verify(redis, times(1)).executePipelined(any(SessionCallback.class));
+		assertEquals(Map.of(1L, 1L, 2L, 1L), redisVersions);
+		assertEquals(1, published.size());
+
+		cache.flushInvalidations();
+		verify(redis, times(1)).executePipelined(any(SessionCallback.class));
+	}
+
+	@Test
+	void retriesInvalidationsThatCouldNotBePublished() {
+		doThrow(new RedisConnectionFailureException("Connection refused"))
+				.doAnswer(invocation -> {
+					published.add(invocation.getArgument(1));
+					return 1L;
+				})
+				.when(redis).convertAndSend(anyString(), anyString());
+		invalidate(1L, 2L);
+		cache.flushInvalidations();
+		assertEquals(List.of(), published);
+
+		cache.flushInvalidations();
+		assertEquals(Map.of(1L, 2L, 2L, 2L), redisVersions);
+		assertEquals(1, published.size());
+	}
+
+	@Test
+	void readsTheDatabaseWhileTheVersionCannotBeRead() {
+		when(values.get(anyString())).thenThrow(new RedisConnectionFailureException("Connection refused"))
+				.thenReturn("4");
+		page(1);
+		assertEquals(1, loads.get());
+
+		// Nothing was cached under a made-up version; the next lookup reads the real one and caches under it
+		page(1);
+		assertEquals(2, loads.get());
+		page(1);
+		assertEquals(2, loads.get());
+		verify(values, times(2)).get(anyString());
+	}
+
+	@Test
+	void dropsNearCachedPagesOnInvalidationsFromOtherInstances() {
+		page(7);
+		cache.onMessage(new DefaultMessage(ProcessRecordCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+				"7:3".getBytes(StandardCharsets.UTF_8)), null);
+		page(7);
+		assertEquals(2, loads.get());
+
+		// A late, older version must not roll the process back
+		cache.onMessage(new DefaultMessage(ProcessRecordCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+				"7:2".getBytes(StandardCharsets.UTF_8)), null);
+		page(7);
+		assertEquals(2, loads.get());
+	}
+}
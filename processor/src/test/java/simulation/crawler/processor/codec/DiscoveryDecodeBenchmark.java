@@ -0,0 +1,68 @@
+package simulation.crawler.processor.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import simulation.crawler.processor.dto.DiscoveryEvent;
+
+import java.util.concurrent.TimeUnit;
+
+// discovery.urls decoding, once per consumed message. mapper is what EventCodec does for JSON today;
+// reader and blackbird are candidates that keep a typed ObjectReader (the root deserializer is looked up
+// once instead of per call), the latter with generated accessors instead of reflection.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiscoveryDecodeBenchmark {
+    private EventCodec codec;
+    private ObjectReader reader;
+    private ObjectReader blackbirdReader;
+    private byte[] json;
+    private byte[] avro;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Configured like the Boot-managed mapper the listeners get
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        codec = new EventCodec(objectMapper, new FileSchemaStore(""), "avro");
+        reader = objectMapper.readerFor(DiscoveryEvent.class);
+        blackbirdReader = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build()
+                .readerFor(DiscoveryEvent.class);
+        json = EventFixtures.discoveryJson();
+        avro = EventFixtures.discoveryAvro();
+    }
+
+    @Benchmark
+    public DiscoveryEvent jsonMapper() throws Exception {
+        return codec.decodeDiscovery(json);
+    }
+
+    @Benchmark
+    public DiscoveryEvent jsonReader() throws Exception {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public DiscoveryEvent jsonReaderBlackbird() throws Exception {
+        return blackbirdReader.readValue(json);
+    }
+
+    @Benchmark
+    public DiscoveryEvent avro() throws Exception {
+        return codec.decodeDiscovery(avro);
+    }
+}
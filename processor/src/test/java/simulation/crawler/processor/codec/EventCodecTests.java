@@ -0,0 +1,125 @@
+package simulation.crawler.processor.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.MissingSchemaException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.events.FetchResultMessage;
+import simulation.crawler.events.ParsedPage;
+import simulation.crawler.processor.dto.DiscoveryEvent;
+import simulation.crawler.processor.dto.FetcherResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventCodecTests {
+	// discovery.urls before processSize was added
+	private static final String DISCOVERY_V1 = """
+			{"type": "record", "name": "DiscoveryMessage", "namespace": "simulation.crawler.events",
+			 "fields": [{"name": "url", "type": "string"}, {"name": "processId", "type": "long"}]}
+			""";
+
+	private final EventCodec codec = codec("");
+
+	private static EventCodec codec(String schemasDir) {
+		try {
+			return new EventCodec(new ObjectMapper(), new FileSchemaStore(schemasDir), "avro");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	void decodesAvroAndJsonDiscoveryEvents() throws Exception {
+		byte[] avro = DiscoveryMessage.getEncoder().encode(new DiscoveryMessage("https://shop-central.net/a", 7L, 10)).array();
+		byte[] json = "{\"url\":\"https://shop-central.net/a\", \"processId\":7, \"processSize\":10}".getBytes(StandardCharsets.UTF_8);
+		assertTrue(EventCodec.isAvro(avro));
+		assertFalse(EventCodec.isAvro(json));
+
+		DiscoveryEvent fromAvro = codec.decodeDiscovery(avro);
+		DiscoveryEvent fromJson = codec.decodeDiscovery(json);
+		assertEquals(fromJson, fromAvro);
+		assertEquals(10, fromAvro.getProcessSize());
+	}
+
+	@Test
+	void decodesTypedAvroResultsAndJsonResultsWithEmbeddedPayloads() throws Exception {
+		ParsedPage page = ParsedPage.newBuilder().setPageTitle("Title").setPopularity(42).build();
+		byte[] avro = FetchResultMessage.getEncoder().encode(FetchResultMessage.newBuilder()
+				.setUrl("https://eco-store.org/b").setSuccess(false).setParsingData(page)
+				.setError("Sensor failed after retry").build()).array();
+		byte[] json = ("{\"url\":\"https://eco-store.org/b\",\"success\":false,"
+				+ "\"parsingData\":\"{\\\"pageTitle\\\":\\\"Title\\\",\\\"popularity\\\":42}\","
+				+ "\"censored\":null,\"sensorData\":\"Sensor failed after retry\"}").getBytes(StandardCharsets.UTF_8);
+
+		FetcherResult fromAvro = codec.decodeResult(avro);
+		FetcherResult fromJson = codec.decodeResult(json);
+		assertEquals(fromJson, fromAvro);
+		assertEquals("Title", fromAvro.getParsingData().getPageTitle());
+		assertEquals("Sensor failed after retry", fromAvro.getSensorData().getErrorMessage());
+		assertNull(fromAvro.getCensored());
+	}
+
+	@Test
+	void resolvesOlderWriterSchemasRegisteredInTheSchemaDirectory(@TempDir Path schemasDir) throws Exception {
+		Schema v1 = new Schema.Parser().parse(DISCOVERY_V1);
+		GenericRecord record = new GenericData.Record(v1);
+		record.put("url", "https://market-hub.io/c");
+		record.put("processId", 9L);
+		byte[] written = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v1).encode(record).array();
+
+		assertThrows(MissingSchemaException.class, () -> codec.decodeDiscovery(written));
+
+		Files.writeString(schemasDir.resolve("DiscoveryMessage-v1.avsc"), DISCOVERY_V1);
+		DiscoveryEvent event = codec(schemasDir.toString()).decodeDiscovery(written);
+		assertEquals("https://market-hub.io/c", event.getUrl());
+		assertEquals(9L, event.getProcessId());
+		assertNull(event.getProcessSize());
+	}
+
+	@Test
+	void resultsFromFetchersWithoutRetriesCountAsOneAttempt() throws Exception {
+		// Written with the schema kept under avro-history, from before attempts was added
+		Schema v1 = new Schema.Parser().parse(getClass().getResourceAsStream("/avro-history/FetchResultMessage.v1.avsc"));
+		GenericRecord record = new GenericData.Record(v1);
+		record.put("url", "https://eco-store.org/e");
+		record.put("success", true);
+		byte[] written = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v1).encode(record).array();
+		byte[] retried = FetchResultMessage.getEncoder().encode(FetchResultMessage.newBuilder()
+				.setUrl("https://eco-store.org/e").setSuccess(false).setError("Parser failed").setAttempts(4).build()).array();
+		byte[] json = "{\"url\":\"https://eco-store.org/e\",\"success\":false,\"attempts\":2}".getBytes(StandardCharsets.UTF_8);
+
+		assertEquals(1, codec.decodeResult(written).getAttempts());
+		assertEquals(4, codec.decodeResult(retried).getAttempts());
+		assertEquals(2, codec.decodeResult(json).getAttempts());
+	}
+
+	@Test
+	void writesOutboxEventsInTheConfiguredFormat() throws Exception {
+		DiscoveryEvent event = new DiscoveryEvent();
+		event.setUrl("https://retail-giant.com/d");
+		event.setProcessId(3L);
+		event.setUrlHash(-5L);
+
+		byte[] avro = codec.encodeUrlCreated(event);
+		assertTrue(EventCodec.isAvro(avro));
+		assertEquals(-5L, simulation.crawler.events.UrlCreatedMessage.getDecoder().decode(avro).getUrlHash());
+
+		byte[] json = new EventCodec(new ObjectMapper(), new FileSchemaStore(""), "json").encodeUrlCreated(event);
+		assertArrayEquals(new ObjectMapper().writeValueAsBytes(event), json);
+	}
+}
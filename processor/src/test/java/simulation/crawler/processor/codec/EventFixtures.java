@@ -0,0 +1,90 @@
+package simulation.crawler.processor.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.events.FetchResultMessage;
+import simulation.crawler.events.ParsedPage;
+import simulation.crawler.events.SensorReport;
+import simulation.crawler.processor.dto.ParserData;
+import simulation.crawler.processor.dto.SensorData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Payloads shaped like the ones the mock parser and sensor return, for the JMH benchmarks. Values are
+// encoded the way the producers write them: discovery as url.discovery builds it, results in the
+// fetcher's legacy JSON layout (payloads embedded as strings) or as Avro single-object messages.
+public final class EventFixtures {
+    public static final String URL = "https://retail-giant.com/products/electronics/item-004217";
+
+    private EventFixtures() {
+    }
+
+    // contentChars is the size of normalizedContents: the mock's 27 characters, or a real page's text
+    public static ParserData parserData(int contentChars) {
+        ParserData data = new ParserData();
+        data.setPageTitle("Simulated Title for " + URL);
+        data.setPageMetaTags("crawler, simulation, mock");
+        data.setPageMetaDescription("This is a simulated description for the crawled site.");
+        data.setContentSize(contentChars);
+        data.setNormalizedContents(contents(contentChars));
+        data.setPopularity(42);
+        return data;
+    }
+
+    public static SensorData sensorData() {
+        SensorData data = new SensorData();
+        data.setSslStatus("VALID");
+        data.setLatencyMs(187L);
+        data.setSiteAvailable(true);
+        data.setCensored(false);
+        return data;
+    }
+
+    public static byte[] discoveryJson() {
+        return ("{\"url\":\"" + URL + "\", \"processId\":8305417736625561090, \"processSize\":100000}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] discoveryAvro() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(96);
+        DiscoveryMessage.getEncoder().encode(new DiscoveryMessage(URL, 8305417736625561090L, 100_000), out);
+        return out.toByteArray();
+    }
+
+    public static byte[] resultJson(ObjectMapper objectMapper, int contentChars) throws IOException {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("url", URL);
+        envelope.put("success", true);
+        envelope.put("parsingData", objectMapper.writeValueAsString(parserData(contentChars)));
+        envelope.put("censored", false);
+        envelope.put("sensorData", objectMapper.writeValueAsString(sensorData()));
+        envelope.put("attempts", 1);
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+
+    public static byte[] resultAvro(int contentChars) throws IOException {
+        ParserData parser = parserData(contentChars);
+        SensorData sensor = sensorData();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        FetchResultMessage.getEncoder().encode(new FetchResultMessage(URL, true, false,
+                new ParsedPage(parser.getPageTitle(), parser.getPageMetaTags(), parser.getPageMetaDescription(),
+                        parser.getContentSize(), parser.getNormalizedContents(), parser.getPopularity()),
+                new SensorReport(sensor.getSslStatus(), sensor.getLatencyMs(), sensor.getSiteAvailable(),
+                        sensor.getCensored()),
+                null, 1), out);
+        return out.toByteArray();
+    }
+
+    private static String contents(int chars) {
+        String text = "Extracted text from site... ";
+        StringBuilder contents = new StringBuilder(chars);
+        while (contents.length() < chars) {
+            contents.append(text, 0, Math.min(text.length(), chars - contents.length()));
+        }
+        return contents.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package simulation.crawler.processor.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import simulation.crawler.processor.dto.FetcherResult;
+import simulation.crawler.processor.dto.ParserData;
+import simulation.crawler.processor.dto.SensorData;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// fetcher.results decoding, once per consumed result. jsonTree is EventCodec's JSON path today: a tree
+// for the envelope, a second tree per embedded payload string, then treeToValue. The typed candidates bind
+// the envelope straight to a class holding the payloads as strings and read each one with its own cached
+// ObjectReader, skipping both trees. avro is the default wire format, for comparison.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultDecodeBenchmark {
+    @Param({ "27", "4096" })
+    private int contentChars;
+
+    private EventCodec codec;
+    private TypedResultReader typedReader;
+    private TypedResultReader blackbirdReader;
+    private byte[] json;
+    private byte[] avro;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        codec = new EventCodec(objectMapper, new FileSchemaStore(""), "avro");
+        typedReader = new TypedResultReader(objectMapper);
+        blackbirdReader = new TypedResultReader(Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new BlackbirdModule()).build());
+        json = EventFixtures.resultJson(objectMapper, contentChars);
+        avro = EventFixtures.resultAvro(contentChars);
+        // A candidate is only worth timing if it decodes to the same result
+        FetcherResult expected = codec.decodeResult(json);
+        if (!expected.equals(typedReader.read(json)) || !expected.equals(blackbirdReader.read(json))
+                || !expected.equals(codec.decodeResult(avro))) {
+            throw new IllegalStateException("Decoders disagree on " + expected);
+        }
+    }
+
+    @Benchmark
+    public FetcherResult jsonTree() throws Exception {
+        return codec.decodeResult(json);
+    }
+
+    @Benchmark
+    public FetcherResult jsonTyped() throws Exception {
+        return typedReader.read(json);
+    }
+
+    @Benchmark
+    public FetcherResult jsonTypedBlackbird() throws Exception {
+        return blackbirdReader.read(json);
+    }
+
+    @Benchmark
+    public FetcherResult avro() throws Exception {
+        return codec.decodeResult(avro);
+    }
+
+    // The legacy envelope as the fetcher writes it, payloads still JSON text
+    @Data
+    public static class LegacyResult {
+        private String url;
+        private Boolean success;
+        private String parsingData;
+        private Boolean censored;
+        private String sensorData;
+        private Integer attempts;
+    }
+
+    // Same result as EventCodec.fromJson for everything the fetcher produces; it does not accept payloads
+    // embedded as objects instead of strings, which the tree-based path tolerates
+    static class TypedResultReader {
+        private final ObjectReader envelopeReader;
+        private final ObjectReader parserReader;
+        private final ObjectReader sensorReader;
+
+        TypedResultReader(ObjectMapper objectMapper) {
+            this.envelopeReader = objectMapper.readerFor(LegacyResult.class);
+            this.parserReader = objectMapper.readerFor(ParserData.class);
+            this.sensorReader = objectMapper.readerFor(SensorData.class);
+        }
+
+        FetcherResult read(byte[] value) throws IOException {
+            LegacyResult legacy = envelopeReader.readValue(value);
+            FetcherResult result = new FetcherResult();
+            result.setUrl(legacy.getUrl());
+            result.setSuccess(Boolean.TRUE.equals(legacy.getSuccess()));
+            result.setCensored(legacy.getCensored());
+            result.setAttempts(legacy.getAttempts() != null ? legacy.getAttempts() : 1);
+            if (legacy.getParsingData() != null && legacy.getParsingData().startsWith("{")) {
+                result.setParsingData(parserReader.readValue(legacy.getParsingData()));
+            }
+            if (legacy.getSensorData() != null) {
+                if (legacy.getSensorData().startsWith("{")) {
+                    result.setSensorData(sensorReader.readValue(legacy.getSensorData()));
+                } else {
+                    SensorData errorData = new SensorData();
+                    errorData.setErrorMessage(legacy.getSensorData());
+                    result.setSensorData(errorData);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package simulation.crawler.processor.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.events.FetchResultMessage;
+import simulation.crawler.events.ParsedPage;
+import simulation.crawler.events.SensorReport;
+import simulation.crawler.processor.dto.DiscoveryEvent;
+import simulation.crawler.processor.dto.ParserData;
+import simulation.crawler.processor.dto.SensorData;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bytes per message and encode/decode CPU of the JSON and Avro wire formats, per topic. JSON is produced
+// the way the producers always did (fetcher results serialize their payloads into strings first);
+// decoding goes through EventCodec, as the listeners do. lz4 sizes are per 500-message producer batch.
+// Run with: ./mvnw test -Dtest=WireFormatBenchmarkTests -Dbench.wire-format=true [-Dbench.messages=200000]
+@EnabledIfSystemProperty(named = "bench.wire-format", matches = "true")
+@Slf4j
+class WireFormatBenchmarkTests {
+    private static final int MESSAGES = Integer.getInteger("bench.messages", 200_000);
+    private static final int BATCH = 500;
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EventCodec avroCodec;
+    private final EventCodec jsonCodec;
+    private final LZ4Compressor lz4 = LZ4Factory.fastestInstance().fastCompressor();
+    private final String[] urls = new String[MESSAGES];
+
+    WireFormatBenchmarkTests() throws Exception {
+        FileSchemaStore store = new FileSchemaStore("");
+        avroCodec = new EventCodec(objectMapper, store, "avro");
+        jsonCodec = new EventCodec(objectMapper, store, "json");
+        for (int i = 0; i < MESSAGES; i++) {
+            urls[i] = String.format("https://retail-giant.com/products/electronics/item-%06d", i % 1_000_000);
+        }
+    }
+
+    @FunctionalInterface
+    interface Encoder {
+        byte[] encode(int i) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface Decoder {
+        Object decode(byte[] value) throws Exception;
+    }
+
+    @Test
+    void compareWireFormats() throws Exception {
+        log.info("{}", "%-22s %-5s %9s %12s %12s %12s".formatted("topic", "fmt", "bytes/msg", "lz4 B/msg", "encode ns",
+                "decode ns"));
+
+        run("discovery.urls", "json", i -> ("{\"url\":\"" + url(i) + "\", \"processId\":" + processId(i)
+                + ", \"processSize\":100000}").getBytes(StandardCharsets.UTF_8), avroCodec::decodeDiscovery);
+        run("discovery.urls", "avro", i -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(96);
+            DiscoveryMessage.getEncoder().encode(new DiscoveryMessage(url(i), processId(i), 100_000), out);
+            return out.toByteArray();
+        }, avroCodec::decodeDiscovery);
+
+        run("processor.outbox.urls", "json", i -> jsonCodec.encodeUrlCreated(discoveryEvent(i)), null);
+        run("processor.outbox.urls", "avro", i -> avroCodec.encodeUrlCreated(discoveryEvent(i)), null);
+
+        run("fetcher.results", "json", i -> {
+            Map<String, Object> envelope = new LinkedHashMap<>();
+            envelope.put("url", url(i));
+            envelope.put("success", true);
+            envelope.put("parsingData", objectMapper.writeValueAsString(parserData(i)));
+            envelope.put("censored", false);
+            envelope.put("sensorData", objectMapper.writeValueAsString(sensorData(i)));
+            return objectMapper.writeValueAsBytes(envelope);
+        }, avroCodec::decodeResult);
+        run("fetcher.results", "avro", i -> {
+            ParserData parser = parserData(i);
+            SensorData sensor = sensorData(i);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            // Constructors rather than the generated builders, which validate and deep-copy every field
+            FetchResultMessage.getEncoder().encode(new FetchResultMessage(url(i), true, false,
+                    new ParsedPage(parser.getPageTitle(), parser.getPageMetaTags(), parser.getPageMetaDescription(),
+                            parser.getContentSize(), parser.getNormalizedContents(), parser.getPopularity()),
+                    new SensorReport(sensor.getSslStatus(), sensor.getLatencyMs(), sensor.getSiteAvailable(),
+                            sensor.getCensored()),
+                    null, 1), out);
+            return out.toByteArray();
+        }, avroCodec::decodeResult);
+    }
+
+    private void run(String topic, String format, Encoder encoder, Decoder decoder) throws Exception {
+        List<byte[]> values = new ArrayList<>(MESSAGES);
+        long encodeNanos = Long.MAX_VALUE;
+        long decodeNanos = Long.MAX_VALUE;
+        // Best of several rounds; the first ones double as JIT warm-up
+        for (int round = 0; round < ROUNDS; round++) {
+            values.clear();
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                values.add(encoder.encode(i));
+            }
+            encodeNanos = Math.min(encodeNanos, System.nanoTime() - start);
+
+            if (decoder != null) {
+                start = System.nanoTime();
+                for (byte[] value : values) {
+                    decoder.decode(value);
+                }
+                decodeNanos = Math.min(decodeNanos, System.nanoTime() - start);
+            }
+        }
+
+        long bytes = 0;
+        long compressed = 0;
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        for (int i = 0; i < values.size(); i++) {
+            bytes += values.get(i).length;
+            batch.writeBytes(values.get(i));
+            if ((i + 1) % BATCH == 0 || i == values.size() - 1) {
+                compressed += lz4.compress(batch.toByteArray()).length;
+                batch.reset();
+            }
+        }
+
+        log.info("{}", "%-22s %-5s %9.1f %12.1f %12.0f %12s".formatted(topic, format, (double) bytes / MESSAGES,
+                (double) compressed / MESSAGES, (double) encodeNanos / MESSAGES,
+                decoder == null ? "-" : String.format("%.0f", (double) decodeNanos / MESSAGES)));
+    }
+
+    private String url(int i) {
+        return urls[i];
+    }
+
+    private static long processId(int i) {
+        return 4_611_686_018_427_387_904L + i / 100_000;
+    }
+
+    private DiscoveryEvent discoveryEvent(int i) {
+        DiscoveryEvent event = new DiscoveryEvent();
+        event.setUrl(url(i));
+        event.setProcessId(processId(i));
+        event.setProcessSize(100_000);
+        event.setUrlHash(0x9E3779B97F4A7C15L * (i + 1));
+        return event;
+    }
+
+    private static ParserData parserData(int i) {
+        ParserData data = new ParserData();
+        data.setPageTitle("Product page " + i);
+        data.setPageMetaTags("electronics, deals, retail");
+        data.setPageMetaDescription("Simulated description for item " + i);
+        data.setContentSize(10_000 + i % 5_000);
+        data.setNormalizedContents("normalized contents of item " + i);
+        data.setPopularity(i % 100);
+        return data;
+    }
+
+    private static SensorData sensorData(int i) {
+        SensorData data = new SensorData();
+        data.setSslStatus("VALID");
+        data.setLatencyMs(100L + i % 200);
+        data.setSiteAvailable(true);
+        data.setCensored(false);
+        return data;
+    }
+}
@@ -0,0 +1,129 @@
+package simulation.crawler.processor.dedup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.crawler.processor.util.UrlCanonicalizer;
+import simulation.crawler.processor.util.UrlFingerprint;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-URL dedup work on ingest: canonicalize, fingerprint, then the Bloom filter check and put. The
+// filter holds a million URLs, like a warmed-up instance at its default capacity; probes cycle through
+// 4096 keys so they are not all served from one cache line. canonicalizeFastPath is a candidate that
+// returns URLs which are already canonical, as url.discovery generates them, without rebuilding them.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DedupBenchmark {
+    private static final int FILLED = 1_000_000;
+    private static final int PROBES = 4096;
+
+    private final String canonicalUrl = "https://retail-giant.com/products/electronics/item-004217";
+    private final String messyUrl = " HTTPS://Retail-Giant.com:443/products/electronics/item-004217?utm=b&ref=a#reviews";
+    private final long[] present = new long[PROBES];
+    private final long[] absent = new long[PROBES];
+    private ScalableBloomFilter filter;
+    private ScalableBloomFilter growing;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        filter = new ScalableBloomFilter(FILLED, 0.01);
+        for (int i = 0; i < FILLED; i++) {
+            filter.put(hash(i));
+        }
+        for (int i = 0; i < PROBES; i++) {
+            present[i] = hash(i * 211);
+            absent[i] = hash(FILLED + i);
+        }
+        if (!canonicalizeFastPath(canonicalUrl).equals(UrlCanonicalizer.canonicalize(canonicalUrl))
+                || !canonicalizeFastPath(messyUrl).equals(UrlCanonicalizer.canonicalize(messyUrl))) {
+            throw new IllegalStateException("Fast path disagrees with UrlCanonicalizer");
+        }
+    }
+
+    // A fresh filter per iteration, so put() measures a filter of a bounded size
+    @Setup(Level.Iteration)
+    public void resetGrowing() {
+        growing = new ScalableBloomFilter(FILLED, 0.01);
+    }
+
+    @Benchmark
+    public String canonicalize() {
+        return UrlCanonicalizer.canonicalize(canonicalUrl);
+    }
+
+    @Benchmark
+    public String canonicalizeMessy() {
+        return UrlCanonicalizer.canonicalize(messyUrl);
+    }
+
+    @Benchmark
+    public String canonicalizeFastPath() {
+        return canonicalizeFastPath(canonicalUrl);
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return UrlFingerprint.of(canonicalUrl);
+    }
+
+    @Benchmark
+    public boolean filterHit() {
+        return filter.mightContain(present[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean filterMiss() {
+        return filter.mightContain(absent[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public void filterPut() {
+        growing.put(absent[probe++ & (PROBES - 1)] + probe);
+    }
+
+    static String canonicalizeFastPath(String url) {
+        return isCanonical(url) ? url : UrlCanonicalizer.canonicalize(url);
+    }
+
+    // Lower-case http(s) scheme, a lower-case ASCII host without port or user info, a path, and nothing the
+    // canonicalizer would trim, sort or drop (whitespace, query, fragment)
+    private static boolean isCanonical(String url) {
+        int authorityStart = url.startsWith("https://") ? 8 : url.startsWith("http://") ? 7 : -1;
+        if (authorityStart < 0) {
+            return false;
+        }
+        boolean inAuthority = true;
+        for (int i = authorityStart; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c <= ' ' || c == '?' || c == '#') {
+                return false;
+            }
+            if (inAuthority) {
+                if (c == '/') {
+                    inAuthority = false;
+                } else if (c == ':' || c == '@' || (c >= 'A' && c <= 'Z') || c > '~') {
+                    return false;
+                }
+            }
+        }
+        return !inAuthority;
+    }
+
+    private static long hash(int i) {
+        return UrlFingerprint.of("https://retail-giant.com/products/electronics/item-" + i);
+    }
+}
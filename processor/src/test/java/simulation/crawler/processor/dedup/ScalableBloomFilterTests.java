@@ -0,0 +1,41 @@
+package simulation.crawler.processor.dedup;
+
+import org.junit.jupiter.api.Test;
+import simulation.crawler.processor.util.UrlFingerprint;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTests {
+
+	@Test
+	void neverReportsAnAddedKeyAsAbsentWhileGrowing() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+		for (int i = 0; i < 20_000; i++) {
+			filter.put(UrlFingerprint.of("https://retail-giant.com/products/home/item-" + i));
+		}
+
+		for (int i = 0; i < 20_000; i++) {
+			assertTrue(filter.mightContain(UrlFingerprint.of("https://retail-giant.com/products/home/item-" + i)));
+		}
+		assertTrue(filter.sliceCount() > 1);
+	}
+
+	@Test
+	void keepsFalsePositivesNearTheConfiguredRate() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+		for (int i = 0; i < 20_000; i++) {
+			filter.put(UrlFingerprint.of("https://market-hub.io/products/toys/item-" + i));
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain(UrlFingerprint.of("https://eco-store.org/products/garden/item-" + i))) {
+				falsePositives++;
+			}
+		}
+		// Scalable filters bound the compound rate by twice the initial target
+		assertFalse(falsePositives / 100_000.0 > 0.02, "false positive rate " + falsePositives / 100_000.0);
+		assertTrue(filter.expectedFalsePositiveRate() <= 0.02);
+	}
+}
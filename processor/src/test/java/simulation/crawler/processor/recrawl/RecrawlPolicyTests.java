@@ -0,0 +1,82 @@
+package simulation.crawler.processor.recrawl;
+
+import org.junit.jupiter.api.Test;
+import simulation.crawler.processor.dto.ParserData;
+import simulation.crawler.processor.util.ContentHash;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecrawlPolicyTests {
+	private static final List<String> TIERS = List.of("80=1h", "50=6h", "20=1d", "0=7d");
+
+	@Test
+	void picksTheHighestPopularityTierReached() {
+		RecrawlPolicy policy = new RecrawlPolicy(true, TIERS, List.of(), Duration.ofHours(1), 0);
+
+		assertEquals(Duration.ofHours(1).toMillis(), policy.recrawlMillis("https://retail-giant.com/a", 95));
+		assertEquals(Duration.ofHours(6).toMillis(), policy.recrawlMillis("https://retail-giant.com/a", 50));
+		assertEquals(Duration.ofDays(1).toMillis(), policy.recrawlMillis("https://retail-giant.com/a", 49));
+		assertEquals(Duration.ofDays(7).toMillis(), policy.recrawlMillis("https://retail-giant.com/a", 3));
+		assertEquals(Duration.ofDays(7).toMillis(), policy.recrawlMillis("https://retail-giant.com/a", null));
+	}
+
+	@Test
+	void domainIntervalsOverridePopularityAndCoverSubdomains() {
+		RecrawlPolicy policy = new RecrawlPolicy(true, TIERS,
+				List.of("shop-central.net=2h", "eu.shop-central.net=30m"), Duration.ofHours(1), 0);
+
+		assertEquals(Duration.ofHours(2).toMillis(), policy.recrawlMillis("https://shop-central.net/p/1", 99));
+		assertEquals(Duration.ofHours(2).toMillis(), policy.recrawlMillis("https://us.shop-central.net:8443/p/1", 5));
+		assertEquals(Duration.ofMinutes(30).toMillis(), policy.recrawlMillis("https://eu.shop-central.net/p/1", 5));
+		assertEquals(Duration.ofDays(7).toMillis(), policy.recrawlMillis("https://notshop-central.net/p/1", 5));
+	}
+
+	@Test
+	void keepsJitterWithinBounds() {
+		RecrawlPolicy policy = new RecrawlPolicy(true, TIERS, List.of(), Duration.ofHours(1), 0.1);
+		long base = Duration.ofHours(1).toMillis();
+
+		for (int i = 0; i < 1_000; i++) {
+			long millis = policy.recrawlMillis("https://market-hub.io/x", 90);
+			assertTrue(millis >= base * 0.9 && millis <= base * 1.1, "jittered " + millis);
+			long retry = policy.retryMillis();
+			assertTrue(retry >= base * 0.9 && retry <= base * 1.1, "jittered retry " + retry);
+		}
+	}
+
+	@Test
+	void schedulesNothingWhenDisabled() {
+		RecrawlPolicy policy = new RecrawlPolicy(false, TIERS, List.of(), Duration.ofHours(1), 0.1);
+
+		assertNull(policy.recrawlMillis("https://eco-store.org/x", 90));
+		assertNull(policy.retryMillis());
+	}
+
+	@Test
+	void contentHashIgnoresSizeAndPopularity() {
+		ParserData page = page(120_000, 42, "a green garden hose");
+		ParserData remeasured = page(121_500, 77, "a green garden hose");
+		ParserData edited = page(120_000, 42, "a blue garden hose");
+
+		assertEquals(ContentHash.of(page), ContentHash.of(remeasured));
+		assertNotEquals(ContentHash.of(page), ContentHash.of(edited));
+		assertNull(ContentHash.of(null));
+	}
+
+	private static ParserData page(int contentSize, int popularity, String contents) {
+		ParserData data = new ParserData();
+		data.setPageTitle("Garden Hose");
+		data.setPageMetaTags("hose,garden");
+		data.setPageMetaDescription("A hose");
+		data.setContentSize(contentSize);
+		data.setPopularity(popularity);
+		data.setNormalizedContents(contents);
+		return data;
+	}
+}
@@ -0,0 +1,74 @@
+package simulation.crawler.processor.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import simulation.crawler.processor.codec.EventFixtures;
+import simulation.crawler.processor.dto.ParserData;
+import simulation.crawler.processor.dto.SensorData;
+
+import java.util.concurrent.TimeUnit;
+
+// The JSON text ProcessorService.toResultUpdate writes for the jsonb columns, two payloads per result.
+// mapper is the current code; the candidates use an ObjectWriter per payload type, plain and with Blackbird.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultPayloadBenchmark {
+    @Param({ "27", "4096" })
+    private int contentChars;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter parserWriter;
+    private ObjectWriter sensorWriter;
+    private ObjectWriter blackbirdParserWriter;
+    private ObjectWriter blackbirdSensorWriter;
+    private ParserData parserData;
+    private SensorData sensorData;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        parserWriter = objectMapper.writerFor(ParserData.class);
+        sensorWriter = objectMapper.writerFor(SensorData.class);
+        ObjectMapper blackbird = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        blackbirdParserWriter = blackbird.writerFor(ParserData.class);
+        blackbirdSensorWriter = blackbird.writerFor(SensorData.class);
+        parserData = EventFixtures.parserData(contentChars);
+        sensorData = EventFixtures.sensorData();
+    }
+
+    @Benchmark
+    public void mapper(Blackhole blackhole) throws Exception {
+        blackhole.consume(objectMapper.writeValueAsString(parserData));
+        blackhole.consume(objectMapper.writeValueAsString(sensorData));
+    }
+
+    @Benchmark
+    public void writers(Blackhole blackhole) throws Exception {
+        blackhole.consume(parserWriter.writeValueAsString(parserData));
+        blackhole.consume(sensorWriter.writeValueAsString(sensorData));
+    }
+
+    @Benchmark
+    public void writersBlackbird(Blackhole blackhole) throws Exception {
+        blackhole.consume(blackbirdParserWriter.writeValueAsString(parserData));
+        blackhole.consume(blackbirdSensorWriter.writeValueAsString(sensorData));
+    }
+}
@@ -0,0 +1,46 @@
+package simulation.crawler.processor.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UrlLogSamplerTests {
+
+	@Test
+	void samplesTheConfiguredShareOfUrlsAndAlwaysTheSameOnes() {
+		Logger log = mock(Logger.class);
+		when(log.isDebugEnabled()).thenReturn(true);
+		UrlLogSampler sampler = new UrlLogSampler(0.01);
+
+		long sampled = IntStream.range(0, 100_000)
+				.mapToObj(i -> "https://eco-store.org/products/home/item-" + i)
+				.filter(url -> sampler.sampled(log, url))
+				.count();
+		assertTrue(sampled > 800 && sampled < 1200, "sampled " + sampled + " of 100000");
+
+		String url = IntStream.range(0, 100_000)
+				.mapToObj(i -> "https://eco-store.org/products/home/item-" + i)
+				.filter(candidate -> sampler.sampled(log, candidate))
+				.findFirst().orElseThrow();
+		assertTrue(new UrlLogSampler(0.01).sampled(log, url));
+		assertEquals(100_000, IntStream.range(0, 100_000)
+				.filter(i -> new UrlLogSampler(1).sampled(log, "https://a.io/" + i)).count());
+	}
+
+	@Test
+	void nothingIsSampledWithoutDebugOrAtRateZero() {
+		Logger log = mock(Logger.class);
+		when(log.isDebugEnabled()).thenReturn(false);
+		assertFalse(new UrlLogSampler(1).sampled(log, "https://a.io/x"));
+
+		when(log.isDebugEnabled()).thenReturn(true);
+		assertFalse(IntStream.range(0, 10_000).anyMatch(i -> new UrlLogSampler(0).sampled(log, "https://a.io/" + i)));
+	}
+}
@@ -2,9 +2,13 @@ package simulation.crawler.sensor.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import simulation.crawler.sensor.dto.SensorBatchResult;
 import simulation.crawler.sensor.dto.SensorResponse;
 import simulation.crawler.sensor.service.SensorService;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1/sensor")
 @RequiredArgsConstructor
@@ -12,7 +16,12 @@ public class SensorController {
     private final SensorService sensorService;
 
     @PostMapping("/inspect")
-    public SensorResponse inspect(@RequestBody String url) throws Exception {
+    public CompletableFuture<SensorResponse> inspect(@RequestBody String url) {
         return sensorService.inspect(url);
     }
+
+    @PostMapping("/inspect-batch")
+    public CompletableFuture<List<SensorBatchResult>> inspectBatch(@RequestBody List<String> urls) {
+        return sensorService.inspectBatch(urls);
+    }
 }
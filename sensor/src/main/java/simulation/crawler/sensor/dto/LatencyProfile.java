@@ -0,0 +1,47 @@
+package simulation.crawler.sensor.dto;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Shape of the simulated dependency. minMs/maxMs are the range of the uniform distribution, and minMs is
+// also the floor of the others. LOGNORMAL and PARETO draws are unbounded above unless tailCapMs is set, so
+// their tails stay intact. Brownout and per-domain multipliers are applied on top of the drawn latency.
+@Data
+public class LatencyProfile {
+    public enum Distribution { UNIFORM, LOGNORMAL, PARETO }
+
+    private Distribution distribution = Distribution.UNIFORM;
+    private int minMs = 100;
+    private int maxMs = 1000;
+    // LOGNORMAL: exp(ln(medianMs) + sigma * N(0,1))
+    private double medianMs = 300;
+    private double sigma = 0.6;
+    // PARETO: scaleMs / U^(1/shape), heavier tail for smaller shape
+    private double scaleMs = 100;
+    private double shape = 1.5;
+    // Optional upper bound for LOGNORMAL and PARETO draws; null leaves the tail uncut
+    private Integer tailCapMs;
+    private double failRate = 0.25;
+    // Set for a repeatable sequence of draws; null uses ThreadLocalRandom
+    private Long seed;
+    private BrownoutWindow brownout;
+    // Keyed by host; also matches subdomains
+    private Map<String, DomainOverride> domains = new HashMap<>();
+
+    @Data
+    public static class BrownoutWindow {
+        // Every periodMs (counted from when the profile was applied), the first durationMs are degraded
+        private long periodMs = 60_000;
+        private long durationMs = 10_000;
+        private double latencyMultiplier = 5;
+        private double failRate = 0.5;
+    }
+
+    @Data
+    public static class DomainOverride {
+        private double latencyMultiplier = 1;
+        private Double failRate;
+    }
+}
@@ -0,0 +1,14 @@
+package simulation.crawler.sensor.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorBatchResult {
+    private String url;
+    private Boolean success;
+    private SensorResponse result;
+    private String error;
+}
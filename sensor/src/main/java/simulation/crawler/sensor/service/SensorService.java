@@ -1,47 +1,121 @@
 package simulation.crawler.sensor.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import simulation.crawler.sensor.dto.SensorBatchResult;
 import simulation.crawler.sensor.dto.SensorResponse;
+import simulation.crawler.sensor.simulation.LatencySimulator;
+import simulation.crawler.sensor.simulation.SimulatedCall;
+import simulation.crawler.sensor.util.UrlLogSampler;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+// Latency is simulated with a delayed completion instead of Thread.sleep, so a waiting request holds
+// no Tomcat thread and the mock's concurrency is bounded by connections rather than the worker pool.
+// sensor.simulated.latency holds the drawn delays and sensor.observed.latency the time until the response was
+// ready; the gap is scheduling overshoot under load, which the profile alone does not show.
 @Service
 @Slf4j
 public class SensorService {
-    private final Random random = new Random();
+    private final LatencySimulator simulator;
+    private final UrlLogSampler logSampler;
+    // Delayed completions run on virtual threads; the common pool falls back to a thread per task on small hosts
+    private final Executor completions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer simulatedSingle;
+    private final Timer simulatedBatch;
+    private final Timer observedSingle;
+    private final Timer observedBatch;
+    private final Counter failures;
 
-    @Value("${sensor.jitter.min:100}")
-    private int minJitter;
+    public SensorService(LatencySimulator simulator, UrlLogSampler logSampler, MeterRegistry meterRegistry) {
+        this.simulator = simulator;
+        this.logSampler = logSampler;
+        this.simulatedSingle = latencyTimer(meterRegistry, "sensor.simulated.latency", "single");
+        this.simulatedBatch = latencyTimer(meterRegistry, "sensor.simulated.latency", "batch");
+        this.observedSingle = latencyTimer(meterRegistry, "sensor.observed.latency", "single");
+        this.observedBatch = latencyTimer(meterRegistry, "sensor.observed.latency", "batch");
+        this.failures = Counter.builder("sensor.simulated.failures")
+                .description("URLs answered with a simulated failure")
+                .register(meterRegistry);
+    }
 
-    @Value("${sensor.jitter.max:300}")
-    private int maxJitter;
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String name, String mode) {
+        return Timer.builder(name).tag("mode", mode).publishPercentileHistogram().register(meterRegistry);
+    }
 
-    @Value("${sensor.fail-rate:0.25}")
-    private double failRate;
+    public CompletableFuture<SensorResponse> inspect(String url) {
+        long start = System.nanoTime();
 
-    public SensorResponse inspect(String url) throws Exception {
-        log.info("Received inspection request for URL: {}", url);
+        // Simulation: Jitter and failure, drawn from the active latency profile
+        SimulatedCall call = simulator.next(List.of(url));
+        simulatedSingle.record(call.latencyMs(), TimeUnit.MILLISECONDS);
+        boolean sampled = logSampler.sampled(log, url);
+        if (sampled) {
+            log.debug("Simulating inspection delay: {}ms for URL: {}", call.latencyMs(), url);
+        }
 
-        // Simulation: Jitter
-        int jitter = minJitter + random.nextInt(maxJitter - minJitter);
-        log.info("Simulating inspection delay: {}ms for URL: {}", jitter, url);
-        Thread.sleep(jitter);
+        return CompletableFuture.supplyAsync(() -> {
+            // Simulation: Failure Rate
+            if (call.fails(0)) {
+                failures.increment();
+                if (sampled) {
+                    log.debug("Simulated sensor failure for URL: {}", url);
+                }
+                throw new RuntimeException("Simulated Sensor Failure");
+            }
 
-        // Simulation: Failure Rate
-        if (random.nextDouble() < failRate) {
-            log.error("Simulated sensor failure for URL: {}", url);
-            throw new RuntimeException("Simulated Sensor Failure");
-        }
+            SensorResponse response = simulatedResponse(call.latencyMs());
+            if (sampled) {
+                log.debug("Inspected URL: {} (Censored: {})", url, response.getCensored());
+            }
+            return response;
+        }, CompletableFuture.delayedExecutor(call.latencyMs(), TimeUnit.MILLISECONDS, completions))
+                .whenComplete((response, e) -> observedSingle.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
 
+    // One request, one jitter: the batch pays the simulated latency once, while each URL still
+    // fails independently at the configured rate
+    public CompletableFuture<List<SensorBatchResult>> inspectBatch(List<String> urls) {
+        long start = System.nanoTime();
+        SimulatedCall call = simulator.next(urls);
+        simulatedBatch.record(call.latencyMs(), TimeUnit.MILLISECONDS);
+        log.debug("Simulating inspection delay: {}ms for batch of {} URLs", call.latencyMs(), urls.size());
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<SensorBatchResult> results = new ArrayList<>(urls.size());
+            for (int i = 0; i < urls.size(); i++) {
+                String url = urls.get(i);
+                if (call.fails(i)) {
+                    failures.increment();
+                    if (logSampler.sampled(log, url)) {
+                        log.debug("Simulated sensor failure for URL: {}", url);
+                    }
+                    results.add(SensorBatchResult.builder().url(url).success(false).error("Simulated Sensor Failure").build());
+                } else {
+                    results.add(SensorBatchResult.builder().url(url).success(true).result(simulatedResponse(call.latencyMs())).build());
+                }
+            }
+            return results;
+        }, CompletableFuture.delayedExecutor(call.latencyMs(), TimeUnit.MILLISECONDS, completions))
+                .whenComplete((results, e) -> observedBatch.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private SensorResponse simulatedResponse(long jitter) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         SensorResponse response = new SensorResponse();
         response.setSslStatus(random.nextBoolean() ? "VALID" : "INVALID");
-        response.setLatencyMs((long) jitter);
+        response.setLatencyMs(jitter);
         response.setSiteAvailable(true);
         response.setCensored(random.nextDouble() < 0.25); // 25% censorship rate
-
-        log.info("Successfully inspected URL: {} (Censored: {})", url, response.getCensored());
         return response;
     }
 }
@@ -0,0 +1,22 @@
+package simulation.crawler.url.discovery.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+// The producing service owns its topic declaration. discovery.urls is keyed by URL fingerprint, which
+// sends repeat discoveries of a URL to one processor consumer; partitions cap the ingest consumers.
+@Configuration
+public class KafkaTopicConfig {
+
+    @Bean
+    public NewTopic discoveryTopic(@Value("${crawler.topics.discovery.partitions:12}") int partitions,
+                                  @Value("${crawler.topics.replication-factor:-1}") short replicationFactor) {
+        // Created on startup if missing; an existing topic with fewer partitions is grown to this count
+        return new NewTopic("discovery.urls", Optional.of(partitions),
+                replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty());
+    }
+}
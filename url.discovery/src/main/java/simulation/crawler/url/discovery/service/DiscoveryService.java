@@ -1,27 +1,77 @@
 package simulation.crawler.url.discovery.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.url.discovery.util.UrlFingerprint;
 
-import java.util.Random;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Generation runs in the background so the request returns the process ID right away. Each process
+// streams its URLs through a reused StringBuilder and one reused encoder buffer; send() only blocks
+// once the producer's buffer is full, which is the backpressure for very large processes.
+// Events are Avro single-object encoded unless crawler.wire-format is json (see dev_detail.md).
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DiscoveryService {
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final Random random = new Random();
+    // Epoch millis at generation; the processor keeps it as crawl_records.discovered_at for end-to-end latency
+    public static final String DISCOVERED_AT_HEADER = "crawler-discovered-at";
+    private static final int RATE_SAMPLE_EVERY = 10_000;
 
-    @Value("${discovery.max-count:100000}")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final boolean avro;
+    private final ExecutorService generators = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger activeProcesses = new AtomicInteger();
+    private final Counter generated;
+    private final Counter published;
+    private final Counter publishFailed;
+    private volatile double lastRate;
+
+    @Value("${discovery.max-count:10000000}")
     private int maxCount;
 
     private static final String[] DOMAINS = { "retail-giant.com", "shop-central.net", "market-hub.io",
             "eco-store.org" };
     private static final String[] CATEGORIES = { "electronics", "apparel", "home", "garden", "toys" };
 
+    public DiscoveryService(KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry,
+                            @Value("${crawler.wire-format:avro}") String wireFormat) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.avro = !"json".equalsIgnoreCase(wireFormat);
+        this.generated = Counter.builder("discovery.urls.generated")
+                .description("Discovery events handed to the producer")
+                .register(meterRegistry);
+        this.published = Counter.builder("discovery.urls.published")
+                .description("Discovery events acknowledged by the broker")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.publishFailed = Counter.builder("discovery.urls.published")
+                .description("Discovery events acknowledged by the broker")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        Gauge.builder("discovery.generation.rate", this, service -> service.lastRate)
+                .description("URLs per second of the most recently sampled generation process")
+                .baseUnit("urls/s")
+                .register(meterRegistry);
+        Gauge.builder("discovery.generation.active", activeProcesses, AtomicInteger::get)
+                .description("Generation processes still running")
+                .register(meterRegistry);
+    }
+
     public Long generateUrls(int count) {
         log.info("Received request to generate {} URLs", count);
         if (count <= 0)
@@ -29,22 +79,87 @@ public class DiscoveryService {
         if (count > maxCount)
             count = maxCount;
 
-        long processId = Math.abs(random.nextLong());
+        long processId = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
         log.info("Starting crawl process: {} for {} URLs", processId, count);
 
-        // Emit events to Kafka directly
-        for (int i = 0; i < count; i++) {
-            String domain = DOMAINS[random.nextInt(DOMAINS.length)];
-            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
-            String url = String.format("https://%s/products/%s/item-%06d", domain, category,
-                    Math.abs(random.nextInt(1000000)));
+        int total = count;
+        activeProcesses.incrementAndGet();
+        generators.execute(() -> {
+            try {
+                publish(processId, total);
+            } catch (Exception e) {
+                log.error("URL generation for process {} stopped: {}", processId, e.getMessage(), e);
+            } finally {
+                activeProcesses.decrementAndGet();
+            }
+        });
+        return processId;
+    }
 
-            String event = String.format("{\"url\":\"%s\", \"processId\":%d}", url, processId);
-            kafkaTemplate.send("discovery.urls", event);
-            log.trace("Published discovery event for URL: {}", url);
+    private void publish(long processId, int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder url = new StringBuilder(64);
+        StringBuilder event = new StringBuilder(128);
+        DiscoveryMessage message = new DiscoveryMessage(null, processId, count);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        long start = System.nanoTime();
+
+        // Emit events to Kafka directly; processSize lets the processor tell when a process is complete
+        for (int i = 1; i <= count; i++) {
+            url.setLength(0);
+            appendUrl(url, DOMAINS[random.nextInt(DOMAINS.length)], CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    random.nextInt(1_000_000));
+            String value = url.toString();
+
+            byte[] payload;
+            if (avro) {
+                message.setUrl(value);
+                out.reset();
+                encode(message, out);
+                payload = out.toByteArray();
+            } else {
+                event.setLength(0);
+                event.append("{\"url\":\"").append(value).append("\", \"processId\":").append(processId)
+                        .append(", \"processSize\":").append(count).append('}');
+                payload = event.toString().getBytes(StandardCharsets.UTF_8);
+            }
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>("discovery.urls",
+                    UrlFingerprint.key(UrlFingerprint.of(value)), payload);
+            record.headers().add(DISCOVERED_AT_HEADER,
+                    Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+            kafkaTemplate.send(record).whenComplete((sent, ex) -> (ex == null ? published : publishFailed).increment());
+            generated.increment();
+            log.trace("Published discovery event for URL: {}", value);
+
+            if (i % RATE_SAMPLE_EVERY == 0 || i == count) {
+                lastRate = i * 1e9 / Math.max(1, System.nanoTime() - start);
+            }
         }
 
-        log.info("Successfully published {} discovery events for process ID: {}", count, processId);
-        return processId;
+        log.info("Successfully published {} discovery events for process ID: {} ({} URLs/s)", count, processId,
+                Math.round(lastRate));
+    }
+
+    static void encode(DiscoveryMessage message, ByteArrayOutputStream out) {
+        try {
+            DiscoveryMessage.getEncoder().encode(message, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Generated URLs are already canonical (lower-case host, no port, query or fragment), so the
+    // canonicalizer is skipped; DiscoveryServiceTests guards that assumption
+    static void appendUrl(StringBuilder target, String domain, String category, int item) {
+        target.append("https://").append(domain).append("/products/").append(category).append("/item-");
+        for (int divisor = 100_000; divisor > 1 && item < divisor; divisor /= 10) {
+            target.append('0');
+        }
+        target.append(item);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        generators.shutdownNow();
     }
 }
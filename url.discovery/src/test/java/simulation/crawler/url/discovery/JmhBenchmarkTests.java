@@ -0,0 +1,30 @@
+package simulation.crawler.url.discovery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the module's JMH benchmarks (*Benchmark classes under src/test) with the GC profiler, so every
+// score comes with gc.alloc.rate.norm, the bytes allocated per operation. Iterations and forks come from
+// the annotations on each class. Results go to target/jmh-result.json.
+// Run with: ./mvnw test -Dtest=JmhBenchmarkTests -Dbench.jmh=true [-Dbench.jmh.forks=3]
+@EnabledIfSystemProperty(named = "bench.jmh", matches = "true")
+class JmhBenchmarkTests {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("bench.jmh.include", "Benchmark"))
+                .addProfiler(GCProfiler.class)
+                .result("target/jmh-result.json")
+                .resultFormat(ResultFormatType.JSON);
+        if (System.getProperty("bench.jmh.forks") != null) {
+            options.forks(Integer.getInteger("bench.jmh.forks"));
+        }
+        new Runner(options.build()).run();
+    }
+}
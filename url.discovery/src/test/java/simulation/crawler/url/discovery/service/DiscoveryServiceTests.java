@@ -0,0 +1,48 @@
+package simulation.crawler.url.discovery.service;
+
+import org.junit.jupiter.api.Test;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.url.discovery.util.UrlCanonicalizer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DiscoveryServiceTests {
+
+	@Test
+	void generatedUrlsAreZeroPaddedAndAlreadyCanonical() {
+		for (int item : new int[]{0, 7, 42, 999_999, 123_456, 1_000}) {
+			StringBuilder url = new StringBuilder();
+			DiscoveryService.appendUrl(url, "market-hub.io", "toys", item);
+
+			assertEquals(String.format("https://market-hub.io/products/toys/item-%06d", item), url.toString());
+			assertEquals(UrlCanonicalizer.canonicalize(url.toString()), url.toString());
+		}
+	}
+
+	@Test
+	void reusedEncoderBufferProducesSelfContainedMessages() throws Exception {
+		DiscoveryMessage message = new DiscoveryMessage(null, 42L, 2);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		message.setUrl("https://market-hub.io/products/toys/item-000001");
+		DiscoveryService.encode(message, out);
+		byte[] first = out.toByteArray();
+		out.reset();
+		message.setUrl("https://shop-central.net/products/home/item-000002");
+		DiscoveryService.encode(message, out);
+		byte[] second = out.toByteArray();
+
+		// Single-object encoding: C3 01 marker followed by the schema fingerprint
+		assertEquals((byte) 0xC3, first[0]);
+		assertEquals((byte) 0x01, first[1]);
+		assertEquals("https://market-hub.io/products/toys/item-000001",
+				DiscoveryMessage.fromByteBuffer(ByteBuffer.wrap(first)).getUrl());
+		DiscoveryMessage decoded = DiscoveryMessage.fromByteBuffer(ByteBuffer.wrap(second));
+		assertEquals("https://shop-central.net/products/home/item-000002", decoded.getUrl());
+		assertEquals(42L, decoded.getProcessId());
+		assertEquals(2, decoded.getProcessSize());
+	}
+}
@@ -0,0 +1,88 @@
+package simulation.crawler.url.discovery.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.crawler.events.DiscoveryMessage;
+import simulation.crawler.url.discovery.util.UrlFingerprint;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Building one discovery.urls value, URL included, as DiscoveryService.publish does per generated URL.
+// jsonFormat is the original String.format version, kept as the reference; jsonBuilder and avro are the
+// current JSON and Avro paths with their reused buffers; avroPerEvent allocates the message and buffer
+// per event. kafkaKey is the fingerprint key every variant also pays for.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBuildBenchmark {
+    private static final String[] DOMAINS = { "retail-giant.com", "shop-central.net", "market-hub.io",
+            "eco-store.org" };
+    private static final String[] CATEGORIES = { "electronics", "apparel", "home", "garden", "toys" };
+    private static final long PROCESS_ID = 8305417736625561090L;
+    private static final int PROCESS_SIZE = 100_000;
+
+    private final StringBuilder url = new StringBuilder(64);
+    private final StringBuilder event = new StringBuilder(128);
+    private final DiscoveryMessage message = new DiscoveryMessage(null, PROCESS_ID, PROCESS_SIZE);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+    private final String sampleUrl = "https://retail-giant.com/products/electronics/item-004217";
+
+    @Benchmark
+    public byte[] jsonFormat() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String value = String.format("https://%s/products/%s/item-%06d", DOMAINS[random.nextInt(DOMAINS.length)],
+                CATEGORIES[random.nextInt(CATEGORIES.length)], random.nextInt(1_000_000));
+        return String.format("{\"url\":\"%s\", \"processId\":%d, \"processSize\":%d}", value, PROCESS_ID,
+                PROCESS_SIZE).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jsonBuilder() {
+        String value = nextUrl();
+        event.setLength(0);
+        event.append("{\"url\":\"").append(value).append("\", \"processId\":").append(PROCESS_ID)
+                .append(", \"processSize\":").append(PROCESS_SIZE).append('}');
+        return event.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] avro() {
+        message.setUrl(nextUrl());
+        out.reset();
+        DiscoveryService.encode(message, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] avroPerEvent() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DiscoveryService.encode(new DiscoveryMessage(nextUrl(), PROCESS_ID, PROCESS_SIZE), buffer);
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public String kafkaKey() {
+        return UrlFingerprint.key(UrlFingerprint.of(sampleUrl));
+    }
+
+    private String nextUrl() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        url.setLength(0);
+        DiscoveryService.appendUrl(url, DOMAINS[random.nextInt(DOMAINS.length)],
+                CATEGORIES[random.nextInt(CATEGORIES.length)], random.nextInt(1_000_000));
+        return url.toString();
+    }
+}